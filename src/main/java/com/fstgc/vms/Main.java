@@ -1,32 +1,77 @@
 package com.fstgc.vms;
 
-import com.fstgc.vms.repository.memory.InMemoryAdminRepository;
+import com.fstgc.vms.repository.RepositoryRegistry;
+import com.fstgc.vms.repository.jdbc.JdbcRepositoryFactory;
+import com.fstgc.vms.repository.memory.InMemoryRepositoryFactory;
 import com.fstgc.vms.service.AuthenticationService;
+import com.fstgc.vms.service.UnitOfWork;
 import com.fstgc.vms.ui.LoginDialog;
 import com.fstgc.vms.ui.SystemUI;
+import com.fstgc.vms.util.Aggregate;
 import com.fstgc.vms.util.DataPersistence;
 
 import javax.swing.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.sql.SQLException;
 
 public class Main {
     public static void main(String[] args) {
         // Initialize data persistence
-        DataPersistence.initialize();
+        try {
+            DataPersistence.initialize();
+        } catch (IllegalStateException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
         
+        // Choose the storage backend: -Dvms.repository=memory (default) or jdbc
+        boolean jdbc = "jdbc".equalsIgnoreCase(System.getProperty("vms.repository", "memory"));
+        // One instance of each repository, shared by every service below
+        RepositoryRegistry repositories;
+        if (jdbc) {
+            JdbcRepositoryFactory factory = openDatabase();
+            // Multi-record service operations commit or roll back their SQL together
+            UnitOfWork.useTransactions(factory.database()::inTransaction);
+            repositories = new RepositoryRegistry(factory);
+        } else {
+            repositories = InMemoryRepositoryFactory.shared();
+        }
+
         // Create authentication service
-        AuthenticationService authService = new AuthenticationService(new InMemoryAdminRepository());
+        AuthenticationService authService = new AuthenticationService(repositories.admins(), repositories.volunteers());
         
         // Show login dialog
         SwingUtilities.invokeLater(() -> {
             LoginDialog loginDialog = new LoginDialog(null, authService);
+            if (!jdbc) {
+                // Read what the dashboard needs while the user is typing; the rest loads on first use
+                loginDialog.addWindowListener(new WindowAdapter() {
+                    @Override
+                    public void windowOpened(WindowEvent e) {
+                        DataPersistence.preload(Aggregate.VOLUNTEERS, Aggregate.EVENTS, Aggregate.ANNOUNCEMENTS);
+                    }
+                });
+            }
             loginDialog.setVisible(true);
             
             if (loginDialog.isAuthenticated()) {
-                SystemUI gui = new SystemUI(authService);
+                SystemUI gui = new SystemUI(authService, repositories);
                 gui.launch();
             } else {
                 System.exit(0);
             }
         });
     }
+
+    private static JdbcRepositoryFactory openDatabase() {
+        String url = System.getProperty("vms.jdbc.url", JdbcRepositoryFactory.DEFAULT_URL);
+        try {
+            return JdbcRepositoryFactory.open(url);
+        } catch (SQLException | IllegalStateException e) {
+            System.err.println("Error opening database " + url + ": " + e.getMessage());
+            System.exit(1);
+            return null;
+        }
+    }
 }
@@ -43,4 +43,9 @@ public class AnnouncementController {
     }
     
     public java.util.List<Announcement> listAll() { return service.listAll(); }
+
+    /**
+     * Get the announcements that are neither deleted nor expired, most urgent first
+     */
+    public java.util.List<Announcement> active() { return service.active(); }
 }
@@ -24,4 +24,22 @@ public class AwardController {
     public java.util.List<Award> getAwardsByVolunteer(int volunteerId) {
         return service.getAwardsByVolunteer(volunteerId);
     }
+
+    /**
+     * Ids of the volunteers with the most awards, at most {@code limit}
+     */
+    public java.util.List<Integer> topVolunteers(int limit) {
+        return service.topVolunteers(limit);
+    }
+
+    /**
+     * A volunteer's place on the leaderboard; volunteers with as many awards share it
+     */
+    public int rankOf(int volunteerId) {
+        return service.rankOf(volunteerId);
+    }
+
+    public int countByVolunteer(int volunteerId) {
+        return service.countByVolunteer(volunteerId);
+    }
 }
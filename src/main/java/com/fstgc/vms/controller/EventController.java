@@ -52,4 +52,25 @@ public class EventController {
     public java.util.List<Event> listAll() {
         return service.listAll();
     }
+
+    /**
+     * Get the next events from a date on that are neither cancelled nor completed, by date
+     */
+    public java.util.List<Event> upcoming(java.time.LocalDate from, int limit) {
+        return service.getUpcoming(from, limit);
+    }
+
+    /**
+     * Get the latest events dated before a date, or completed, that were not cancelled; latest first
+     */
+    public java.util.List<Event> past(java.time.LocalDate before, int limit) {
+        return service.getPast(before, limit);
+    }
+
+    /**
+     * Get the latest cancelled events, latest first
+     */
+    public java.util.List<Event> cancelled(int limit) {
+        return service.getCancelled(limit);
+    }
 }
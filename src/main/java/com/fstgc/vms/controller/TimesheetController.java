@@ -67,4 +67,18 @@ public class TimesheetController {
     public java.util.List<Timesheet> listAll() {
         return service.listAll();
     }
+
+    /**
+     * Get the timesheets with a status, newest first
+     */
+    public java.util.List<Timesheet> listByStatus(com.fstgc.vms.model.enums.TimesheetStatus status) {
+        return service.listByStatus(status);
+    }
+
+    /**
+     * Get the timesheets of one volunteer
+     */
+    public java.util.List<Timesheet> listByVolunteer(int volunteerId) {
+        return service.listByVolunteer(volunteerId);
+    }
 }
@@ -1,3 +1,19 @@
 package com.fstgc.vms.model.enums;
 
-public enum BadgeTier { BRONZE, SILVER, GOLD, PLATINUM }
+public enum BadgeTier {
+    BRONZE, SILVER, GOLD, PLATINUM;
+
+    /** The tier a volunteer holds after {@code hours} of completed attendance, or null below 10 hours. */
+    public static BadgeTier forHours(double hours) {
+        if (hours >= 200) {
+            return PLATINUM;
+        } else if (hours >= 100) {
+            return GOLD;
+        } else if (hours >= 50) {
+            return SILVER;
+        } else if (hours >= 10) {
+            return BRONZE;
+        }
+        return null;
+    }
+}
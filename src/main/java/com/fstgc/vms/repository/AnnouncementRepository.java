@@ -8,9 +8,12 @@ import java.util.Optional;
 public interface AnnouncementRepository {
     Optional<Announcement> findById(int id);
     List<Announcement> findAll();
+    /** Announcements neither deleted nor expired, most urgent first, then newest first. */
     List<Announcement> findActive();
     List<Announcement> findByDateRange(LocalDateTime start, LocalDateTime end);
+    /** Announcements with the priority, newest first. */
     List<Announcement> findByPriority(String priority);
+    /** Announcements for the audience, newest first. */
     List<Announcement> findByTargetAudience(String audience);
     Announcement save(Announcement announcement);
     Announcement update(Announcement announcement);
@@ -8,7 +8,13 @@ public interface AwardRepository {
     Optional<Award> findById(int id);
     List<Award> findByVolunteer(int volunteerId);
     List<Award> findByBadgeTier(String tier);
+    /** Awards of the volunteers with the most awards first, each volunteer's by id. */
     List<Award> findLeaderboard();
+    /** Ids of the volunteers with the most awards, ties by id, at most {@code limit}. */
+    List<Integer> findTopVolunteers(int limit);
+    /** 1 + the number of volunteers with more awards; volunteers with as many share a rank. */
+    int findRank(int volunteerId);
+    int countByVolunteer(int volunteerId);
     boolean checkIfAwarded(int volunteerId, int criteriaId);
     Award save(Award award);
     Award update(Award award);
@@ -0,0 +1,42 @@
+package com.fstgc.vms.repository;
+
+/**
+ * One insert, update or delete made through a repository, as published on a change feed.
+ * Sequence numbers increase by one with every change published, across all aggregates.
+ */
+public final class Change<T> {
+    public enum Type { INSERT, UPDATE, DELETE }
+
+    private final long sequence;
+    private final Type type;
+    private final Class<T> entityType;
+    private final int id;
+    private final T entity;
+
+    public Change(long sequence, Type type, Class<T> entityType, int id, T entity) {
+        this.sequence = sequence;
+        this.type = type;
+        this.entityType = entityType;
+        this.id = id;
+        this.entity = entity;
+    }
+
+    public long getSequence() { return sequence; }
+
+    public Type getType() { return type; }
+
+    public Class<T> getEntityType() { return entityType; }
+
+    public int getId() { return id; }
+
+    /**
+     * The entity as saved, null for a delete. This is the repository's own instance, which later
+     * updates change in place, so read what you need from it when the change arrives.
+     */
+    public T getEntity() { return entity; }
+
+    @Override
+    public String toString() {
+        return "Change #" + sequence + " " + type + " " + entityType.getSimpleName() + " " + id;
+    }
+}
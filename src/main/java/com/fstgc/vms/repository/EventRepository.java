@@ -8,7 +8,14 @@ import java.util.Optional;
 public interface EventRepository {
     Optional<Event> findById(int id);
     List<Event> findAll();
+    /** Events dated from {@code start} to {@code end} inclusive, by date. */
     List<Event> findByDateRange(LocalDate start, LocalDate end);
+    /** Events on or after {@code from} that are neither cancelled nor completed, by date, at most {@code limit}. */
+    List<Event> findUpcoming(LocalDate from, int limit);
+    /** Events dated before {@code before}, or completed whatever their date, that were not cancelled; latest first, at most {@code limit}. */
+    List<Event> findPast(LocalDate before, int limit);
+    /** Cancelled events, latest first, at most {@code limit}. */
+    List<Event> findCancelled(int limit);
     List<Event> findByType(String type);
     List<Event> findByStatus(String status);
     List<Event> searchByTitle(String title);
@@ -0,0 +1,25 @@
+package com.fstgc.vms.repository;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Creates the repositories of one storage backend, so that the application can be wired
+ * without naming the implementation classes.
+ */
+public interface RepositoryFactory {
+    VolunteerRepository volunteers();
+    EventRepository events();
+    AttendanceRepository attendance();
+    AnnouncementRepository announcements();
+    TimesheetRepository timesheets();
+    AdminRepository admins();
+    AwardRepository awards();
+
+    /**
+     * Writes a consistent copy of all the data, as of the call, to an archive in {@code directory}
+     * without stopping the repositories.
+     * @return completes with the archive once it is written
+     */
+    CompletableFuture<Path> backup(Path directory);
+}
@@ -0,0 +1,56 @@
+package com.fstgc.vms.repository;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Holds one instance of each repository for the whole application. Every service asking for,
+ * say, the volunteers gets the same repository, and so the same store, instead of a copy that
+ * is loaded separately and writes its own stale view back over the others' changes.
+ */
+public final class RepositoryRegistry implements RepositoryFactory {
+    private final RepositoryFactory factory;
+    private final VolunteerRepository volunteers;
+    private final EventRepository events;
+    private final AttendanceRepository attendance;
+    private final AnnouncementRepository announcements;
+    private final TimesheetRepository timesheets;
+    private final AdminRepository admins;
+    private final AwardRepository awards;
+
+    /** Creates each repository once from {@code factory}; creating them reads nothing from storage yet. */
+    public RepositoryRegistry(RepositoryFactory factory) {
+        this.factory = factory;
+        this.volunteers = factory.volunteers();
+        this.events = factory.events();
+        this.attendance = factory.attendance();
+        this.announcements = factory.announcements();
+        this.timesheets = factory.timesheets();
+        this.admins = factory.admins();
+        this.awards = factory.awards();
+    }
+
+    @Override
+    public VolunteerRepository volunteers() { return volunteers; }
+
+    @Override
+    public EventRepository events() { return events; }
+
+    @Override
+    public AttendanceRepository attendance() { return attendance; }
+
+    @Override
+    public AnnouncementRepository announcements() { return announcements; }
+
+    @Override
+    public TimesheetRepository timesheets() { return timesheets; }
+
+    @Override
+    public AdminRepository admins() { return admins; }
+
+    @Override
+    public AwardRepository awards() { return awards; }
+
+    @Override
+    public CompletableFuture<Path> backup(Path directory) { return factory.backup(directory); }
+}
@@ -8,8 +8,11 @@ import java.util.Optional;
 public interface TimesheetRepository {
     Optional<Timesheet> findById(int id);
     List<Timesheet> findByVolunteer(int volunteerId);
+    List<Timesheet> findByVolunteerAndEvent(int volunteerId, int eventId);
     List<Timesheet> findByPeriod(LocalDate start, LocalDate end);
+    /** Timesheets with the status, newest first. */
     List<Timesheet> findByApprovalStatus(String status);
+    /** Pending timesheets, newest first. */
     List<Timesheet> findPendingApprovals();
     List<Timesheet> findAll();
     Timesheet save(Timesheet timesheet);
@@ -0,0 +1,120 @@
+package com.fstgc.vms.repository.jdbc;
+
+import com.fstgc.vms.model.SystemAdmin;
+import com.fstgc.vms.model.enums.AccountStatus;
+import com.fstgc.vms.model.enums.Role;
+import com.fstgc.vms.repository.AdminRepository;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+public class JdbcAdminRepository extends JdbcRepository<SystemAdmin> implements AdminRepository {
+
+    public JdbcAdminRepository(JdbcDatabase database) {
+        super(database, "admins", "id", "first_name", "last_name", "email", "email_key", "phone", "username",
+                "username_key", "password_hash", "role", "permissions_json", "last_login", "failed_login_attempts",
+                "account_locked_until", "account_status", "created_date", "created_by_admin_id", "security_question",
+                "security_answer_hash");
+        unique("admins_username_unique", "Username already exists");
+        unique("admins_email_unique", "Email already exists");
+    }
+
+    @Override
+    int idOf(SystemAdmin admin) { return admin.getId(); }
+
+    @Override
+    void bind(PreparedStatement s, SystemAdmin a) throws SQLException {
+        int i = 1;
+        set(s, i++, a.getFirstName());
+        set(s, i++, a.getLastName());
+        set(s, i++, a.getEmail());
+        set(s, i++, key(a.getEmail()));
+        set(s, i++, a.getPhone());
+        set(s, i++, a.getUsername());
+        set(s, i++, key(a.getUsername()));
+        set(s, i++, a.getPasswordHash());
+        set(s, i++, a.getRole());
+        set(s, i++, a.getPermissionsJson());
+        set(s, i++, a.getLastLogin());
+        set(s, i++, a.getFailedLoginAttempts());
+        set(s, i++, a.getAccountLockedUntil());
+        set(s, i++, a.getAccountStatus());
+        set(s, i++, a.getCreatedDate());
+        set(s, i++, a.getCreatedByAdminId());
+        set(s, i++, a.getSecurityQuestion());
+        set(s, i, a.getSecurityAnswerHash());
+    }
+
+    @Override
+    SystemAdmin map(ResultSet row) throws SQLException {
+        SystemAdmin a = new SystemAdmin();
+        a.setId(row.getInt("id"));
+        a.setFirstName(row.getString("first_name"));
+        a.setLastName(row.getString("last_name"));
+        a.setEmail(row.getString("email"));
+        a.setPhone(row.getString("phone"));
+        a.setUsername(row.getString("username"));
+        a.setPasswordHash(row.getString("password_hash"));
+        a.setRole(getEnum(row, "role", Role.class));
+        a.setPermissionsJson(row.getString("permissions_json"));
+        a.setLastLogin(getDateTime(row, "last_login"));
+        a.setFailedLoginAttempts(row.getInt("failed_login_attempts"));
+        a.setAccountLockedUntil(getDateTime(row, "account_locked_until"));
+        a.setAccountStatus(getEnum(row, "account_status", AccountStatus.class));
+        a.setCreatedDate(getDateTime(row, "created_date"));
+        a.setCreatedByAdminId(getInteger(row, "created_by_admin_id"));
+        a.setSecurityQuestion(row.getString("security_question"));
+        a.setSecurityAnswerHash(row.getString("security_answer_hash"));
+        return a;
+    }
+
+    @Override
+    public Optional<SystemAdmin> findByUsername(String username) {
+        // Search by username or email
+        String key = key(username);
+        return where("username_key = ? OR email_key = ?", key, key).stream().findFirst();
+    }
+
+    @Override
+    public Optional<SystemAdmin> findByEmail(String email) {
+        return email == null ? Optional.empty() : where("email_key = ?", key(email)).stream().findFirst();
+    }
+
+    @Override
+    public Optional<SystemAdmin> findById(int id) { return super.findById(id); }
+
+    @Override
+    public boolean validateCredentials(String username, String passwordHash) {
+        return findByUsername(username)
+                .map(admin -> admin.getPasswordHash() != null && admin.getPasswordHash().equals(passwordHash))
+                .orElse(false);
+    }
+
+    @Override
+    public SystemAdmin save(SystemAdmin admin) {
+        admin.setId(nextId());
+        insert(admin);
+        return admin;
+    }
+
+    @Override
+    public SystemAdmin update(SystemAdmin admin) {
+        if (admin != null && admin.getId() > 0) {
+            upsert(admin);
+        }
+        return admin;
+    }
+
+    @Override
+    public SystemAdmin updatePassword(int id, String newHash) {
+        execute("UPDATE admins SET password_hash = ? WHERE id = ?", newHash, id);
+        return findById(id).orElse(null);
+    }
+
+    @Override
+    public SystemAdmin updatePermissions(int id, String permissionsJson) {
+        execute("UPDATE admins SET permissions_json = ? WHERE id = ?", permissionsJson, id);
+        return findById(id).orElse(null);
+    }
+}
@@ -0,0 +1,107 @@
+package com.fstgc.vms.repository.jdbc;
+
+import com.fstgc.vms.model.Announcement;
+import com.fstgc.vms.model.enums.Priority;
+import com.fstgc.vms.model.enums.TargetAudience;
+import com.fstgc.vms.repository.AnnouncementRepository;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.*;
+
+public class JdbcAnnouncementRepository extends JdbcRepository<Announcement> implements AnnouncementRepository {
+    private static final String NEWEST_FIRST = "published_date DESC, announcement_id DESC";
+
+    public JdbcAnnouncementRepository(JdbcDatabase database) {
+        super(database, "announcements", "announcement_id", "title", "message", "published_date", "expiry_date",
+                "priority", "target_audience", "event_id", "created_by_admin_id", "deleted", "last_modified_by",
+                "last_modified_date");
+    }
+
+    @Override
+    int idOf(Announcement announcement) { return announcement.getAnnouncementId(); }
+
+    @Override
+    void bind(PreparedStatement s, Announcement a) throws SQLException {
+        int i = 1;
+        set(s, i++, a.getTitle());
+        set(s, i++, a.getMessage());
+        set(s, i++, a.getPublishedDate());
+        set(s, i++, a.getExpiryDate());
+        set(s, i++, a.getPriority());
+        set(s, i++, a.getTargetAudience());
+        set(s, i++, a.getEventId());
+        set(s, i++, a.getCreatedByAdminId());
+        set(s, i++, a.isDeleted());
+        set(s, i++, a.getLastModifiedBy());
+        set(s, i, a.getLastModifiedDate());
+    }
+
+    @Override
+    Announcement map(ResultSet row) throws SQLException {
+        Announcement a = new Announcement();
+        a.setAnnouncementId(row.getInt("announcement_id"));
+        a.setTitle(row.getString("title"));
+        a.setMessage(row.getString("message"));
+        a.setPublishedDate(getDateTime(row, "published_date"));
+        a.setExpiryDate(getDateTime(row, "expiry_date"));
+        a.setPriority(getEnum(row, "priority", Priority.class));
+        a.setTargetAudience(getEnum(row, "target_audience", TargetAudience.class));
+        a.setEventId(getInteger(row, "event_id"));
+        a.setCreatedByAdminId(row.getInt("created_by_admin_id"));
+        a.setDeleted(row.getBoolean("deleted"));
+        a.setLastModifiedBy(row.getString("last_modified_by"));
+        a.setLastModifiedDate(getDateTime(row, "last_modified_date"));
+        return a;
+    }
+
+    @Override
+    public Optional<Announcement> findById(int id) { return super.findById(id); }
+
+    @Override
+    public List<Announcement> findAll() { return super.findAll(); }
+
+    @Override
+    public List<Announcement> findActive() {
+        return whereOrderedBy("deleted = FALSE AND (expiry_date IS NULL OR expiry_date > ?)",
+                "CASE priority WHEN 'URGENT' THEN 0 WHEN 'HIGH' THEN 1 WHEN 'MEDIUM' THEN 2 ELSE 3 END, " + NEWEST_FIRST,
+                LocalDateTime.now());
+    }
+
+    @Override
+    public List<Announcement> findByDateRange(LocalDateTime start, LocalDateTime end) {
+        return where("published_date BETWEEN ? AND ?", start, end);
+    }
+
+    @Override
+    public List<Announcement> findByPriority(String priority) {
+        return whereOrderedBy("priority = ?", NEWEST_FIRST, enumName(priority));
+    }
+
+    @Override
+    public List<Announcement> findByTargetAudience(String audience) {
+        return whereOrderedBy("target_audience = ?", NEWEST_FIRST, enumName(audience));
+    }
+
+    @Override
+    public Announcement save(Announcement announcement) {
+        announcement.setAnnouncementId(nextId());
+        insert(announcement);
+        return announcement;
+    }
+
+    @Override
+    public Announcement update(Announcement announcement) {
+        upsert(announcement);
+        return announcement;
+    }
+
+    @Override
+    public boolean softDelete(int id) {
+        return execute("UPDATE announcements SET deleted = TRUE WHERE announcement_id = ?", id) > 0;
+    }
+
+    @Override
+    public boolean delete(int id) { return deleteById(id); }
+}
@@ -0,0 +1,90 @@
+package com.fstgc.vms.repository.jdbc;
+
+import com.fstgc.vms.model.Attendance;
+import com.fstgc.vms.model.enums.AttendanceStatus;
+import com.fstgc.vms.repository.AttendanceRepository;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.*;
+
+public class JdbcAttendanceRepository extends JdbcRepository<Attendance> implements AttendanceRepository {
+
+    public JdbcAttendanceRepository(JdbcDatabase database) {
+        super(database, "attendance", "attendance_id", "volunteer_id", "event_id", "check_in_time", "check_out_time",
+                "status", "hours_worked", "recorded_by_admin_id", "notes", "last_modified_by", "last_modified_date");
+    }
+
+    @Override
+    int idOf(Attendance attendance) { return attendance.getAttendanceId(); }
+
+    @Override
+    void bind(PreparedStatement s, Attendance a) throws SQLException {
+        int i = 1;
+        set(s, i++, a.getVolunteerId());
+        set(s, i++, a.getEventId());
+        set(s, i++, a.getCheckInTime());
+        set(s, i++, a.getCheckOutTime());
+        set(s, i++, a.getStatus());
+        set(s, i++, a.getHoursWorked());
+        set(s, i++, a.getRecordedByAdminId());
+        set(s, i++, a.getNotes());
+        set(s, i++, a.getLastModifiedBy());
+        set(s, i, a.getLastModifiedDate());
+    }
+
+    @Override
+    Attendance map(ResultSet row) throws SQLException {
+        Attendance a = new Attendance();
+        a.setAttendanceId(row.getInt("attendance_id"));
+        a.setVolunteerId(row.getInt("volunteer_id"));
+        a.setEventId(row.getInt("event_id"));
+        a.setCheckInTime(getDateTime(row, "check_in_time"));
+        a.setCheckOutTime(getDateTime(row, "check_out_time"));
+        a.setStatus(getEnum(row, "status", AttendanceStatus.class));
+        a.setHoursWorked(row.getDouble("hours_worked"));
+        a.setRecordedByAdminId(getInteger(row, "recorded_by_admin_id"));
+        a.setNotes(row.getString("notes"));
+        a.setLastModifiedBy(row.getString("last_modified_by"));
+        a.setLastModifiedDate(getDateTime(row, "last_modified_date"));
+        return a;
+    }
+
+    @Override
+    public Optional<Attendance> findById(int id) { return super.findById(id); }
+
+    @Override
+    public List<Attendance> findAll() { return super.findAll(); }
+
+    @Override
+    public List<Attendance> findByVolunteer(int volunteerId) {
+        return where("volunteer_id = ?", volunteerId);
+    }
+
+    @Override
+    public List<Attendance> findByEvent(int eventId) {
+        return where("event_id = ?", eventId);
+    }
+
+    @Override
+    public List<Attendance> findByDateRange(LocalDateTime start, LocalDateTime end) {
+        return where("check_in_time >= ? AND (check_out_time IS NULL OR check_out_time <= ?)", start, end);
+    }
+
+    @Override
+    public Attendance save(Attendance attendance) {
+        attendance.setAttendanceId(nextId());
+        insert(attendance);
+        return attendance;
+    }
+
+    @Override
+    public Attendance update(Attendance attendance) {
+        upsert(attendance);
+        return attendance;
+    }
+
+    @Override
+    public boolean delete(int id) { return deleteById(id); }
+}
@@ -0,0 +1,102 @@
+package com.fstgc.vms.repository.jdbc;
+
+import com.fstgc.vms.model.Award;
+import com.fstgc.vms.model.enums.BadgeTier;
+import com.fstgc.vms.repository.AwardRepository;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+public class JdbcAwardRepository extends JdbcRepository<Award> implements AwardRepository {
+
+    public JdbcAwardRepository(JdbcDatabase database) {
+        super(database, "awards", "award_id", "volunteer_id", "badge_name", "badge_description", "criteria_id",
+                "date_earned", "badge_tier", "badge_icon_url", "featured");
+    }
+
+    @Override
+    int idOf(Award award) { return award.getAwardId(); }
+
+    @Override
+    void bind(PreparedStatement s, Award a) throws SQLException {
+        int i = 1;
+        set(s, i++, a.getVolunteerId());
+        set(s, i++, a.getBadgeName());
+        set(s, i++, a.getBadgeDescription());
+        set(s, i++, a.getCriteriaId());
+        set(s, i++, a.getDateEarned());
+        set(s, i++, a.getBadgeTier());
+        set(s, i++, a.getBadgeIconUrl());
+        set(s, i, a.isFeatured());
+    }
+
+    @Override
+    Award map(ResultSet row) throws SQLException {
+        Award a = new Award();
+        a.setAwardId(row.getInt("award_id"));
+        a.setVolunteerId(row.getInt("volunteer_id"));
+        a.setBadgeName(row.getString("badge_name"));
+        a.setBadgeDescription(row.getString("badge_description"));
+        a.setCriteriaId(row.getInt("criteria_id"));
+        a.setDateEarned(getDateTime(row, "date_earned"));
+        a.setBadgeTier(getEnum(row, "badge_tier", BadgeTier.class));
+        a.setBadgeIconUrl(row.getString("badge_icon_url"));
+        a.setFeatured(row.getBoolean("featured"));
+        return a;
+    }
+
+    @Override
+    public Optional<Award> findById(int id) { return super.findById(id); }
+
+    @Override
+    public List<Award> findByVolunteer(int volunteerId) {
+        return where("volunteer_id = ?", volunteerId);
+    }
+
+    @Override
+    public List<Award> findByBadgeTier(String tier) {
+        return where("badge_tier = ?", enumName(tier));
+    }
+
+    @Override
+    public List<Award> findLeaderboard() {
+        // Volunteers with the most awards first, each followed by all of their awards
+        return query("SELECT a.* FROM awards a JOIN (SELECT volunteer_id, COUNT(*) AS awarded FROM awards GROUP BY volunteer_id) c"
+                + " ON a.volunteer_id = c.volunteer_id ORDER BY c.awarded DESC, a.volunteer_id, a.award_id");
+    }
+
+    @Override
+    public List<Integer> findTopVolunteers(int limit) {
+        return queryInts("SELECT volunteer_id FROM awards GROUP BY volunteer_id ORDER BY COUNT(*) DESC, volunteer_id LIMIT ?", limit);
+    }
+
+    @Override
+    public int findRank(int volunteerId) {
+        return 1 + queryInts("SELECT COUNT(*) FROM (SELECT volunteer_id FROM awards GROUP BY volunteer_id"
+                + " HAVING COUNT(*) > (SELECT COUNT(*) FROM awards WHERE volunteer_id = ?)) ahead", volunteerId).get(0);
+    }
+
+    @Override
+    public int countByVolunteer(int volunteerId) {
+        return queryInts("SELECT COUNT(*) FROM awards WHERE volunteer_id = ?", volunteerId).get(0);
+    }
+
+    @Override
+    public boolean checkIfAwarded(int volunteerId, int criteriaId) {
+        return exists("volunteer_id = ? AND criteria_id = ?", volunteerId, criteriaId);
+    }
+
+    @Override
+    public Award save(Award award) {
+        award.setAwardId(nextId());
+        insert(award);
+        return award;
+    }
+
+    @Override
+    public Award update(Award award) {
+        upsert(award);
+        return award;
+    }
+}
@@ -0,0 +1,289 @@
+package com.fstgc.vms.repository.jdbc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One connection to the embedded database shared by all JDBC repositories. Prepared statements
+ * are cached per SQL string and reused, and statements run one at a time on the connection.
+ * The schema is created on open if it does not exist yet.
+ */
+public final class JdbcDatabase implements AutoCloseable {
+    @FunctionalInterface
+    interface Binder {
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface RowBinder<T> {
+        void bind(PreparedStatement statement, T row) throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface ResultReader<R> {
+        R read(ResultSet rows) throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface Work {
+        void run() throws SQLException;
+    }
+
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS schema_info (name VARCHAR(64) PRIMARY KEY, info VARCHAR(255))",
+
+        "CREATE TABLE IF NOT EXISTS volunteers (id INTEGER PRIMARY KEY, first_name VARCHAR, last_name VARCHAR,"
+                + " email VARCHAR, email_key VARCHAR, phone VARCHAR, registration_date TIMESTAMP(9), status VARCHAR(32),"
+                + " profile_photo_url VARCHAR, date_of_birth DATE, address VARCHAR, events_attended INTEGER,"
+                + " last_modified_by VARCHAR, last_modified_date TIMESTAMP(9), badges_earned INTEGER, current_tier VARCHAR(32))",
+        "CREATE INDEX IF NOT EXISTS volunteers_status ON volunteers (status)",
+
+        "CREATE TABLE IF NOT EXISTS events (event_id INTEGER PRIMARY KEY, title VARCHAR, description VARCHAR,"
+                + " event_date DATE, start_time TIME(9), end_time TIME(9), location VARCHAR, capacity INTEGER,"
+                + " current_registrations INTEGER, event_type VARCHAR(32), status VARCHAR(32), created_by_admin_id INTEGER,"
+                + " last_modified_by VARCHAR, last_modified_date TIMESTAMP(9))",
+        "CREATE INDEX IF NOT EXISTS events_date ON events (event_date)",
+        "CREATE INDEX IF NOT EXISTS events_status ON events (status)",
+        "CREATE INDEX IF NOT EXISTS events_type ON events (event_type)",
+
+        "CREATE TABLE IF NOT EXISTS attendance (attendance_id INTEGER PRIMARY KEY, volunteer_id INTEGER, event_id INTEGER,"
+                + " check_in_time TIMESTAMP(9), check_out_time TIMESTAMP(9), status VARCHAR(32), hours_worked DOUBLE PRECISION,"
+                + " recorded_by_admin_id INTEGER, notes VARCHAR, last_modified_by VARCHAR, last_modified_date TIMESTAMP(9))",
+        "CREATE INDEX IF NOT EXISTS attendance_volunteer ON attendance (volunteer_id)",
+        "CREATE INDEX IF NOT EXISTS attendance_event ON attendance (event_id)",
+        "CREATE INDEX IF NOT EXISTS attendance_check_in ON attendance (check_in_time)",
+
+        "CREATE TABLE IF NOT EXISTS announcements (announcement_id INTEGER PRIMARY KEY, title VARCHAR, message VARCHAR,"
+                + " published_date TIMESTAMP(9), expiry_date TIMESTAMP(9), priority VARCHAR(32), target_audience VARCHAR(32),"
+                + " event_id INTEGER, created_by_admin_id INTEGER, deleted BOOLEAN, last_modified_by VARCHAR,"
+                + " last_modified_date TIMESTAMP(9))",
+        "CREATE INDEX IF NOT EXISTS announcements_published ON announcements (published_date)",
+        "CREATE INDEX IF NOT EXISTS announcements_expiry ON announcements (deleted, expiry_date)",
+        "CREATE INDEX IF NOT EXISTS announcements_event ON announcements (event_id)",
+
+        "CREATE TABLE IF NOT EXISTS timesheets (timesheet_id INTEGER PRIMARY KEY, volunteer_id INTEGER, attendance_id INTEGER,"
+                + " event_id INTEGER, event_name VARCHAR, period_start_date DATE, period_end_date DATE,"
+                + " total_hours DOUBLE PRECISION, approved_hours DOUBLE PRECISION, approval_status VARCHAR(32),"
+                + " approved_by_admin_id INTEGER, approval_date TIMESTAMP(9), rejection_reason VARCHAR, created_date TIMESTAMP(9),"
+                + " last_modified_by VARCHAR, last_modified_date TIMESTAMP(9))",
+        "CREATE INDEX IF NOT EXISTS timesheets_volunteer ON timesheets (volunteer_id)",
+        "CREATE INDEX IF NOT EXISTS timesheets_event ON timesheets (event_id)",
+        "CREATE INDEX IF NOT EXISTS timesheets_status ON timesheets (approval_status)",
+        "CREATE INDEX IF NOT EXISTS timesheets_status_created ON timesheets (approval_status, created_date)",
+        "CREATE INDEX IF NOT EXISTS timesheets_period ON timesheets (period_start_date)",
+
+        "CREATE TABLE IF NOT EXISTS admins (id INTEGER PRIMARY KEY, first_name VARCHAR, last_name VARCHAR, email VARCHAR,"
+                + " email_key VARCHAR, phone VARCHAR, username VARCHAR, username_key VARCHAR, password_hash VARCHAR,"
+                + " role VARCHAR(32), permissions_json VARCHAR, last_login TIMESTAMP(9), failed_login_attempts INTEGER,"
+                + " account_locked_until TIMESTAMP(9), account_status VARCHAR(32), created_date TIMESTAMP(9),"
+                + " created_by_admin_id INTEGER, security_question VARCHAR, security_answer_hash VARCHAR)",
+
+        "CREATE TABLE IF NOT EXISTS awards (award_id INTEGER PRIMARY KEY, volunteer_id INTEGER, badge_name VARCHAR,"
+                + " badge_description VARCHAR, criteria_id INTEGER, date_earned TIMESTAMP(9), badge_tier VARCHAR(32),"
+                + " badge_icon_url VARCHAR, featured BOOLEAN)",
+        "CREATE INDEX IF NOT EXISTS awards_volunteer ON awards (volunteer_id, criteria_id)",
+        "CREATE INDEX IF NOT EXISTS awards_tier ON awards (badge_tier)",
+    };
+
+    // Index name, table and column of the values no two rows may share. A database that already holds
+    // duplicates cannot get the unique index and keeps a plain one under the old name until they are resolved
+    private static final String[][] UNIQUE_KEYS = {
+        {"volunteers_email", "volunteers", "email_key"},
+        {"admins_username", "admins", "username_key"},
+        {"admins_email", "admins", "email_key"},
+    };
+
+    private static final DateTimeFormatter BACKUP_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final String url;
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+    private final Map<String, AtomicInteger> sequences = new HashMap<>();
+
+    private JdbcDatabase(String url, Connection connection) {
+        this.url = url;
+        this.connection = connection;
+    }
+
+    /** Connects to {@code url} (an H2 URL such as {@code jdbc:h2:./database/vms}) and creates missing tables and indexes. */
+    public static JdbcDatabase open(String url) throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+        try (Statement statement = connection.createStatement()) {
+            for (String ddl : SCHEMA) {
+                statement.execute(ddl);
+            }
+            for (String[] key : UNIQUE_KEYS) {
+                createUniqueIndex(statement, key[0], key[1], key[2]);
+            }
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return new JdbcDatabase(url, connection);
+    }
+
+    private static void createUniqueIndex(Statement statement, String name, String table, String column) throws SQLException {
+        try {
+            statement.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + name + "_unique ON " + table + " (" + column + ")");
+            statement.execute("DROP INDEX IF EXISTS " + name);
+        } catch (SQLException e) {
+            if (!isDuplicate(e)) {
+                throw e;
+            }
+            System.err.println("Warning: " + table + "." + column + " holds duplicates, so they are not rejected yet: " + e.getMessage());
+            statement.execute("CREATE INDEX IF NOT EXISTS " + name + " ON " + table + " (" + column + ")");
+        }
+    }
+
+    /** True if {@code e} reports a row that a unique index or primary key rejected (SQLSTATE 23505). */
+    static boolean isDuplicate(SQLException e) {
+        return "23505".equals(e.getSQLState());
+    }
+
+    public String url() {
+        return url;
+    }
+
+    synchronized <R> R query(String sql, Binder binder, ResultReader<R> reader) throws SQLException {
+        PreparedStatement statement = prepare(sql);
+        binder.bind(statement);
+        try (ResultSet rows = statement.executeQuery()) {
+            return reader.read(rows);
+        }
+    }
+
+    synchronized int update(String sql, Binder binder) throws SQLException {
+        PreparedStatement statement = prepare(sql);
+        binder.bind(statement);
+        return statement.executeUpdate();
+    }
+
+    /** Adds one parameter set per row to a single statement and sends them in batches of {@code batchSize}. */
+    synchronized <T> int batch(String sql, Iterable<T> rows, int batchSize, RowBinder<T> binder) throws SQLException {
+        PreparedStatement statement = prepare(sql);
+        int count = 0;
+        for (T row : rows) {
+            binder.bind(statement, row);
+            statement.addBatch();
+            if (++count % batchSize == 0) {
+                statement.executeBatch();
+            }
+        }
+        if (count % batchSize != 0) {
+            statement.executeBatch();
+        }
+        return count;
+    }
+
+    /** Runs {@code work} as one transaction: all of its statements are committed together or not at all. */
+    synchronized void transaction(Work work) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            work.run();
+            connection.commit();
+        } catch (SQLException | RuntimeException | Error e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Runs {@code work} as one transaction for code outside this package, such as a unit of work:
+     * the statements the repositories make on this thread meanwhile are part of it, and other
+     * threads wait until it ends. Nested calls join the outer transaction.
+     * @throws IllegalStateException if the transaction cannot be committed
+     */
+    public synchronized void inTransaction(Runnable work) {
+        if (!autoCommit()) {
+            work.run();
+            return;
+        }
+        try {
+            transaction(work::run);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not commit a transaction on " + url + ": " + e.getMessage(), e);
+        }
+    }
+
+    private boolean autoCommit() {
+        try {
+            return connection.getAutoCommit();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read the transaction state of " + url + ": " + e.getMessage(), e);
+        }
+    }
+
+    /** Next free id of a table, continuing after the largest id stored when first asked. */
+    synchronized int nextId(String table, String idColumn) throws SQLException {
+        AtomicInteger sequence = sequences.get(table);
+        if (sequence == null) {
+            int max = query("SELECT MAX(" + idColumn + ") FROM " + table, s -> { }, rows -> rows.next() ? rows.getInt(1) : 0);
+            sequence = new AtomicInteger(max + 1);
+            sequences.put(table, sequence);
+        }
+        return sequence.getAndIncrement();
+    }
+
+    /**
+     * Writes a consistent copy of the database to {@code vms-backup-<timestamp>.zip} in
+     * {@code directory} with H2's online {@code BACKUP TO}. It runs on its own connection and
+     * thread, so the repositories keep working while it does.
+     */
+    public CompletableFuture<Path> backup(Path directory) {
+        Path archive = directory.resolve("vms-backup-" + BACKUP_STAMP.format(LocalDateTime.now()) + ".zip");
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                Files.createDirectories(directory);
+                try (Connection backup = DriverManager.getConnection(url);
+                     Statement statement = backup.createStatement()) {
+                    statement.execute("BACKUP TO '" + archive.toString().replace("'", "''") + "'");
+                }
+                System.out.println("Backed up " + url + " to " + archive);
+                return archive;
+            } catch (IOException | SQLException e) {
+                System.err.println("Error backing up " + url + " to " + archive + ": " + e.getMessage());
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    synchronized String info(String name) throws SQLException {
+        return query("SELECT info FROM schema_info WHERE name = ?", s -> s.setString(1, name),
+                rows -> rows.next() ? rows.getString(1) : null);
+    }
+
+    synchronized void setInfo(String name, String info) throws SQLException {
+        if (update("UPDATE schema_info SET info = ? WHERE name = ?", s -> { s.setString(1, info); s.setString(2, name); }) == 0) {
+            update("INSERT INTO schema_info (info, name) VALUES (?, ?)", s -> { s.setString(1, info); s.setString(2, name); });
+        }
+    }
+
+    private PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement == null) {
+            statement = connection.prepareStatement(sql);
+            statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    @Override
+    public synchronized void close() throws SQLException {
+        for (PreparedStatement statement : statements.values()) {
+            statement.close();
+        }
+        statements.clear();
+        connection.close();
+    }
+}
@@ -0,0 +1,120 @@
+package com.fstgc.vms.repository.jdbc;
+
+import com.fstgc.vms.model.Event;
+import com.fstgc.vms.model.enums.EventStatus;
+import com.fstgc.vms.model.enums.EventType;
+import com.fstgc.vms.repository.EventRepository;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.*;
+
+public class JdbcEventRepository extends JdbcRepository<Event> implements EventRepository {
+
+    public JdbcEventRepository(JdbcDatabase database) {
+        super(database, "events", "event_id", "title", "description", "event_date", "start_time", "end_time",
+                "location", "capacity", "current_registrations", "event_type", "status", "created_by_admin_id",
+                "last_modified_by", "last_modified_date");
+    }
+
+    @Override
+    int idOf(Event event) { return event.getEventId(); }
+
+    @Override
+    void bind(PreparedStatement s, Event e) throws SQLException {
+        int i = 1;
+        set(s, i++, e.getTitle());
+        set(s, i++, e.getDescription());
+        set(s, i++, e.getEventDate());
+        set(s, i++, e.getStartTime());
+        set(s, i++, e.getEndTime());
+        set(s, i++, e.getLocation());
+        set(s, i++, e.getCapacity());
+        set(s, i++, e.getCurrentRegistrations());
+        set(s, i++, e.getEventType());
+        set(s, i++, e.getStatus());
+        set(s, i++, e.getCreatedByAdminId());
+        set(s, i++, e.getLastModifiedBy());
+        set(s, i, e.getLastModifiedDate());
+    }
+
+    @Override
+    Event map(ResultSet row) throws SQLException {
+        Event e = new Event();
+        e.setEventId(row.getInt("event_id"));
+        e.setTitle(row.getString("title"));
+        e.setDescription(row.getString("description"));
+        e.setEventDate(getDate(row, "event_date"));
+        e.setStartTime(getTime(row, "start_time"));
+        e.setEndTime(getTime(row, "end_time"));
+        e.setLocation(row.getString("location"));
+        e.setCapacity(row.getInt("capacity"));
+        e.setCurrentRegistrations(row.getInt("current_registrations"));
+        e.setEventType(getEnum(row, "event_type", EventType.class));
+        e.setStatus(getEnum(row, "status", EventStatus.class));
+        e.setCreatedByAdminId(row.getInt("created_by_admin_id"));
+        e.setLastModifiedBy(row.getString("last_modified_by"));
+        e.setLastModifiedDate(getDateTime(row, "last_modified_date"));
+        return e;
+    }
+
+    @Override
+    public Optional<Event> findById(int id) { return super.findById(id); }
+
+    @Override
+    public List<Event> findAll() { return super.findAll(); }
+
+    @Override
+    public List<Event> findByDateRange(LocalDate start, LocalDate end) {
+        return whereOrderedBy("event_date BETWEEN ? AND ?", "event_date, event_id", start, end);
+    }
+
+    @Override
+    public List<Event> findUpcoming(LocalDate from, int limit) {
+        return whereOrderedBy("event_date >= ? AND status NOT IN (?, ?)", "event_date, event_id LIMIT ?",
+                from, EventStatus.CANCELLED, EventStatus.COMPLETED, limit);
+    }
+
+    @Override
+    public List<Event> findPast(LocalDate before, int limit) {
+        return whereOrderedBy("(event_date < ? OR status = ?) AND status <> ?", "event_date DESC, event_id DESC LIMIT ?",
+                before, EventStatus.COMPLETED, EventStatus.CANCELLED, limit);
+    }
+
+    @Override
+    public List<Event> findCancelled(int limit) {
+        return whereOrderedBy("status = ?", "event_date DESC, event_id DESC LIMIT ?", EventStatus.CANCELLED, limit);
+    }
+
+    @Override
+    public List<Event> findByType(String type) {
+        return where("event_type = ?", enumName(type));
+    }
+
+    @Override
+    public List<Event> findByStatus(String status) {
+        return where("status = ?", enumName(status));
+    }
+
+    @Override
+    public List<Event> searchByTitle(String title) {
+        return where("LOWER(title) LIKE ? ESCAPE '\\'", containing(title));
+    }
+
+    @Override
+    public Event save(Event event) {
+        event.setEventId(nextId());
+        insert(event);
+        return event;
+    }
+
+    @Override
+    public Event update(Event event) {
+        upsert(event);
+        return event;
+    }
+
+    @Override
+    public boolean delete(int id) { return deleteById(id); }
+}
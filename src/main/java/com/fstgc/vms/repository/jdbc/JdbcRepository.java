@@ -0,0 +1,243 @@
+package com.fstgc.vms.repository.jdbc;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Base of the JDBC repositories: one table whose columns map one-to-one onto the entity's
+ * fields. Subclasses list the columns other than the id and bind them in that order; the id is
+ * always the last parameter, so the same binder serves INSERT and UPDATE.
+ * <p>
+ * {@link SQLException}s are rethrown unchecked, since the repository interfaces declare none.
+ */
+abstract class JdbcRepository<T> {
+    private static final int BATCH_SIZE = 500;
+
+    final JdbcDatabase database;
+    private final String table;
+    private final String idColumn;
+    private final String select;
+    private final String insert;
+    private final String update;
+    private final int idParameter;
+    // Message of the IllegalArgumentException thrown when a write breaks a unique index, by upper-case index name
+    private final Map<String, String> uniqueIndexes = new LinkedHashMap<>();
+
+    JdbcRepository(JdbcDatabase database, String table, String idColumn, String... columns) {
+        this.database = database;
+        this.table = table;
+        this.idColumn = idColumn;
+        String names = String.join(", ", columns);
+        this.select = "SELECT " + idColumn + ", " + names + " FROM " + table;
+        this.insert = "INSERT INTO " + table + " (" + names + ", " + idColumn + ") VALUES ("
+                + "?, ".repeat(columns.length) + "?)";
+        this.idParameter = columns.length + 1;
+        this.update = "UPDATE " + table + " SET " + String.join(" = ?, ", columns) + " = ? WHERE " + idColumn + " = ?";
+    }
+
+    /**
+     * Makes inserts and updates that would give a second row the value of unique index
+     * {@code index} throw {@code IllegalArgumentException(message)}, as the in-memory
+     * repositories do.
+     */
+    void unique(String index, String message) {
+        uniqueIndexes.put(index.toUpperCase(Locale.ROOT), message);
+    }
+
+    abstract int idOf(T entity);
+
+    abstract void bind(PreparedStatement statement, T entity) throws SQLException;
+
+    abstract T map(ResultSet row) throws SQLException;
+
+    Optional<T> findById(int id) {
+        List<T> found = where(idColumn + " = ?", id);
+        return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0));
+    }
+
+    List<T> findAll() {
+        return query(select + " ORDER BY " + idColumn);
+    }
+
+    /** Rows matching a WHERE clause, in id order. */
+    List<T> where(String condition, Object... parameters) {
+        return query(select + " WHERE " + condition + " ORDER BY " + idColumn, parameters);
+    }
+
+    /** Rows matching a WHERE clause, in the given ORDER BY order, which may end in a LIMIT. */
+    List<T> whereOrderedBy(String condition, String order, Object... parameters) {
+        return query(select + " WHERE " + condition + " ORDER BY " + order, parameters);
+    }
+
+    List<T> query(String sql, Object... parameters) {
+        try {
+            return database.query(sql, statement -> bindAll(statement, parameters), rows -> {
+                List<T> result = new ArrayList<>();
+                while (rows.next()) {
+                    result.add(map(rows));
+                }
+                return result;
+            });
+        } catch (SQLException e) {
+            throw failed("query " + table, e);
+        }
+    }
+
+    /** The first column of every row of {@code sql}, as ints. */
+    List<Integer> queryInts(String sql, Object... parameters) {
+        try {
+            return database.query(sql, statement -> bindAll(statement, parameters), rows -> {
+                List<Integer> result = new ArrayList<>();
+                while (rows.next()) {
+                    result.add(rows.getInt(1));
+                }
+                return result;
+            });
+        } catch (SQLException e) {
+            throw failed("query " + table, e);
+        }
+    }
+
+    boolean exists(String condition, Object... parameters) {
+        try {
+            return database.query("SELECT 1 FROM " + table + " WHERE " + condition, statement -> bindAll(statement, parameters), ResultSet::next);
+        } catch (SQLException e) {
+            throw failed("query " + table, e);
+        }
+    }
+
+    int nextId() {
+        try {
+            return database.nextId(table, idColumn);
+        } catch (SQLException e) {
+            throw failed("allocate an id in " + table, e);
+        }
+    }
+
+    void insert(T entity) {
+        try {
+            database.update(insert, statement -> bindWithId(statement, entity));
+        } catch (SQLException e) {
+            throw failedWrite("insert into " + table, e);
+        }
+    }
+
+    /** Updates the row with the entity's id, inserting it if there is none. */
+    void upsert(T entity) {
+        try {
+            if (database.update(update, statement -> bindWithId(statement, entity)) == 0) {
+                database.update(insert, statement -> bindWithId(statement, entity));
+            }
+        } catch (SQLException e) {
+            throw failedWrite("update " + table, e);
+        }
+    }
+
+    int execute(String sql, Object... parameters) {
+        try {
+            return database.update(sql, statement -> bindAll(statement, parameters));
+        } catch (SQLException e) {
+            throw failed("update " + table, e);
+        }
+    }
+
+    boolean deleteById(int id) {
+        return execute("DELETE FROM " + table + " WHERE " + idColumn + " = ?", id) > 0;
+    }
+
+    /** Inserts entities that keep their ids, with batched statements; for imports into an empty table. */
+    int insertAll(Collection<T> entities) throws SQLException {
+        return database.batch(insert, entities, BATCH_SIZE, this::bindWithId);
+    }
+
+    private void bindWithId(PreparedStatement statement, T entity) throws SQLException {
+        bind(statement, entity);
+        statement.setInt(idParameter, idOf(entity));
+    }
+
+    private static void bindAll(PreparedStatement statement, Object[] parameters) throws SQLException {
+        for (int i = 0; i < parameters.length; i++) {
+            set(statement, i + 1, parameters[i]);
+        }
+    }
+
+    /** Binds any column value: null as SQL NULL, enums by name, everything else as itself. */
+    static void set(PreparedStatement statement, int index, Object value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.NULL);
+        } else if (value instanceof Enum) {
+            statement.setString(index, ((Enum<?>) value).name());
+        } else {
+            statement.setObject(index, value);
+        }
+    }
+
+    static Integer getInteger(ResultSet row, String column) throws SQLException {
+        int value = row.getInt(column);
+        return row.wasNull() ? null : value;
+    }
+
+    static Double getDouble(ResultSet row, String column) throws SQLException {
+        double value = row.getDouble(column);
+        return row.wasNull() ? null : value;
+    }
+
+    static LocalDateTime getDateTime(ResultSet row, String column) throws SQLException {
+        return row.getObject(column, LocalDateTime.class);
+    }
+
+    static LocalDate getDate(ResultSet row, String column) throws SQLException {
+        return row.getObject(column, LocalDate.class);
+    }
+
+    static LocalTime getTime(ResultSet row, String column) throws SQLException {
+        return row.getObject(column, LocalTime.class);
+    }
+
+    /** The constant stored in a column, or null for NULL and names no longer in the enum. */
+    static <E extends Enum<E>> E getEnum(ResultSet row, String column, Class<E> type) throws SQLException {
+        String name = row.getString(column);
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** Lower-cased copy of a value kept in a {@code *_key} column for case-insensitive lookups. */
+    static String key(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    /** A LIKE pattern matching values that contain {@code text}, with wildcards in it escaped. */
+    static String containing(String text) {
+        return "%" + key(text).replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    /** Enum names are stored upper case; status arguments are matched ignoring case like the in-memory repositories do. */
+    static String enumName(String name) {
+        return name == null ? null : name.toUpperCase(Locale.ROOT);
+    }
+
+    private RuntimeException failedWrite(String action, SQLException e) {
+        if (JdbcDatabase.isDuplicate(e) && e.getMessage() != null) {
+            String message = e.getMessage().toUpperCase(Locale.ROOT);
+            for (Map.Entry<String, String> index : uniqueIndexes.entrySet()) {
+                if (message.contains(index.getKey())) {
+                    return new IllegalArgumentException(index.getValue(), e);
+                }
+            }
+        }
+        return failed(action, e);
+    }
+
+    private static IllegalStateException failed(String action, SQLException e) {
+        return new IllegalStateException("Could not " + action + ": " + e.getMessage(), e);
+    }
+}
@@ -0,0 +1,97 @@
+package com.fstgc.vms.repository.jdbc;
+
+import com.fstgc.vms.repository.*;
+import com.fstgc.vms.util.DataPersistence;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Repositories backed by an embedded database. The rows live on disk and queries run against
+ * the table indexes, so the data does not have to fit in the heap.
+ * <p>
+ * The first time a database is opened it is filled from the file store in
+ * {@link DataPersistence}, in one transaction with batched inserts, so switching the backend
+ * keeps the existing data.
+ */
+public class JdbcRepositoryFactory implements RepositoryFactory {
+    public static final String DEFAULT_URL = "jdbc:h2:./database/vms";
+    private static final String IMPORTED = "imported";
+
+    private final JdbcDatabase database;
+    private final JdbcVolunteerRepository volunteers;
+    private final JdbcEventRepository events;
+    private final JdbcAttendanceRepository attendance;
+    private final JdbcAnnouncementRepository announcements;
+    private final JdbcTimesheetRepository timesheets;
+    private final JdbcAdminRepository admins;
+    private final JdbcAwardRepository awards;
+
+    public JdbcRepositoryFactory(JdbcDatabase database) {
+        this.database = database;
+        this.volunteers = new JdbcVolunteerRepository(database);
+        this.events = new JdbcEventRepository(database);
+        this.attendance = new JdbcAttendanceRepository(database);
+        this.announcements = new JdbcAnnouncementRepository(database);
+        this.timesheets = new JdbcTimesheetRepository(database);
+        this.admins = new JdbcAdminRepository(database);
+        this.awards = new JdbcAwardRepository(database);
+    }
+
+    /** Opens the database at {@code url} and imports the file store into it if it is new. */
+    public static JdbcRepositoryFactory open(String url) throws SQLException {
+        JdbcRepositoryFactory factory = new JdbcRepositoryFactory(JdbcDatabase.open(url));
+        factory.importFileStore();
+        return factory;
+    }
+
+    private void importFileStore() throws SQLException {
+        if (database.info(IMPORTED) != null) {
+            return;
+        }
+        long start = System.nanoTime();
+        int[] count = new int[1];
+        database.transaction(() -> {
+            count[0] += volunteers.insertAll(DataPersistence.loadVolunteers().values());
+            count[0] += events.insertAll(DataPersistence.loadEvents().values());
+            count[0] += attendance.insertAll(DataPersistence.loadAttendance().values());
+            count[0] += announcements.insertAll(DataPersistence.loadAnnouncements().values());
+            count[0] += timesheets.insertAll(DataPersistence.loadTimesheets().values());
+            count[0] += admins.insertAll(DataPersistence.loadAdmins().values());
+            count[0] += awards.insertAll(DataPersistence.loadAwards().values());
+            database.setInfo(IMPORTED, LocalDateTime.now().toString());
+        });
+        System.out.println("Imported " + count[0] + " entities into " + database.url() + " in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    public JdbcDatabase database() {
+        return database;
+    }
+
+    // The repositories keep no state of their own, so every caller can share one instance
+    @Override
+    public VolunteerRepository volunteers() { return volunteers; }
+
+    @Override
+    public EventRepository events() { return events; }
+
+    @Override
+    public AttendanceRepository attendance() { return attendance; }
+
+    @Override
+    public AnnouncementRepository announcements() { return announcements; }
+
+    @Override
+    public TimesheetRepository timesheets() { return timesheets; }
+
+    @Override
+    public AdminRepository admins() { return admins; }
+
+    @Override
+    public AwardRepository awards() { return awards; }
+
+    @Override
+    public CompletableFuture<Path> backup(Path directory) { return database.backup(directory); }
+}
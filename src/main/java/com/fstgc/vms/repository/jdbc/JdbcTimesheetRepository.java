@@ -0,0 +1,113 @@
+package com.fstgc.vms.repository.jdbc;
+
+import com.fstgc.vms.model.Timesheet;
+import com.fstgc.vms.model.enums.TimesheetStatus;
+import com.fstgc.vms.repository.TimesheetRepository;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.*;
+
+public class JdbcTimesheetRepository extends JdbcRepository<Timesheet> implements TimesheetRepository {
+    private static final String NEWEST_FIRST = "created_date DESC, timesheet_id DESC";
+
+    public JdbcTimesheetRepository(JdbcDatabase database) {
+        super(database, "timesheets", "timesheet_id", "volunteer_id", "attendance_id", "event_id", "event_name",
+                "period_start_date", "period_end_date", "total_hours", "approved_hours", "approval_status",
+                "approved_by_admin_id", "approval_date", "rejection_reason", "created_date", "last_modified_by",
+                "last_modified_date");
+    }
+
+    @Override
+    int idOf(Timesheet timesheet) { return timesheet.getTimesheetId(); }
+
+    @Override
+    void bind(PreparedStatement s, Timesheet t) throws SQLException {
+        int i = 1;
+        set(s, i++, t.getVolunteerId());
+        set(s, i++, t.getAttendanceId());
+        set(s, i++, t.getEventId());
+        set(s, i++, t.getEventName());
+        set(s, i++, t.getPeriodStartDate());
+        set(s, i++, t.getPeriodEndDate());
+        set(s, i++, t.getTotalHours());
+        set(s, i++, t.getApprovedHours());
+        set(s, i++, t.getApprovalStatus());
+        set(s, i++, t.getApprovedByAdminId());
+        set(s, i++, t.getApprovalDate());
+        set(s, i++, t.getRejectionReason());
+        set(s, i++, t.getCreatedDate());
+        set(s, i++, t.getLastModifiedBy());
+        set(s, i, t.getLastModifiedDate());
+    }
+
+    @Override
+    Timesheet map(ResultSet row) throws SQLException {
+        Timesheet t = new Timesheet();
+        t.setTimesheetId(row.getInt("timesheet_id"));
+        t.setVolunteerId(row.getInt("volunteer_id"));
+        t.setAttendanceId(getInteger(row, "attendance_id"));
+        t.setEventId(getInteger(row, "event_id"));
+        t.setEventName(row.getString("event_name"));
+        t.setPeriodStartDate(getDate(row, "period_start_date"));
+        t.setPeriodEndDate(getDate(row, "period_end_date"));
+        t.setTotalHours(row.getDouble("total_hours"));
+        t.setApprovedHours(getDouble(row, "approved_hours"));
+        t.setApprovalStatus(getEnum(row, "approval_status", TimesheetStatus.class));
+        t.setApprovedByAdminId(getInteger(row, "approved_by_admin_id"));
+        t.setApprovalDate(getDateTime(row, "approval_date"));
+        t.setRejectionReason(row.getString("rejection_reason"));
+        t.setCreatedDate(getDateTime(row, "created_date"));
+        t.setLastModifiedBy(row.getString("last_modified_by"));
+        t.setLastModifiedDate(getDateTime(row, "last_modified_date"));
+        return t;
+    }
+
+    @Override
+    public Optional<Timesheet> findById(int id) { return super.findById(id); }
+
+    @Override
+    public List<Timesheet> findByVolunteer(int volunteerId) {
+        return where("volunteer_id = ?", volunteerId);
+    }
+
+    @Override
+    public List<Timesheet> findByVolunteerAndEvent(int volunteerId, int eventId) {
+        return where("volunteer_id = ? AND event_id = ?", volunteerId, eventId);
+    }
+
+    @Override
+    public List<Timesheet> findByPeriod(LocalDate start, LocalDate end) {
+        return where("period_start_date >= ? AND period_end_date <= ?", start, end);
+    }
+
+    @Override
+    public List<Timesheet> findByApprovalStatus(String status) {
+        return whereOrderedBy("approval_status = ?", NEWEST_FIRST, enumName(status));
+    }
+
+    @Override
+    public List<Timesheet> findPendingApprovals() {
+        return whereOrderedBy("approval_status = ?", NEWEST_FIRST, TimesheetStatus.PENDING);
+    }
+
+    @Override
+    public List<Timesheet> findAll() { return super.findAll(); }
+
+    @Override
+    public Timesheet save(Timesheet timesheet) {
+        timesheet.setTimesheetId(nextId());
+        insert(timesheet);
+        return timesheet;
+    }
+
+    @Override
+    public Timesheet update(Timesheet timesheet) {
+        upsert(timesheet);
+        return timesheet;
+    }
+
+    @Override
+    public boolean delete(int id) { return deleteById(id); }
+}
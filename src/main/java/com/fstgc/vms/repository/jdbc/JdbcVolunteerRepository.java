@@ -0,0 +1,101 @@
+package com.fstgc.vms.repository.jdbc;
+
+import com.fstgc.vms.model.Volunteer;
+import com.fstgc.vms.model.enums.BadgeTier;
+import com.fstgc.vms.model.enums.VolunteerStatus;
+import com.fstgc.vms.repository.VolunteerRepository;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+public class JdbcVolunteerRepository extends JdbcRepository<Volunteer> implements VolunteerRepository {
+
+    public JdbcVolunteerRepository(JdbcDatabase database) {
+        super(database, "volunteers", "id", "first_name", "last_name", "email", "email_key", "phone",
+                "registration_date", "status", "profile_photo_url", "date_of_birth", "address", "events_attended",
+                "last_modified_by", "last_modified_date", "badges_earned", "current_tier");
+        unique("volunteers_email_unique", "Email already exists");
+    }
+
+    @Override
+    int idOf(Volunteer volunteer) { return volunteer.getId(); }
+
+    @Override
+    void bind(PreparedStatement s, Volunteer v) throws SQLException {
+        int i = 1;
+        set(s, i++, v.getFirstName());
+        set(s, i++, v.getLastName());
+        set(s, i++, v.getEmail());
+        set(s, i++, key(v.getEmail()));
+        set(s, i++, v.getPhone());
+        set(s, i++, v.getRegistrationDate());
+        set(s, i++, v.getStatus());
+        set(s, i++, v.getProfilePhotoUrl());
+        set(s, i++, v.getDateOfBirth());
+        set(s, i++, v.getAddress());
+        set(s, i++, v.getEventsAttended());
+        set(s, i++, v.getLastModifiedBy());
+        set(s, i++, v.getLastModifiedDate());
+        set(s, i++, v.getBadgesEarned());
+        set(s, i, v.getCurrentTier());
+    }
+
+    @Override
+    Volunteer map(ResultSet row) throws SQLException {
+        Volunteer v = new Volunteer();
+        v.setId(row.getInt("id"));
+        v.setFirstName(row.getString("first_name"));
+        v.setLastName(row.getString("last_name"));
+        v.setEmail(row.getString("email"));
+        v.setPhone(row.getString("phone"));
+        v.setRegistrationDate(getDateTime(row, "registration_date"));
+        v.setStatus(getEnum(row, "status", VolunteerStatus.class));
+        v.setProfilePhotoUrl(row.getString("profile_photo_url"));
+        v.setDateOfBirth(getDate(row, "date_of_birth"));
+        v.setAddress(row.getString("address"));
+        v.setEventsAttended(row.getInt("events_attended"));
+        v.setLastModifiedBy(row.getString("last_modified_by"));
+        v.setLastModifiedDate(getDateTime(row, "last_modified_date"));
+        v.setBadgesEarned(row.getInt("badges_earned"));
+        v.setCurrentTier(getEnum(row, "current_tier", BadgeTier.class));
+        return v;
+    }
+
+    @Override
+    public Optional<Volunteer> findById(int id) { return super.findById(id); }
+
+    @Override
+    public List<Volunteer> findAll() { return super.findAll(); }
+
+    @Override
+    public Optional<Volunteer> findByEmail(String email) {
+        return where("email_key = ?", key(email)).stream().findFirst();
+    }
+
+    @Override
+    public Volunteer save(Volunteer volunteer) {
+        volunteer.setId(nextId());
+        insert(volunteer);
+        return volunteer;
+    }
+
+    @Override
+    public Volunteer update(Volunteer volunteer) {
+        upsert(volunteer);
+        return volunteer;
+    }
+
+    @Override
+    public boolean delete(int id) { return deleteById(id); }
+
+    @Override
+    public List<Volunteer> searchByName(String name) {
+        return where("LOWER(first_name || ' ' || last_name) LIKE ? ESCAPE '\\'", containing(name));
+    }
+
+    @Override
+    public List<Volunteer> filterByStatus(String status) {
+        return where("status = ?", enumName(status));
+    }
+}
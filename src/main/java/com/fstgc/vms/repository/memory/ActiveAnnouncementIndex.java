@@ -0,0 +1,139 @@
+package com.fstgc.vms.repository.memory;
+
+import com.fstgc.vms.model.Announcement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The announcements that are neither deleted nor expired, most urgent first and then newest
+ * first. Expiry times are kept in a min-heap, and a task scheduled for the earliest one takes
+ * announcements out of the active set as they expire, so reading the active announcements never
+ * looks at expired or deleted ones.
+ */
+final class ActiveAnnouncementIndex implements StoreIndex<Announcement> {
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "vms-announcement-expiry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** An active announcement with the fields it is ordered by, as they were when it was indexed. */
+    private static final class Entry {
+        final int priority;
+        final LocalDateTime published;
+        final LocalDateTime expires;
+        final int id;
+
+        Entry(Announcement announcement, int id) {
+            this.priority = announcement.getPriority() == null ? -1 : announcement.getPriority().ordinal();
+            this.published = announcement.getPublishedDate();
+            this.expires = announcement.getExpiryDate();
+            this.id = id;
+        }
+    }
+
+    private static final Comparator<Entry> ORDER = Comparator.<Entry>comparingInt(e -> -e.priority)
+            .thenComparing(e -> e.published, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+            .thenComparingInt(e -> -e.id);
+
+    private final Object lock;
+    private final NavigableSet<Entry> active = new ConcurrentSkipListSet<>(ORDER);
+    // Guarded by lock. The heap may hold entries of announcements changed or removed since; they are skipped
+    private final Map<Integer, Entry> entryOf = new HashMap<>();
+    private final PriorityQueue<Entry> expiries = new PriorityQueue<>(Comparator.comparing((Entry e) -> e.expires));
+    private ScheduledFuture<?> eviction;
+    private LocalDateTime evictionAt;
+
+    /** @param lock the repository lock, taken by the eviction task */
+    ActiveAnnouncementIndex(Object lock) {
+        this.lock = lock;
+    }
+
+    /** Ids of the active announcements, most urgent and then newest first. */
+    List<Integer> get() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Integer> ids = new ArrayList<>(active.size());
+        for (Entry entry : active) {
+            // Expired a moment ago and not evicted yet
+            if (entry.expires == null || entry.expires.isAfter(now)) {
+                ids.add(entry.id);
+            }
+        }
+        return ids;
+    }
+
+    /** Announcements held as active, counting those expired but not yet evicted. */
+    int size() {
+        return active.size();
+    }
+
+    @Override
+    public void add(int id, Announcement announcement) {
+        if (announcement.isDeleted()) {
+            return;
+        }
+        Entry entry = new Entry(announcement, id);
+        if (entry.expires != null) {
+            if (!entry.expires.isAfter(LocalDateTime.now())) {
+                return;
+            }
+            expiries.add(entry);
+            // Drop stale entries once they outnumber the live ones
+            if (expiries.size() > 2 * entryOf.size() + 16) {
+                expiries.removeIf(e -> entryOf.get(e.id) != e && e != entry);
+            }
+            schedule();
+        }
+        active.add(entry);
+        entryOf.put(id, entry);
+    }
+
+    @Override
+    public void remove(int id) {
+        Entry entry = entryOf.remove(id);
+        if (entry != null) {
+            active.remove(entry);
+        }
+    }
+
+    private void evict() {
+        synchronized (lock) {
+            eviction = null;
+            evictionAt = null;
+            LocalDateTime now = LocalDateTime.now();
+            while (!expiries.isEmpty() && !expiries.peek().expires.isAfter(now)) {
+                Entry entry = expiries.poll();
+                if (entryOf.get(entry.id) == entry) {
+                    remove(entry.id);
+                }
+            }
+            schedule();
+        }
+    }
+
+    /** Makes sure the eviction task runs no later than the earliest expiry in the heap. */
+    private void schedule() {
+        Entry next = expiries.peek();
+        if (next == null || (evictionAt != null && !next.expires.isBefore(evictionAt))) {
+            return;
+        }
+        if (eviction != null) {
+            eviction.cancel(false);
+        }
+        long delay = Math.max(0, Duration.between(LocalDateTime.now(), next.expires).toMillis());
+        evictionAt = next.expires;
+        eviction = SCHEDULER.schedule(this::evict, delay, TimeUnit.MILLISECONDS);
+    }
+}
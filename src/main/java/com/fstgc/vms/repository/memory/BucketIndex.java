@@ -0,0 +1,77 @@
+package com.fstgc.vms.repository.memory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+/**
+ * Index from an enum field, such as a status, to the ids in each bucket kept sorted by a second
+ * field, such as the creation time. A change of the enum field moves the id to its new bucket.
+ * Entities whose bucket is null are not indexed; a null sort key sorts first.
+ */
+final class BucketIndex<T, B extends Enum<B>, S extends Comparable<? super S>> implements StoreIndex<T> {
+    /** An id and the sort key it was filed with. */
+    private static final class Entry<S> {
+        final S key;
+        final int id;
+
+        Entry(S key, int id) {
+            this.key = key;
+            this.id = id;
+        }
+    }
+
+    private final Function<T, B> bucket;
+    private final Function<T, S> sortKey;
+    // Every bucket is created up front, so the map itself never changes and can be read without a lock
+    private final Map<B, NavigableSet<Entry<S>>> buckets;
+    // Guarded by the repository lock
+    private final Map<Integer, B> bucketOf = new HashMap<>();
+    private final Map<Integer, Entry<S>> entryOf = new HashMap<>();
+
+    BucketIndex(Class<B> type, Function<T, B> bucket, Function<T, S> sortKey) {
+        this.bucket = bucket;
+        this.sortKey = sortKey;
+        Comparator<Entry<S>> order = Comparator.comparing((Entry<S> e) -> e.key, Comparator.nullsFirst(Comparator.<S>naturalOrder()))
+                .thenComparingInt(e -> e.id);
+        this.buckets = new EnumMap<>(type);
+        for (B b : type.getEnumConstants()) {
+            buckets.put(b, new ConcurrentSkipListSet<>(order));
+        }
+    }
+
+    /** Ids in {@code bucket}, by ascending sort key, or descending if {@code descending}. */
+    List<Integer> get(B bucket, boolean descending) {
+        NavigableSet<Entry<S>> entries = buckets.get(bucket);
+        List<Integer> ids = new ArrayList<>(entries.size());
+        for (Entry<S> entry : descending ? entries.descendingSet() : entries) {
+            ids.add(entry.id);
+        }
+        return ids;
+    }
+
+    @Override
+    public void add(int id, T entity) {
+        B b = bucket.apply(entity);
+        if (b != null) {
+            Entry<S> entry = new Entry<>(sortKey.apply(entity), id);
+            buckets.get(b).add(entry);
+            bucketOf.put(id, b);
+            entryOf.put(id, entry);
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        B b = bucketOf.remove(id);
+        if (b != null) {
+            buckets.get(b).remove(entryOf.remove(id));
+        }
+    }
+}
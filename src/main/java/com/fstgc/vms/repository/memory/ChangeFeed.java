@@ -0,0 +1,156 @@
+package com.fstgc.vms.repository.memory;
+
+import com.fstgc.vms.repository.Change;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes every insert, update and delete committed through the in-memory repositories.
+ * <p>
+ * The feed keeps the latest {@code retain} changes. Each subscriber reads them at its own pace,
+ * getting no more than it has requested, on a feed thread; publishing never waits for a
+ * subscriber. A subscriber can start from any retained sequence number with
+ * {@link #subscribe(Flow.Subscriber, long)}, e.g. to pick up where it left off. One that falls
+ * more than {@code retain} changes behind gets {@code onError} and has to rebuild its view: note
+ * {@link #lastSequence()}, read the repositories, then subscribe after the noted sequence.
+ * Changes published in between are delivered again, so apply them as idempotent upserts.
+ * <p>
+ * Changes of a unit of work are published when it commits, in the order they were made, and
+ * not at all if it rolls back.
+ */
+public final class ChangeFeed implements Flow.Publisher<Change<?>> {
+    private final int retain;
+    // Change #n is at ring[(n - 1) % retain]
+    private final Change<?>[] ring;
+    private final List<FeedSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "vms-change-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long sequence;
+
+    ChangeFeed(int retain) {
+        if (retain < 1) {
+            throw new IllegalArgumentException("A change feed must retain at least one change");
+        }
+        this.retain = retain;
+        this.ring = new Change<?>[retain];
+    }
+
+    /** Sequence number of the latest change published, 0 before the first. */
+    public synchronized long lastSequence() {
+        return sequence;
+    }
+
+    /** Subscribes to the changes published from now on. */
+    @Override
+    public void subscribe(Flow.Subscriber<? super Change<?>> subscriber) {
+        subscribe(subscriber, lastSequence());
+    }
+
+    /** Subscribes to the changes after sequence number {@code after}, starting with those still retained. */
+    public void subscribe(Flow.Subscriber<? super Change<?>> subscriber, long after) {
+        FeedSubscription subscription = new FeedSubscription(subscriber, after + 1);
+        subscriptions.add(subscription);
+        subscriber.onSubscribe(subscription);
+        subscription.signal();
+    }
+
+    <T> void publish(Change.Type type, Class<T> entityType, int id, T entity) {
+        synchronized (this) {
+            sequence++;
+            ring[(int) ((sequence - 1) % retain)] = new Change<>(sequence, type, entityType, id, entity);
+        }
+        for (FeedSubscription subscription : subscriptions) {
+            subscription.signal();
+        }
+    }
+
+    /** The change numbered {@code next}, null if it is not published yet; fails if it is no longer retained. */
+    private synchronized Change<?> get(long next) {
+        if (next > sequence) {
+            return null;
+        }
+        long first = Math.max(1, sequence - retain + 1);
+        if (next < first) {
+            throw new IllegalStateException("Change #" + next + " is no longer retained, the oldest is #" + first);
+        }
+        return ring[(int) ((next - 1) % retain)];
+    }
+
+    private final class FeedSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super Change<?>> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile boolean cancelled;
+        private long next;
+
+        FeedSubscription(Flow.Subscriber<? super Change<?>> subscriber, long next) {
+            this.subscriber = subscriber;
+            this.next = next;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("Requested " + n + " changes, must be positive"));
+                return;
+            }
+            demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+
+        /** Schedules a delivery run unless one is already going, which will then go round once more. */
+        void signal() {
+            if (pending.getAndIncrement() == 0) {
+                executor.execute(this::deliver);
+            }
+        }
+
+        private void deliver() {
+            int runs = pending.get();
+            do {
+                while (!cancelled && demand.get() > 0) {
+                    Change<?> change;
+                    try {
+                        change = get(next);
+                    } catch (IllegalStateException e) {
+                        fail(e);
+                        return;
+                    }
+                    if (change == null) {
+                        break;
+                    }
+                    next++;
+                    demand.decrementAndGet();
+                    try {
+                        subscriber.onNext(change);
+                    } catch (RuntimeException e) {
+                        System.err.println("Change feed subscriber failed on " + change + ": " + e.getMessage());
+                        cancel();
+                    }
+                }
+                runs = pending.addAndGet(-runs);
+            } while (runs != 0);
+        }
+
+        private void fail(Throwable error) {
+            if (!cancelled) {
+                cancel();
+                subscriber.onError(error);
+            }
+        }
+    }
+}
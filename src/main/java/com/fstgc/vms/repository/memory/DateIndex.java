@@ -0,0 +1,150 @@
+package com.fstgc.vms.repository.memory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Index from a date field to ids, as a skip list ordered by date and then id, with a sub-index
+ * of the same shape for each value of an enum field such as the status. A range query seeks to
+ * the first date and reads only the ids it returns, so "the next ten" costs O(log n + 10)
+ * however many entities there are, and "the latest ten" reads the same list backwards.
+ * Entities without a date are not indexed.
+ */
+final class DateIndex<T, B extends Enum<B>> implements StoreIndex<T> {
+    private final Function<T, LocalDate> date;
+    private final Function<T, B> bucket;
+    private final NavigableMap<LocalDate, NavigableSet<Integer>> all = new ConcurrentSkipListMap<>();
+    // Every bucket is created up front, so the map itself never changes and can be read without a lock
+    private final Map<B, NavigableMap<LocalDate, NavigableSet<Integer>>> buckets;
+    // Guarded by the repository lock
+    private final Map<Integer, LocalDate> dateOf = new HashMap<>();
+    private final Map<Integer, B> bucketOf = new HashMap<>();
+
+    DateIndex(Class<B> type, Function<T, LocalDate> date, Function<T, B> bucket) {
+        this.date = date;
+        this.bucket = bucket;
+        this.buckets = new EnumMap<>(type);
+        for (B b : type.getEnumConstants()) {
+            buckets.put(b, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    /**
+     * Ids dated from {@code from} to {@code to} inclusive, either of which may be null for no
+     * bound, by date and then id, at most {@code limit} of them.
+     * @param in the buckets to read, or null for all
+     */
+    List<Integer> range(LocalDate from, LocalDate to, Set<B> in, int limit) {
+        return range(from, to, in, limit, false);
+    }
+
+    /** As {@link #range}, but latest first: by date and then id, both descending. */
+    List<Integer> latest(LocalDate from, LocalDate to, Set<B> in, int limit) {
+        return range(from, to, in, limit, true);
+    }
+
+    private List<Integer> range(LocalDate from, LocalDate to, Set<B> in, int limit, boolean descending) {
+        if (in == null || in.size() == 1) {
+            List<Integer> ids = new ArrayList<>();
+            collect(in == null ? all : buckets.get(in.iterator().next()), from, to, limit, descending, (d, id) -> ids.add(id));
+            return ids;
+        }
+        // The first ids of each bucket, merged; there are only a few buckets
+        List<Dated> merged = new ArrayList<>();
+        for (B b : in) {
+            collect(buckets.get(b), from, to, limit, descending, (d, id) -> merged.add(new Dated(d, id)));
+        }
+        Comparator<Dated> order = Comparator.comparing((Dated d) -> d.date).thenComparingInt(d -> d.id);
+        merged.sort(descending ? order.reversed() : order);
+        List<Integer> ids = new ArrayList<>();
+        for (Dated d : merged.subList(0, Math.min(limit, merged.size()))) {
+            ids.add(d.id);
+        }
+        return ids;
+    }
+
+    @Override
+    public void add(int id, T entity) {
+        LocalDate d = date.apply(entity);
+        if (d == null) {
+            return;
+        }
+        file(all, d, id);
+        dateOf.put(id, d);
+        B b = bucket.apply(entity);
+        if (b != null) {
+            file(buckets.get(b), d, id);
+            bucketOf.put(id, b);
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        LocalDate d = dateOf.remove(id);
+        if (d == null) {
+            return;
+        }
+        unfile(all, d, id);
+        B b = bucketOf.remove(id);
+        if (b != null) {
+            unfile(buckets.get(b), d, id);
+        }
+    }
+
+    private static void collect(NavigableMap<LocalDate, NavigableSet<Integer>> dates, LocalDate from, LocalDate to, int limit,
+                                boolean descending, BiConsumer<LocalDate, Integer> sink) {
+        NavigableMap<LocalDate, NavigableSet<Integer>> days = bounded(dates, from, to);
+        int taken = 0;
+        for (Map.Entry<LocalDate, NavigableSet<Integer>> day : (descending ? days.descendingMap() : days).entrySet()) {
+            for (Integer id : descending ? day.getValue().descendingSet() : day.getValue()) {
+                if (taken++ == limit) {
+                    return;
+                }
+                sink.accept(day.getKey(), id);
+            }
+        }
+    }
+
+    private static NavigableMap<LocalDate, NavigableSet<Integer>> bounded(NavigableMap<LocalDate, NavigableSet<Integer>> dates, LocalDate from, LocalDate to) {
+        if (from != null && to != null) {
+            return from.isAfter(to) ? dates.subMap(from, true, from, false) : dates.subMap(from, true, to, true);
+        }
+        if (from != null) {
+            return dates.tailMap(from, true);
+        }
+        return to != null ? dates.headMap(to, true) : dates;
+    }
+
+    private static void file(NavigableMap<LocalDate, NavigableSet<Integer>> dates, LocalDate d, int id) {
+        dates.computeIfAbsent(d, ignored -> new ConcurrentSkipListSet<>()).add(id);
+    }
+
+    private static void unfile(NavigableMap<LocalDate, NavigableSet<Integer>> dates, LocalDate d, int id) {
+        dates.computeIfPresent(d, (ignored, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static final class Dated {
+        final LocalDate date;
+        final int id;
+
+        Dated(LocalDate date, int id) {
+            this.date = date;
+            this.id = id;
+        }
+    }
+}
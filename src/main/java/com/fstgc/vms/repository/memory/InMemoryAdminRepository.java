@@ -4,40 +4,36 @@ import com.fstgc.vms.model.SystemAdmin;
 import com.fstgc.vms.repository.AdminRepository;
 import com.fstgc.vms.util.DataPersistence;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
-public class InMemoryAdminRepository implements AdminRepository {
-    private final Map<Integer, SystemAdmin> store = new ConcurrentHashMap<>();
-    private final AtomicInteger seq = new AtomicInteger(1);
-    
-    public InMemoryAdminRepository() {
-        Map<Integer, SystemAdmin> loaded = DataPersistence.loadAdmins();
-        store.putAll(loaded);
-        if (!loaded.isEmpty()) {
-            seq.set(loaded.keySet().stream().max(Integer::compare).orElse(0) + 1);
-        }
+public class InMemoryAdminRepository extends LazyInMemoryRepository<SystemAdmin> implements AdminRepository {
+    private final UniqueIndex<SystemAdmin> byUsername = index(new UniqueIndex<>("Username", SystemAdmin::getUsername));
+    private final UniqueIndex<SystemAdmin> byEmail = index(new UniqueIndex<>("Email", SystemAdmin::getEmail));
+
+    public InMemoryAdminRepository(ChangeFeed changes) {
+        super(DataPersistence::loadAdmins, SystemAdmin.class, changes);
     }
 
     @Override
     public Optional<SystemAdmin> findByUsername(String username) {
         // Search by username or email
-        return store.values().stream()
-                .filter(a -> username.equalsIgnoreCase(a.getUsername()) || 
-                            username.equalsIgnoreCase(a.getEmail()))
-                .findFirst();
+        Map<Integer, SystemAdmin> store = store();
+        Integer id = byUsername.get(username);
+        if (id == null) {
+            id = byEmail.get(username);
+        }
+        return id == null ? Optional.empty() : Optional.ofNullable(store.get(id));
     }
 
     @Override
     public Optional<SystemAdmin> findByEmail(String email) {
-        return store.values().stream()
-                .filter(a -> email != null && email.equalsIgnoreCase(a.getEmail()))
-                .findFirst();
+        Map<Integer, SystemAdmin> store = store();
+        Integer id = byEmail.get(email);
+        return id == null ? Optional.empty() : Optional.ofNullable(store.get(id));
     }
 
     @Override
     public Optional<SystemAdmin> findById(int id) {
-        return Optional.ofNullable(store.get(id));
+        return Optional.ofNullable(store().get(id));
     }
 
     @Override
@@ -49,40 +45,40 @@ public class InMemoryAdminRepository implements AdminRepository {
 
     @Override
     public SystemAdmin save(SystemAdmin admin) {
-        int id = seq.getAndIncrement();
+        int id = nextId();
         admin.setId(id);
-        store.put(id, admin);
-        DataPersistence.saveAdmins(store);
+        put(id, admin);
+        DataPersistence.saveAdmin(admin);
         return admin;
     }
 
     @Override
     public SystemAdmin update(SystemAdmin admin) {
         if (admin != null && admin.getId() > 0) {
-            store.put(admin.getId(), admin);
-            DataPersistence.saveAdmins(store);
+            put(admin.getId(), admin);
+            DataPersistence.saveAdmin(admin);
         }
         return admin;
     }
 
     @Override
     public SystemAdmin updatePassword(int id, String newHash) {
-        SystemAdmin admin = store.get(id);
+        SystemAdmin admin = store().get(id);
         if (admin != null) {
             admin.setPasswordHash(newHash);
-            store.put(id, admin);
-            DataPersistence.saveAdmins(store);
+            put(id, admin);
+            DataPersistence.saveAdmin(admin);
         }
         return admin;
     }
 
     @Override
     public SystemAdmin updatePermissions(int id, String permissionsJson) {
-        SystemAdmin admin = store.get(id);
+        SystemAdmin admin = store().get(id);
         if (admin != null) {
             admin.setPermissionsJson(permissionsJson);
-            store.put(id, admin);
-            DataPersistence.saveAdmins(store);
+            put(id, admin);
+            DataPersistence.saveAdmin(admin);
         }
         return admin;
     }
@@ -1,94 +1,96 @@
 package com.fstgc.vms.repository.memory;
 
 import com.fstgc.vms.model.Announcement;
+import com.fstgc.vms.model.enums.Priority;
+import com.fstgc.vms.model.enums.TargetAudience;
 import com.fstgc.vms.repository.AnnouncementRepository;
 import com.fstgc.vms.util.DataPersistence;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
-public class InMemoryAnnouncementRepository implements AnnouncementRepository {
-    private final Map<Integer, Announcement> store = new ConcurrentHashMap<>();
-    private final AtomicInteger seq = new AtomicInteger(1);
-    
-    public InMemoryAnnouncementRepository() {
-        Map<Integer, Announcement> loaded = DataPersistence.loadAnnouncements();
-        store.putAll(loaded);
-        if (!loaded.isEmpty()) {
-            seq.set(loaded.keySet().stream().max(Integer::compare).orElse(0) + 1);
-        }
+public class InMemoryAnnouncementRepository extends LazyInMemoryRepository<Announcement> implements AnnouncementRepository {
+    private final ActiveAnnouncementIndex active = index(new ActiveAnnouncementIndex(this));
+    private final BucketIndex<Announcement, Priority, LocalDateTime> byPriority =
+            index(new BucketIndex<>(Priority.class, Announcement::getPriority, Announcement::getPublishedDate));
+    private final BucketIndex<Announcement, TargetAudience, LocalDateTime> byAudience =
+            index(new BucketIndex<>(TargetAudience.class, Announcement::getTargetAudience, Announcement::getPublishedDate));
+
+    public InMemoryAnnouncementRepository(ChangeFeed changes) {
+        super(DataPersistence::loadAnnouncements, Announcement.class, changes);
     }
 
     @Override
-    public Optional<Announcement> findById(int id) { return Optional.ofNullable(store.get(id)); }
+    public Optional<Announcement> findById(int id) { return Optional.ofNullable(store().get(id)); }
 
     @Override
     public List<Announcement> findAll() {
-        return new ArrayList<>(store.values());
+        return new ArrayList<>(store().values());
     }
 
     @Override
     public List<Announcement> findActive() {
-        LocalDateTime now = LocalDateTime.now();
-        return store.values().stream()
-                .filter(a -> !a.isDeleted() && (a.getExpiryDate()==null || a.getExpiryDate().isAfter(now)))
-                .collect(Collectors.toList());
+        return lookup(active::get);
     }
 
     @Override
     public List<Announcement> findByDateRange(LocalDateTime start, LocalDateTime end) {
-        return store.values().stream()
-                .filter(a -> !a.getPublishedDate().isBefore(start) && !a.getPublishedDate().isAfter(end))
+        return store().values().stream()
+                .filter(a -> a.getPublishedDate() != null && !a.getPublishedDate().isBefore(start) && !a.getPublishedDate().isAfter(end))
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<Announcement> findByPriority(String priority) {
-        return store.values().stream()
-                .filter(a -> a.getPriority().name().equalsIgnoreCase(priority))
-                .collect(Collectors.toList());
+        for (Priority p : Priority.values()) {
+            if (p.name().equalsIgnoreCase(priority)) {
+                return lookup(() -> byPriority.get(p, true));
+            }
+        }
+        return new ArrayList<>();
     }
 
     @Override
     public List<Announcement> findByTargetAudience(String audience) {
-        return store.values().stream()
-                .filter(a -> a.getTargetAudience().name().equalsIgnoreCase(audience))
-                .collect(Collectors.toList());
+        for (TargetAudience t : TargetAudience.values()) {
+            if (t.name().equalsIgnoreCase(audience)) {
+                return lookup(() -> byAudience.get(t, true));
+            }
+        }
+        return new ArrayList<>();
     }
 
     @Override
     public Announcement save(Announcement announcement) {
-        int id = seq.getAndIncrement();
+        int id = nextId();
         announcement.setAnnouncementId(id);
-        store.put(id, announcement);
-        DataPersistence.saveAnnouncements(store);
+        put(id, announcement);
+        DataPersistence.saveAnnouncement(announcement);
         return announcement;
     }
 
     @Override
     public Announcement update(Announcement announcement) { 
-        store.put(announcement.getAnnouncementId(), announcement); 
-        DataPersistence.saveAnnouncements(store);
+        put(announcement.getAnnouncementId(), announcement); 
+        DataPersistence.saveAnnouncement(announcement);
         return announcement; 
     }
 
     @Override
     public boolean softDelete(int id) {
-        Announcement a = store.get(id);
+        Announcement a = store().get(id);
         if (a == null) return false;
         a.setDeleted(true);
-        store.put(id, a);
-        DataPersistence.saveAnnouncements(store);
+        put(id, a);
+        DataPersistence.saveAnnouncement(a);
         return true;
     }
     
     @Override
     public boolean delete(int id) {
-        boolean removed = store.remove(id) != null;
+        boolean removed = remove(id);
         if (removed) {
-            DataPersistence.saveAnnouncements(store);
+            DataPersistence.deleteAnnouncement(id);
         }
         return removed;
     }
@@ -4,65 +4,85 @@ import com.fstgc.vms.model.Award;
 import com.fstgc.vms.repository.AwardRepository;
 import com.fstgc.vms.util.DataPersistence;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
-public class InMemoryAwardRepository implements AwardRepository {
-    private final Map<Integer, Award> store = new ConcurrentHashMap<>();
-    private final AtomicInteger seq = new AtomicInteger(1);
-    
-    public InMemoryAwardRepository() {
-        Map<Integer, Award> loaded = DataPersistence.loadAwards();
-        store.putAll(loaded);
-        if (!loaded.isEmpty()) {
-            seq.set(loaded.keySet().stream().max(Integer::compare).orElse(0) + 1);
-        }
+public class InMemoryAwardRepository extends LazyInMemoryRepository<Award> implements AwardRepository {
+    private final LeaderboardIndex leaderboard = index(new LeaderboardIndex());
+    private final MultiIndex<Award, Integer> byVolunteer = index(new MultiIndex<>(Award::getVolunteerId));
+    private final MultiIndex<Award, Long> byVolunteerCriteria = index(new MultiIndex<>(
+            a -> volunteerCriteria(a.getVolunteerId(), a.getCriteriaId())));
+
+    public InMemoryAwardRepository(ChangeFeed changes) {
+        super(DataPersistence::loadAwards, Award.class, changes);
     }
 
     @Override
-    public Optional<Award> findById(int id) { return Optional.ofNullable(store.get(id)); }
+    public Optional<Award> findById(int id) { return Optional.ofNullable(store().get(id)); }
 
     @Override
     public List<Award> findByVolunteer(int volunteerId) {
-        return store.values().stream().filter(a -> a.getVolunteerId() == volunteerId).collect(Collectors.toList());
+        return lookup(() -> byVolunteer.get(volunteerId));
     }
 
     @Override
     public List<Award> findByBadgeTier(String tier) {
-        return store.values().stream()
+        return store().values().stream()
                 .filter(a -> a.getBadgeTier().name().equalsIgnoreCase(tier))
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<Award> findLeaderboard() {
-        // Simple leaderboard by count of awards
-        Map<Integer, Long> counts = store.values().stream().collect(Collectors.groupingBy(Award::getVolunteerId, Collectors.counting()));
-        return counts.entrySet().stream()
-                .sorted((a,b) -> Long.compare(b.getValue(), a.getValue()))
-                .flatMap(e -> store.values().stream().filter(aw -> aw.getVolunteerId()==e.getKey()))
-                .collect(Collectors.toList());
+        List<Award> awards = new ArrayList<>();
+        for (int volunteerId : findTopVolunteers(Integer.MAX_VALUE)) {
+            List<Award> earned = findByVolunteer(volunteerId);
+            earned.sort(Comparator.comparingInt(Award::getAwardId));
+            awards.addAll(earned);
+        }
+        return awards;
+    }
+
+    @Override
+    public List<Integer> findTopVolunteers(int limit) {
+        store();
+        return leaderboard.top(limit);
+    }
+
+    @Override
+    public int findRank(int volunteerId) {
+        store();
+        return leaderboard.rank(volunteerId);
+    }
+
+    @Override
+    public int countByVolunteer(int volunteerId) {
+        store();
+        return leaderboard.count(volunteerId);
     }
 
     @Override
     public boolean checkIfAwarded(int volunteerId, int criteriaId) {
-        return store.values().stream().anyMatch(a -> a.getVolunteerId()==volunteerId && a.getCriteriaId()==criteriaId);
+        store();
+        return !byVolunteerCriteria.get(volunteerCriteria(volunteerId, criteriaId)).isEmpty();
     }
 
     @Override
     public Award save(Award award) {
-        int id = seq.getAndIncrement();
+        int id = nextId();
         award.setAwardId(id);
-        store.put(id, award);
-        DataPersistence.saveAwards(store);
+        put(id, award);
+        DataPersistence.saveAward(award);
         return award;
     }
 
     @Override
     public Award update(Award award) { 
-        store.put(award.getAwardId(), award); 
-        DataPersistence.saveAwards(store);
+        put(award.getAwardId(), award); 
+        DataPersistence.saveAward(award);
         return award; 
     }
+
+    private static long volunteerCriteria(int volunteerId, int criteriaId) {
+        return (long) volunteerId << 32 | (criteriaId & 0xffffffffL);
+    }
 }
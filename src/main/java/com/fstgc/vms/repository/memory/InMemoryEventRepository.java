@@ -1,49 +1,64 @@
 package com.fstgc.vms.repository.memory;
 
 import com.fstgc.vms.model.Event;
+import com.fstgc.vms.model.enums.EventStatus;
 import com.fstgc.vms.repository.EventRepository;
 import com.fstgc.vms.util.DataPersistence;
 import java.time.LocalDate;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
-public class InMemoryEventRepository implements EventRepository {
-    private final Map<Integer, Event> store = new ConcurrentHashMap<>();
-    private final AtomicInteger seq = new AtomicInteger(1);
-    
-    public InMemoryEventRepository() {
-        Map<Integer, Event> loaded = DataPersistence.loadEvents();
-        store.putAll(loaded);
-        if (!loaded.isEmpty()) {
-            seq.set(loaded.keySet().stream().max(Integer::compare).orElse(0) + 1);
-        }
+public class InMemoryEventRepository extends LazyInMemoryRepository<Event> implements EventRepository {
+    private static final Set<EventStatus> NOT_FINISHED = EnumSet.of(EventStatus.DRAFT, EventStatus.PUBLISHED);
+    private static final Set<EventStatus> NOT_CANCELLED = EnumSet.complementOf(EnumSet.of(EventStatus.CANCELLED));
+
+    private final DateIndex<Event, EventStatus> byDate = index(new DateIndex<>(EventStatus.class, Event::getEventDate, Event::getStatus));
+
+    public InMemoryEventRepository(ChangeFeed changes) {
+        super(DataPersistence::loadEvents, Event.class, changes);
     }
 
     @Override
-    public Optional<Event> findById(int id) { return Optional.ofNullable(store.get(id)); }
+    public Optional<Event> findById(int id) { return Optional.ofNullable(store().get(id)); }
 
     @Override
-    public List<Event> findAll() { return new ArrayList<>(store.values()); }
+    public List<Event> findAll() { return new ArrayList<>(store().values()); }
 
     @Override
     public List<Event> findByDateRange(LocalDate start, LocalDate end) {
-        return store.values().stream()
-                .filter(e -> !e.getEventDate().isBefore(start) && !e.getEventDate().isAfter(end))
-                .collect(Collectors.toList());
+        return lookup(() -> byDate.range(start, end, null, Integer.MAX_VALUE));
+    }
+
+    @Override
+    public List<Event> findUpcoming(LocalDate from, int limit) {
+        return lookup(() -> byDate.range(from, null, NOT_FINISHED, limit));
+    }
+
+    @Override
+    public List<Event> findPast(LocalDate before, int limit) {
+        return lookup(() -> {
+            // Completed events from the cutoff on are the latest, so they come before everything dated earlier
+            List<Integer> ids = byDate.latest(before, null, EnumSet.of(EventStatus.COMPLETED), limit);
+            ids.addAll(byDate.latest(null, before.minusDays(1), NOT_CANCELLED, limit - ids.size()));
+            return ids;
+        });
+    }
+
+    @Override
+    public List<Event> findCancelled(int limit) {
+        return lookup(() -> byDate.latest(null, null, EnumSet.of(EventStatus.CANCELLED), limit));
     }
 
     @Override
     public List<Event> findByType(String type) {
-        return store.values().stream()
+        return store().values().stream()
                 .filter(e -> e.getEventType().name().equalsIgnoreCase(type))
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<Event> findByStatus(String status) {
-        return store.values().stream()
+        return store().values().stream()
                 .filter(e -> e.getStatus().name().equalsIgnoreCase(status))
                 .collect(Collectors.toList());
     }
@@ -51,32 +66,32 @@ public class InMemoryEventRepository implements EventRepository {
     @Override
     public List<Event> searchByTitle(String title) {
         String q = title.toLowerCase();
-        return store.values().stream()
+        return store().values().stream()
                 .filter(e -> e.getTitle().toLowerCase().contains(q))
                 .collect(Collectors.toList());
     }
 
     @Override
     public Event save(Event event) {
-        int id = seq.getAndIncrement();
+        int id = nextId();
         event.setEventId(id);
-        store.put(id, event);
-        DataPersistence.saveEvents(store);
+        put(id, event);
+        DataPersistence.saveEvent(event);
         return event;
     }
 
     @Override
     public Event update(Event event) { 
-        store.put(event.getEventId(), event); 
-        DataPersistence.saveEvents(store);
+        put(event.getEventId(), event); 
+        DataPersistence.saveEvent(event);
         return event; 
     }
 
     @Override
     public boolean delete(int id) { 
-        boolean removed = store.remove(id) != null;
+        boolean removed = remove(id);
         if (removed) {
-            DataPersistence.saveEvents(store);
+            DataPersistence.deleteEvent(id);
         }
         return removed;
     }
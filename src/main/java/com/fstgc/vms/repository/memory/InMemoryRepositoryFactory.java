@@ -0,0 +1,60 @@
+package com.fstgc.vms.repository.memory;
+
+import com.fstgc.vms.repository.*;
+import com.fstgc.vms.util.DataPersistence;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Repositories held in memory and persisted through {@link com.fstgc.vms.util.DataPersistence}.
+ * Each call creates a new repository with its own store; the application uses the single set
+ * in {@link #shared()}. The repositories of one factory publish their changes on its
+ * {@link #changes()} feed, which keeps the latest {@code -Dvms.changeFeed.retain} changes
+ * (10000 by default) for subscribers to catch up or resume from.
+ */
+public class InMemoryRepositoryFactory implements RepositoryFactory {
+    private static final class Shared {
+        static final InMemoryRepositoryFactory FACTORY = new InMemoryRepositoryFactory();
+        static final RepositoryRegistry REGISTRY = new RepositoryRegistry(FACTORY);
+    }
+
+    private final ChangeFeed changes = new ChangeFeed(Integer.getInteger("vms.changeFeed.retain", 10_000));
+
+    /** The in-memory repositories shared by all components of the application. */
+    public static RepositoryRegistry shared() {
+        return Shared.REGISTRY;
+    }
+
+    /** The changes made through the {@link #shared()} repositories. */
+    public static ChangeFeed sharedChanges() {
+        return Shared.FACTORY.changes();
+    }
+
+    public ChangeFeed changes() {
+        return changes;
+    }
+
+    @Override
+    public VolunteerRepository volunteers() { return new InMemoryVolunteerRepository(changes); }
+
+    @Override
+    public EventRepository events() { return new InMemoryEventRepository(changes); }
+
+    @Override
+    public AttendanceRepository attendance() { return new InMemoryAttendanceRepository(changes); }
+
+    @Override
+    public AnnouncementRepository announcements() { return new InMemoryAnnouncementRepository(changes); }
+
+    @Override
+    public TimesheetRepository timesheets() { return new InMemoryTimesheetRepository(changes); }
+
+    @Override
+    public AdminRepository admins() { return new InMemoryAdminRepository(changes); }
+
+    @Override
+    public AwardRepository awards() { return new InMemoryAwardRepository(changes); }
+
+    @Override
+    public CompletableFuture<Path> backup(Path directory) { return DataPersistence.backup(directory); }
+}
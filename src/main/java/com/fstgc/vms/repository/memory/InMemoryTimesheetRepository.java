@@ -5,79 +5,87 @@ import com.fstgc.vms.model.enums.TimesheetStatus;
 import com.fstgc.vms.repository.TimesheetRepository;
 import com.fstgc.vms.util.DataPersistence;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
-public class InMemoryTimesheetRepository implements TimesheetRepository {
-    private final Map<Integer, Timesheet> store = new ConcurrentHashMap<>();
-    private final AtomicInteger seq = new AtomicInteger(1);
-    
-    public InMemoryTimesheetRepository() {
-        Map<Integer, Timesheet> loaded = DataPersistence.loadTimesheets();
-        store.putAll(loaded);
-        if (!loaded.isEmpty()) {
-            seq.set(loaded.keySet().stream().max(Integer::compare).orElse(0) + 1);
-        }
+public class InMemoryTimesheetRepository extends LazyInMemoryRepository<Timesheet> implements TimesheetRepository {
+    private final BucketIndex<Timesheet, TimesheetStatus, LocalDateTime> byStatus =
+            index(new BucketIndex<>(TimesheetStatus.class, Timesheet::getApprovalStatus, Timesheet::getCreatedDate));
+    private final MultiIndex<Timesheet, Integer> byVolunteer = index(new MultiIndex<>(Timesheet::getVolunteerId));
+    private final MultiIndex<Timesheet, Long> byVolunteerEvent = index(new MultiIndex<>(
+            t -> t.getEventId() == null ? null : volunteerEvent(t.getVolunteerId(), t.getEventId())));
+
+    public InMemoryTimesheetRepository(ChangeFeed changes) {
+        super(DataPersistence::loadTimesheets, Timesheet.class, changes);
     }
 
     @Override
-    public Optional<Timesheet> findById(int id) { return Optional.ofNullable(store.get(id)); }
+    public Optional<Timesheet> findById(int id) { return Optional.ofNullable(store().get(id)); }
 
     @Override
     public List<Timesheet> findByVolunteer(int volunteerId) {
-        return store.values().stream().filter(t -> t.getVolunteerId() == volunteerId).collect(Collectors.toList());
+        return lookup(() -> byVolunteer.get(volunteerId));
+    }
+
+    @Override
+    public List<Timesheet> findByVolunteerAndEvent(int volunteerId, int eventId) {
+        return lookup(() -> byVolunteerEvent.get(volunteerEvent(volunteerId, eventId)));
     }
 
     @Override
     public List<Timesheet> findByPeriod(LocalDate start, LocalDate end) {
-        return store.values().stream()
+        return store().values().stream()
                 .filter(t -> !t.getPeriodStartDate().isBefore(start) && !t.getPeriodEndDate().isAfter(end))
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<Timesheet> findByApprovalStatus(String status) {
-        return store.values().stream()
-                .filter(t -> t.getApprovalStatus().name().equalsIgnoreCase(status))
-                .collect(Collectors.toList());
+        for (TimesheetStatus s : TimesheetStatus.values()) {
+            if (s.name().equalsIgnoreCase(status)) {
+                return lookup(() -> byStatus.get(s, true));
+            }
+        }
+        return new ArrayList<>();
     }
 
     @Override
     public List<Timesheet> findPendingApprovals() {
-        return store.values().stream()
-                .filter(t -> t.getApprovalStatus() == TimesheetStatus.PENDING)
-                .collect(Collectors.toList());
+        return lookup(() -> byStatus.get(TimesheetStatus.PENDING, true));
     }
 
     @Override
     public List<Timesheet> findAll() {
-        return new ArrayList<>(store.values());
+        return new ArrayList<>(store().values());
     }
 
     @Override
     public Timesheet save(Timesheet timesheet) {
-        int id = seq.getAndIncrement();
+        int id = nextId();
         timesheet.setTimesheetId(id);
-        store.put(id, timesheet);
-        DataPersistence.saveTimesheets(store);
+        put(id, timesheet);
+        DataPersistence.saveTimesheet(timesheet);
         return timesheet;
     }
 
     @Override
     public Timesheet update(Timesheet timesheet) { 
-        store.put(timesheet.getTimesheetId(), timesheet); 
-        DataPersistence.saveTimesheets(store);
+        put(timesheet.getTimesheetId(), timesheet); 
+        DataPersistence.saveTimesheet(timesheet);
         return timesheet; 
     }
 
     @Override
     public boolean delete(int id) { 
-        boolean result = store.remove(id) != null; 
+        boolean result = remove(id); 
         if (result) {
-            DataPersistence.saveTimesheets(store);
+            DataPersistence.deleteTimesheet(id);
         }
         return result;
     }
+
+    private static long volunteerEvent(int volunteerId, int eventId) {
+        return (long) volunteerId << 32 | (eventId & 0xffffffffL);
+    }
 }
@@ -0,0 +1,131 @@
+package com.fstgc.vms.repository.memory;
+
+import com.fstgc.vms.repository.Change;
+import com.fstgc.vms.util.DataPersistence;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Base of the in-memory repositories. The store is filled from {@link com.fstgc.vms.util.DataPersistence}
+ * the first time the repository is used instead of when it is constructed, so aggregates a
+ * session never touches are never read from disk.
+ * <p>
+ * Every put and remove is published on the {@link ChangeFeed} once its unit of work commits.
+ * Puts and removes are serialized on the repository so that its {@link StoreIndex indexes}
+ * change together with the store; reads take no lock.
+ */
+abstract class LazyInMemoryRepository<T> {
+    private final Supplier<Map<Integer, T>> loader;
+    private final Class<T> type;
+    private final ChangeFeed changes;
+    private final AtomicInteger seq = new AtomicInteger(1);
+    private final List<StoreIndex<T>> indexes = new CopyOnWriteArrayList<>();
+    private volatile Map<Integer, T> store;
+
+    LazyInMemoryRepository(Supplier<Map<Integer, T>> loader, Class<T> type, ChangeFeed changes) {
+        this.loader = loader;
+        this.type = type;
+        this.changes = changes;
+    }
+
+    Map<Integer, T> store() {
+        Map<Integer, T> current = store;
+        if (current == null) {
+            synchronized (this) {
+                current = store;
+                if (current == null) {
+                    Map<Integer, T> loaded = loader.get();
+                    current = new ConcurrentHashMap<>(loaded);
+                    new TreeMap<>(loaded).forEach((id, entity) -> indexes.forEach(index -> index.add(id, entity)));
+                    seq.set(loaded.keySet().stream().max(Integer::compare).orElse(0) + 1);
+                    store = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /** Registers an index; call from the subclass constructor, before the store is loaded. */
+    <I extends StoreIndex<T>> I index(I index) {
+        indexes.add(index);
+        return index;
+    }
+
+    /**
+     * Puts an entity in the store, to be taken out again if the surrounding unit of work rolls back.
+     * @throws IllegalArgumentException if an index rejects the entity; nothing is changed then
+     */
+    void put(int id, T entity) {
+        T previous;
+        synchronized (this) {
+            for (StoreIndex<T> index : indexes) {
+                index.check(id, entity);
+            }
+            previous = store().put(id, entity);
+            reindex(id, entity);
+        }
+        DataPersistence.onRollback(() -> restore(id, previous));
+        Change.Type change = previous == null ? Change.Type.INSERT : Change.Type.UPDATE;
+        DataPersistence.onCommit(() -> changes.publish(change, type, id, entity));
+    }
+
+    /** Removes an entity from the store, to be put back if the surrounding unit of work rolls back. */
+    boolean remove(int id) {
+        T previous;
+        synchronized (this) {
+            previous = store().remove(id);
+            reindex(id, null);
+        }
+        if (previous != null) {
+            DataPersistence.onRollback(() -> restore(id, previous));
+            DataPersistence.onCommit(() -> changes.publish(Change.Type.DELETE, type, id, null));
+        }
+        return previous != null;
+    }
+
+    private synchronized void restore(int id, T previous) {
+        if (previous == null) {
+            store().remove(id);
+        } else {
+            store().put(id, previous);
+        }
+        reindex(id, previous);
+    }
+
+    private void reindex(int id, T entity) {
+        for (StoreIndex<T> index : indexes) {
+            index.remove(id);
+            if (entity != null) {
+                index.add(id, entity);
+            }
+        }
+    }
+
+    /**
+     * The entities with the ids read from an index, in the index's order. The store is loaded
+     * first, since loading is what fills the indexes.
+     */
+    List<T> lookup(Supplier<? extends Iterable<Integer>> index) {
+        Map<Integer, T> current = store();
+        List<T> found = new ArrayList<>();
+        for (Integer id : index.get()) {
+            // Null if removed since the index was read
+            T entity = current.get(id);
+            if (entity != null) {
+                found.add(entity);
+            }
+        }
+        return found;
+    }
+
+    int nextId() {
+        store();
+        return seq.getAndIncrement();
+    }
+}
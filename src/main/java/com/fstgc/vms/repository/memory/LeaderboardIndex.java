@@ -0,0 +1,128 @@
+package com.fstgc.vms.repository.memory;
+
+import com.fstgc.vms.model.Award;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Award counts per volunteer, ranked. The standings are a skip list ordered by count and then
+ * volunteer id, so the top K are read in O(log n + K). For a volunteer's rank a Fenwick tree
+ * holds how many volunteers have each count; the number with a higher count than a given one is
+ * a prefix sum away, O(log max count).
+ */
+final class LeaderboardIndex implements StoreIndex<Award> {
+    /** A volunteer and their award count, as filed in the standings. */
+    private static final class Standing {
+        final int volunteerId;
+        final int count;
+
+        Standing(int volunteerId, int count) {
+            this.volunteerId = volunteerId;
+            this.count = count;
+        }
+    }
+
+    private final NavigableSet<Standing> standings = new ConcurrentSkipListSet<>(
+            Comparator.<Standing>comparingInt(s -> -s.count).thenComparingInt(s -> s.volunteerId));
+    private final Map<Integer, Integer> counts = new ConcurrentHashMap<>();
+    // Guarded by this, so a rank is read from a tree that is not halfway through an update
+    private final Map<Integer, Integer> volunteerOf = new HashMap<>();
+    // Fenwick tree over counts 1..tree.length - 1: how many volunteers have each count
+    private int[] tree = new int[64];
+    private int volunteers;
+
+    /** Ids of the volunteers with the most awards, ties by id, at most {@code limit}. */
+    List<Integer> top(int limit) {
+        List<Integer> ids = new ArrayList<>();
+        for (Standing standing : standings) {
+            if (ids.size() == limit) {
+                break;
+            }
+            ids.add(standing.volunteerId);
+        }
+        return ids;
+    }
+
+    /** 1 + the number of volunteers with more awards; volunteers with the same count share a rank. */
+    synchronized int rank(int volunteerId) {
+        int count = counts.getOrDefault(volunteerId, 0);
+        return 1 + volunteers - (count == 0 ? 0 : prefix(count));
+    }
+
+    int count(int volunteerId) {
+        return counts.getOrDefault(volunteerId, 0);
+    }
+
+    @Override
+    public synchronized void add(int id, Award award) {
+        volunteerOf.put(id, award.getVolunteerId());
+        change(award.getVolunteerId(), 1);
+    }
+
+    @Override
+    public synchronized void remove(int id) {
+        Integer volunteerId = volunteerOf.remove(id);
+        if (volunteerId != null) {
+            change(volunteerId, -1);
+        }
+    }
+
+    private void change(int volunteerId, int delta) {
+        int before = counts.getOrDefault(volunteerId, 0);
+        int after = before + delta;
+        if (before > 0) {
+            standings.remove(new Standing(volunteerId, before));
+            update(before, -1);
+            volunteers--;
+        }
+        if (after > 0) {
+            counts.put(volunteerId, after);
+            standings.add(new Standing(volunteerId, after));
+            update(after, 1);
+            volunteers++;
+        } else {
+            counts.remove(volunteerId);
+        }
+    }
+
+    private void update(int count, int delta) {
+        if (count >= tree.length) {
+            grow(count);
+        }
+        for (int i = count; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private int prefix(int count) {
+        int sum = 0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /** Rebuilds the tree large enough for {@code count}, from the per-count totals. */
+    private void grow(int count) {
+        int[] totals = new int[tree.length];
+        for (int c = 1; c < tree.length; c++) {
+            totals[c] = prefix(c) - prefix(c - 1);
+        }
+        int size = tree.length;
+        while (size <= count) {
+            size *= 2;
+        }
+        tree = new int[size];
+        for (int c = 1; c < totals.length; c++) {
+            for (int i = c; i < size && totals[c] != 0; i += i & -i) {
+                tree[i] += totals[c];
+            }
+        }
+    }
+}
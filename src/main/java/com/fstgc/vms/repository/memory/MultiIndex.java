@@ -0,0 +1,50 @@
+package com.fstgc.vms.repository.memory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Index from a field that many entities share, such as the volunteer of an attendance record,
+ * to the ids of those entities. A lookup costs as much as the ids it returns. Entities whose
+ * key is null are not indexed.
+ */
+final class MultiIndex<T, K> implements StoreIndex<T> {
+    private final Function<T, K> key;
+    private final Map<K, Set<Integer>> ids = new ConcurrentHashMap<>();
+    // Guarded by the repository lock
+    private final Map<Integer, K> keys = new HashMap<>();
+
+    MultiIndex(Function<T, K> key) {
+        this.key = key;
+    }
+
+    /** Ids of the entities filed under {@code key}, as a live read-only view. */
+    Set<Integer> get(K key) {
+        Set<Integer> found = key == null ? null : ids.get(key);
+        return found == null ? Collections.emptySet() : Collections.unmodifiableSet(found);
+    }
+
+    @Override
+    public void add(int id, T entity) {
+        K k = key.apply(entity);
+        if (k != null) {
+            ids.computeIfAbsent(k, ignored -> ConcurrentHashMap.newKeySet()).add(id);
+            keys.put(id, k);
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        K k = keys.remove(id);
+        if (k != null) {
+            ids.computeIfPresent(k, (ignored, set) -> {
+                set.remove(id);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+}
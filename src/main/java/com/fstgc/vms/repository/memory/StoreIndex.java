@@ -0,0 +1,18 @@
+package com.fstgc.vms.repository.memory;
+
+/**
+ * A secondary index over the store of a {@link LazyInMemoryRepository}. The repository calls it
+ * with its lock held whenever an entity is put or removed, and for every entity when the store
+ * is loaded. Entities are updated in place, so an index has to remember what it filed each id
+ * under instead of reading it from the old entity.
+ */
+interface StoreIndex<T> {
+    /** Throws if {@code entity} may not be stored under {@code id}; called before the store changes. */
+    default void check(int id, T entity) {
+    }
+
+    void add(int id, T entity);
+
+    /** Forgets whatever {@code id} was filed under; does nothing for ids not in the index. */
+    void remove(int id);
+}
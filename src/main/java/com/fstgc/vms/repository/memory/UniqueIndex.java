@@ -0,0 +1,71 @@
+package com.fstgc.vms.repository.memory;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Case-insensitive index of a string field that no two entities may share, such as an email
+ * address. Entities whose field is null are not indexed. A put that would give a second entity
+ * the same value is rejected with {@code IllegalArgumentException}, so of two concurrent saves
+ * at most one gets through, whatever checks the callers made before. Duplicates already in the
+ * saved data are let through with a warning, and their entities can still be updated as long as
+ * they keep the value they have.
+ */
+final class UniqueIndex<T> implements StoreIndex<T> {
+    private final String field;
+    private final Function<T, String> value;
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    // Guarded by the repository lock
+    private final Map<Integer, String> keys = new HashMap<>();
+
+    /** @param field name of the field for messages, e.g. {@code "Email"} */
+    UniqueIndex(String field, Function<T, String> value) {
+        this.field = field;
+        this.value = value;
+    }
+
+    /** Id of the entity with this value, ignoring case, or null. */
+    Integer get(String value) {
+        return value == null ? null : ids.get(key(value));
+    }
+
+    @Override
+    public void check(int id, T entity) {
+        String key = key(value.apply(entity));
+        Integer holder = key == null ? null : ids.get(key);
+        if (holder != null && holder != id && !key.equals(keys.get(id))) {
+            throw new IllegalArgumentException(field + " already exists");
+        }
+    }
+
+    @Override
+    public void add(int id, T entity) {
+        String key = key(value.apply(entity));
+        if (key == null) {
+            return;
+        }
+        Integer holder = ids.putIfAbsent(key, id);
+        if (holder != null && holder != id) {
+            // Only possible for data saved before the index existed
+            System.err.println("Warning: " + entity.getClass().getSimpleName() + " " + id + " has the same "
+                    + field.toLowerCase(Locale.ROOT) + " as " + holder + "; lookups find " + holder);
+        }
+        // Also kept for a duplicate, so that check() lets it keep its value
+        keys.put(id, key);
+    }
+
+    @Override
+    public void remove(int id) {
+        String key = keys.remove(id);
+        if (key != null) {
+            ids.remove(key, id);
+        }
+    }
+
+    private static String key(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -22,30 +22,44 @@ public class AttendanceService {
     }
 
     public Attendance recordAttendance(int volunteerId, int eventId, double hoursWorked) {
-        // Update event registration count and capacity
-        Event event = eventRepository.findById(eventId)
-            .orElseThrow(() -> new IllegalArgumentException("Event not found"));
-        
-        if (event.getCapacity() <= 0) {
-            throw new IllegalArgumentException("Event is at full capacity");
-        }
-        
-        event.setCurrentRegistrations(event.getCurrentRegistrations() + 1);
-        event.setCapacity(event.getCapacity() - 1);
+        // The event, attendance and timesheet writes are persisted together or not at all
+        return UnitOfWork.run(() -> {
+            // Update event registration count and capacity
+            Event event = eventRepository.findById(eventId)
+                .orElseThrow(() -> new IllegalArgumentException("Event not found"));
+            
+            if (event.getCapacity() <= 0) {
+                throw new IllegalArgumentException("Event is at full capacity");
+            }
+            
+            adjustRegistrations(event, 1);
+            
+            // Create attendance record with hours
+            Attendance a = new Attendance();
+            a.setVolunteerId(volunteerId);
+            a.setEventId(eventId);
+            a.setCheckInTime(LocalDateTime.now()); // Set to current time for record keeping
+            a.setHoursWorked(hoursWorked);
+            Attendance savedAttendance = repository.save(a);
+            
+            // Automatically create a timesheet for this attendance and update hours
+            createTimesheetForAttendance(volunteerId, event, hoursWorked);
+            
+            return savedAttendance;
+        });
+    }
+    
+    /** Moves one registration between the event's count and its remaining capacity, undone if the unit of work rolls back. */
+    private void adjustRegistrations(Event event, int delta) {
+        int registrations = event.getCurrentRegistrations();
+        int capacity = event.getCapacity();
+        UnitOfWork.onRollback(() -> {
+            event.setCurrentRegistrations(registrations);
+            event.setCapacity(capacity);
+        });
+        event.setCurrentRegistrations(Math.max(0, registrations + delta));
+        event.setCapacity(capacity - delta);
         eventRepository.update(event);
-        
-        // Create attendance record with hours
-        Attendance a = new Attendance();
-        a.setVolunteerId(volunteerId);
-        a.setEventId(eventId);
-        a.setCheckInTime(LocalDateTime.now()); // Set to current time for record keeping
-        a.setHoursWorked(hoursWorked);
-        Attendance savedAttendance = repository.save(a);
-        
-        // Automatically create a timesheet for this attendance and update hours
-        createTimesheetForAttendance(volunteerId, event, hoursWorked);
-        
-        return savedAttendance;
     }
     
     private void createTimesheetForAttendance(int volunteerId, Event event, double hours) {
@@ -74,17 +88,14 @@ public class AttendanceService {
     }
     
     public boolean deleteAttendance(int attendanceId) {
-        // Reverse the event registration count when attendance is deleted
-        Attendance a = repository.findById(attendanceId).orElseThrow(() -> new IllegalArgumentException("Attendance not found"));
-        
-        Event event = eventRepository.findById(a.getEventId()).orElse(null);
-        if (event != null) {
-            event.setCurrentRegistrations(Math.max(0, event.getCurrentRegistrations() - 1));
-            event.setCapacity(event.getCapacity() + 1);
-            eventRepository.update(event);
-        }
-        
-        return repository.delete(attendanceId);
+        return UnitOfWork.run(() -> {
+            // Reverse the event registration count when attendance is deleted
+            Attendance a = repository.findById(attendanceId).orElseThrow(() -> new IllegalArgumentException("Attendance not found"));
+            
+            eventRepository.findById(a.getEventId()).ifPresent(event -> adjustRegistrations(event, -1));
+            
+            return repository.delete(attendanceId);
+        });
     }
     
     public Attendance byId(int attendanceId) {
@@ -93,30 +104,36 @@ public class AttendanceService {
     }
     
     public Attendance update(Attendance attendance) {
-        // Get the old attendance to calculate the hours difference
-        Attendance oldAttendance = repository.findById(attendance.getAttendanceId()).orElse(null);
-        Attendance updated = repository.update(attendance);
-        
-        // Update timesheet hours if hours were changed
-        if (oldAttendance != null && oldAttendance.getHoursWorked() != attendance.getHoursWorked()) {
-            double hoursDifference = attendance.getHoursWorked() - oldAttendance.getHoursWorked();
-            updateTimesheetHoursByDifference(attendance.getVolunteerId(), attendance.getEventId(), hoursDifference);
-        }
-        
-        return updated;
+        return UnitOfWork.run(() -> {
+            // Get the old attendance to calculate the hours difference
+            Attendance oldAttendance = repository.findById(attendance.getAttendanceId()).orElse(null);
+            Attendance updated = repository.update(attendance);
+            
+            // Update timesheet hours if hours were changed
+            if (oldAttendance != null && oldAttendance.getHoursWorked() != attendance.getHoursWorked()) {
+                double hoursDifference = attendance.getHoursWorked() - oldAttendance.getHoursWorked();
+                updateTimesheetHoursByDifference(attendance.getVolunteerId(), attendance.getEventId(), hoursDifference);
+            }
+            
+            return updated;
+        });
     }
     
     private void updateTimesheetHoursByDifference(int volunteerId, int eventId, double hoursDifference) {
         // Find the timesheet for this volunteer and event
-        List<Timesheet> timesheets = timesheetRepository.findByVolunteer(volunteerId);
+        List<Timesheet> timesheets = timesheetRepository.findByVolunteerAndEvent(volunteerId, eventId);
         for (Timesheet timesheet : timesheets) {
-            if (timesheet.getEventId() != null && timesheet.getEventId() == eventId) {
-                // Update the total hours with the difference
-                timesheet.setTotalHours(Math.round((timesheet.getTotalHours() + hoursDifference) * 100.0) / 100.0);
-                timesheet.setLastModifiedDate(LocalDateTime.now());
-                timesheetRepository.update(timesheet);
-                break;
-            }
+            // Update the total hours with the difference
+            double totalHours = timesheet.getTotalHours();
+            LocalDateTime lastModified = timesheet.getLastModifiedDate();
+            UnitOfWork.onRollback(() -> {
+                timesheet.setTotalHours(totalHours);
+                timesheet.setLastModifiedDate(lastModified);
+            });
+            timesheet.setTotalHours(Math.round((timesheet.getTotalHours() + hoursDifference) * 100.0) / 100.0);
+            timesheet.setLastModifiedDate(LocalDateTime.now());
+            timesheetRepository.update(timesheet);
+            break;
         }
     }
     
@@ -5,7 +5,7 @@ import com.fstgc.vms.model.Volunteer;
 import com.fstgc.vms.model.enums.AccountStatus;
 import com.fstgc.vms.model.enums.Role;
 import com.fstgc.vms.repository.AdminRepository;
-import com.fstgc.vms.repository.memory.InMemoryVolunteerRepository;
+import com.fstgc.vms.repository.VolunteerRepository;
 import java.security.MessageDigest;
 import java.time.LocalDateTime;
 import java.util.Base64;
@@ -17,10 +17,10 @@ public class AuthenticationService {
     private final VolunteerService volunteerService;
     private SystemAdmin currentUser;
 
-    public AuthenticationService(AdminRepository adminRepository) {
+    public AuthenticationService(AdminRepository adminRepository, VolunteerRepository volunteerRepository) {
         this.adminRepository = adminRepository;
-        // Separate volunteer service used only for signups; persists via DataPersistence
-        this.volunteerService = new VolunteerService(new InMemoryVolunteerRepository());
+        // Volunteer service used only for signups; the repository is the one the rest of the application uses
+        this.volunteerService = new VolunteerService(volunteerRepository);
         // Create default admin if none exists
         initializeDefaultAdmin();
     }
@@ -125,7 +125,12 @@ public class AuthenticationService {
         admin.setAccountStatus(AccountStatus.ACTIVE);
         admin.setSecurityQuestion(securityQuestion);
         admin.setSecurityAnswerHash(hashPassword(securityAnswer.trim().toLowerCase()));
-        adminRepository.save(admin);
+        try {
+            adminRepository.save(admin);
+        } catch (IllegalArgumentException e) {
+            // A concurrent signup took the username or email after the check above
+            return false;
+        }
 
         // Also create a Volunteer domain record so admins can manage this person
         try {
@@ -29,4 +29,10 @@ public class AwardService {
     }
 
     public List<Award> leaderboard() { return repository.findLeaderboard(); }
+
+    public List<Integer> topVolunteers(int limit) { return repository.findTopVolunteers(limit); }
+
+    public int rankOf(int volunteerId) { return repository.findRank(volunteerId); }
+
+    public int countByVolunteer(int volunteerId) { return repository.countByVolunteer(volunteerId); }
 }
@@ -42,4 +42,10 @@ public class EventService {
     }
 
     public List<Event> getEventsBetween(LocalDate start, LocalDate end) { return repository.findByDateRange(start, end); }
+
+    public List<Event> getUpcoming(LocalDate from, int limit) { return repository.findUpcoming(from, limit); }
+
+    public List<Event> getPast(LocalDate before, int limit) { return repository.findPast(before, limit); }
+
+    public List<Event> getCancelled(int limit) { return repository.findCancelled(limit); }
 }
@@ -95,4 +95,13 @@ public class TimesheetService {
     public List<Timesheet> listAll() {
         return timesheets.findAll();
     }
+
+    /** Timesheets with the status, newest first. */
+    public List<Timesheet> listByStatus(TimesheetStatus status) {
+        return status == TimesheetStatus.PENDING ? timesheets.findPendingApprovals() : timesheets.findByApprovalStatus(status.name());
+    }
+
+    public List<Timesheet> listByVolunteer(int volunteerId) {
+        return timesheets.findByVolunteer(volunteerId);
+    }
 }
@@ -0,0 +1,74 @@
+package com.fstgc.vms.service;
+
+import com.fstgc.vms.util.DataPersistence;
+import java.util.function.Supplier;
+
+/**
+ * Runs the repository writes of one service operation as a unit. The saves and deletes are held
+ * back while the operation runs and persisted together when it returns, as one journal append
+ * that is replayed all or nothing after a crash. If the operation throws, nothing is persisted
+ * and the repositories' stores are put back as they were.
+ * <p>
+ * Changes made in place to entities already in a store cannot be seen by the repositories;
+ * register an {@link #onRollback} action to undo them.
+ * <p>
+ * Repositories that write straight to a database take part through {@link #useTransactions}:
+ * each unit then also runs as one transaction of that database, rolled back if the unit fails.
+ */
+public final class UnitOfWork {
+    /** A backend's own transactions: runs {@code work} in one, committed only if it returns normally. */
+    @FunctionalInterface
+    public interface Transactions {
+        void run(Runnable work);
+    }
+
+    private static volatile Transactions transactions;
+
+    private UnitOfWork() {
+    }
+
+    /** Runs every unit from now on inside a transaction of {@code backend}, or of none if null. */
+    public static void useTransactions(Transactions backend) {
+        transactions = backend;
+    }
+
+    /** Runs {@code work} as a unit, or as part of the enclosing one if a unit is already running on this thread. */
+    public static <R> R run(Supplier<R> work) {
+        if (DataPersistence.inTransaction()) {
+            return work.get();
+        }
+        DataPersistence.beginTransaction();
+        try {
+            R result = inTransaction(work);
+            DataPersistence.commitTransaction();
+            return result;
+        } catch (RuntimeException | Error e) {
+            // A commit that failed after closing the transaction has nothing left to roll back
+            if (DataPersistence.inTransaction()) {
+                try {
+                    DataPersistence.rollbackTransaction();
+                } catch (RuntimeException | Error rollbackFailure) {
+                    e.addSuppressed(rollbackFailure);
+                }
+            }
+            throw e;
+        }
+    }
+
+    private static <R> R inTransaction(Supplier<R> work) {
+        Transactions backend = transactions;
+        if (backend == null) {
+            return work.get();
+        }
+        Object[] result = new Object[1];
+        backend.run(() -> result[0] = work.get());
+        @SuppressWarnings("unchecked")
+        R r = (R) result[0];
+        return r;
+    }
+
+    /** Runs {@code undo} if the current unit rolls back; does nothing outside a unit. */
+    public static void onRollback(Runnable undo) {
+        DataPersistence.onRollback(undo);
+    }
+}
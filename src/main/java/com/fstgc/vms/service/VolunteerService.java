@@ -146,16 +146,7 @@ public class VolunteerService {
             .sum();
         
         // Determine tier based on hours
-        BadgeTier newTier = null;
-        if (totalHours >= 200) {
-            newTier = BadgeTier.PLATINUM;
-        } else if (totalHours >= 100) {
-            newTier = BadgeTier.GOLD;
-        } else if (totalHours >= 50) {
-            newTier = BadgeTier.SILVER;
-        } else if (totalHours >= 10) {
-            newTier = BadgeTier.BRONZE;
-        }
+        BadgeTier newTier = BadgeTier.forHours(totalHours);
         
         // Update volunteer's tier if changed
         if (newTier != volunteer.getCurrentTier()) {
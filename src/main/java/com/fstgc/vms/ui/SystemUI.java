@@ -9,8 +9,9 @@ import com.fstgc.vms.model.Event;
 
 import com.fstgc.vms.model.SystemAdmin;
 import com.fstgc.vms.model.enums.*;
-import com.fstgc.vms.repository.memory.*;
+import com.fstgc.vms.repository.*;
 import com.fstgc.vms.service.*;
+import com.fstgc.vms.util.DataPersistence;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
@@ -22,7 +23,12 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
 
 public class SystemUI extends JFrame {
     private final VolunteerController volunteerController;
@@ -32,6 +38,7 @@ public class SystemUI extends JFrame {
     private final AnnouncementController announcementController;
     private final AwardController awardController;
     private final AuthenticationService authService;
+    private final RepositoryFactory repositories;
 
     private JTabbedPane tabbedPane;
     private JPanel mainPanel;
@@ -46,21 +53,26 @@ public class SystemUI extends JFrame {
     private static final Color CARD_BG = Color.WHITE;
     private static final Color TEXT_PRIMARY = new Color(31, 41, 55);
     private static final Color TEXT_SECONDARY = new Color(107, 114, 128);
+    // Event cards per column of the Events tab before "Show more"
+    private static final int EVENTS_PAGE = 20;
+    // Rows of the leaderboard on the Awards tab
+    private static final int LEADERBOARD_ROWS = 10;
 
-    public SystemUI(AuthenticationService authService) {
+    public SystemUI(AuthenticationService authService, RepositoryFactory repositories) {
         this.authService = authService;
+        this.repositories = repositories;
         
         // Initialize services and controllers
-        InMemoryAttendanceRepository attendanceRepository = new InMemoryAttendanceRepository();
-        VolunteerService volunteerService = new VolunteerService(new InMemoryVolunteerRepository());
+        AttendanceRepository attendanceRepository = repositories.attendance();
+        VolunteerService volunteerService = new VolunteerService(repositories.volunteers());
         volunteerService.setAttendanceRepository(attendanceRepository); // Enable tier calculation
-        InMemoryEventRepository eventRepository = new InMemoryEventRepository();
+        EventRepository eventRepository = repositories.events();
         EventService eventService = new EventService(eventRepository);
-        InMemoryTimesheetRepository timesheetRepository = new InMemoryTimesheetRepository();
+        TimesheetRepository timesheetRepository = repositories.timesheets();
         AttendanceService attendanceService = new AttendanceService(attendanceRepository, eventRepository, timesheetRepository);
         TimesheetService timesheetService = new TimesheetService(timesheetRepository, attendanceRepository);
-        AnnouncementService announcementService = new AnnouncementService(new InMemoryAnnouncementRepository());
-        AwardService awardService = new AwardService(new InMemoryAwardRepository());
+        AnnouncementService announcementService = new AnnouncementService(repositories.announcements());
+        AwardService awardService = new AwardService(repositories.awards());
 
         this.volunteerController = new VolunteerController(volunteerService);
         this.eventController = new EventController(eventService);
@@ -198,7 +210,7 @@ public class SystemUI extends JFrame {
                         LoginDialog loginDialog = new LoginDialog(null, authService);
                         loginDialog.setVisible(true);
                         if (loginDialog.isAuthenticated()) {
-                            SystemUI gui = new SystemUI(authService);
+                            SystemUI gui = new SystemUI(authService, repositories);
                             gui.launch();
                         } else {
                             System.exit(0);
@@ -208,6 +220,9 @@ public class SystemUI extends JFrame {
             });
             
             rightSection.add(userInfo);
+            if (currentUser.getRole() == Role.SUPER_ADMIN || currentUser.getRole() == Role.ADMIN) {
+                rightSection.add(createBackupButton());
+            }
             rightSection.add(logoutButton);
         }
         
@@ -216,6 +231,39 @@ public class SystemUI extends JFrame {
         return header;
     }
     
+    private JButton createBackupButton() {
+        JButton backupButton = new JButton("Backup");
+        backupButton.setFont(new Font("Segoe UI", Font.BOLD, 12));
+        backupButton.setForeground(PRIMARY_BLUE);
+        backupButton.setBackground(Color.WHITE);
+        backupButton.setFocusPainted(false);
+        backupButton.setBorderPainted(false);
+        backupButton.setPreferredSize(new Dimension(80, 35));
+        backupButton.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        backupButton.setToolTipText("Save a copy of all data to " + DataPersistence.backupDirectory().toAbsolutePath());
+        backupButton.addActionListener(e -> {
+            // Runs in the background; everyone can keep working while the archive is written
+            backupButton.setEnabled(false);
+            repositories.backup(DataPersistence.backupDirectory()).whenComplete((archive, error) ->
+                SwingUtilities.invokeLater(() -> {
+                    backupButton.setEnabled(true);
+                    if (error == null) {
+                        JOptionPane.showMessageDialog(this,
+                            "Backup saved to:\n" + archive.toAbsolutePath(),
+                            "Backup Complete",
+                            JOptionPane.INFORMATION_MESSAGE);
+                    } else {
+                        Throwable cause = error.getCause() != null ? error.getCause() : error;
+                        JOptionPane.showMessageDialog(this,
+                            "Backup failed: " + cause.getMessage(),
+                            "Backup Error",
+                            JOptionPane.ERROR_MESSAGE);
+                    }
+                }));
+        });
+        return backupButton;
+    }
+    
     private JPanel createFooterPanel() {
         JPanel footer = new JPanel(new FlowLayout(FlowLayout.CENTER));
         footer.setBackground(new Color(31, 41, 55));
@@ -395,7 +443,7 @@ public class SystemUI extends JFrame {
         listPanel.setLayout(new BoxLayout(listPanel, BoxLayout.Y_AXIS));
         listPanel.setBackground(CARD_BG);
         
-        List<Announcement> announcements = announcementController.listAll();
+        List<Announcement> announcements = announcementController.active();
         for (Announcement ann : announcements) {
             listPanel.add(createAnnouncementItem(ann));
             listPanel.add(Box.createVerticalStrut(10));
@@ -422,7 +470,6 @@ public class SystemUI extends JFrame {
         listPanel.setLayout(new BoxLayout(listPanel, BoxLayout.Y_AXIS));
         listPanel.setBackground(CARD_BG);
         
-        List<com.fstgc.vms.model.Event> events = eventController.listAll();
         // Filter out events at capacity for non-admin users
         Role role = authService.getCurrentUser().getRole();
         boolean isAdmin = (role == Role.ADMIN || role == Role.SUPER_ADMIN);
@@ -444,17 +491,14 @@ public class SystemUI extends JFrame {
         }
         
         final List<Integer> finalRegisteredEventIds = registeredEventIds;
-        List<com.fstgc.vms.model.Event> filteredEvents = events.stream()
-            .filter(e -> !e.getEventDate().isBefore(today)) // Only show upcoming events
-            .filter(e -> {
-                if (isAdmin) return true; // Admins see all events
-                // Hide events user is already registered for
-                if (finalRegisteredEventIds.contains(e.getEventId())) return false;
-                int totalCapacity = e.getCapacity() + e.getCurrentRegistrations();
-                return e.getCurrentRegistrations() < totalCapacity; // Hide full events for users
-            })
-            .limit(3)
-            .toList();
+        // Admins see the next three; volunteers the next three they can still join
+        List<com.fstgc.vms.model.Event> filteredEvents = firstUpcoming(today, 3, e -> {
+            if (isAdmin) return true; // Admins see all events
+            // Hide events user is already registered for
+            if (finalRegisteredEventIds.contains(e.getEventId())) return false;
+            int totalCapacity = e.getCapacity() + e.getCurrentRegistrations();
+            return e.getCurrentRegistrations() < totalCapacity; // Hide full events for users
+        });
         
         for (com.fstgc.vms.model.Event event : filteredEvents) {
             listPanel.add(createEventItem(event));
@@ -1136,8 +1180,7 @@ public class SystemUI extends JFrame {
     }
     
     private int getBadgesEarnedCount(int volunteerId) {
-        // Get actual badge count from award records
-        return awardController.getAwardsByVolunteer(volunteerId).size();
+        return awardController.countByVolunteer(volunteerId);
     }
     
     private double calculateTotalHours(int volunteerId) {
@@ -1184,8 +1227,6 @@ public class SystemUI extends JFrame {
         contentPanel.setLayout(new BoxLayout(contentPanel, BoxLayout.Y_AXIS));
         contentPanel.setBackground(GRAY_BG);
         
-        // Get all events and separate them
-        List<com.fstgc.vms.model.Event> allEvents = eventController.listAll();
         LocalDate today = LocalDate.now();
         boolean isAdmin = (currentRole == Role.ADMIN || currentRole == Role.SUPER_ADMIN);
         
@@ -1204,11 +1245,14 @@ public class SystemUI extends JFrame {
                     .map(Attendance::getEventId)
                     .toList();
                 
-                List<com.fstgc.vms.model.Event> myRegisteredEvents = allEvents.stream()
-                    .filter(e -> registeredEventIds.contains(e.getEventId()))
-                    .filter(e -> !e.getEventDate().isBefore(today)) // Only upcoming
-                    .filter(e -> e.getStatus() != EventStatus.COMPLETED && e.getStatus() != EventStatus.CANCELLED)
-                    .sorted((e1, e2) -> e1.getEventDate().compareTo(e2.getEventDate()))
+                // Looked up by id rather than picked out of every upcoming event
+                List<com.fstgc.vms.model.Event> myRegisteredEvents = registeredEventIds.stream()
+                    .distinct()
+                    .map(eventController::get)
+                    .filter(e -> e != null && e.getEventDate() != null && !e.getEventDate().isBefore(today))
+                    .filter(e -> e.getStatus() != EventStatus.CANCELLED && e.getStatus() != EventStatus.COMPLETED)
+                    .sorted(Comparator.comparing(com.fstgc.vms.model.Event::getEventDate)
+                        .thenComparingInt(com.fstgc.vms.model.Event::getEventId))
                     .toList();
                 
                 if (!myRegisteredEvents.isEmpty()) {
@@ -1247,37 +1291,28 @@ public class SystemUI extends JFrame {
         }
         
         final List<Integer> finalRegisteredEventIds = registeredEventIds;
-        List<com.fstgc.vms.model.Event> upcomingEvents = allEvents.stream()
-            .filter(e -> !e.getEventDate().isBefore(today))
-            .filter(e -> e.getStatus() != EventStatus.COMPLETED && e.getStatus() != EventStatus.CANCELLED)
-            .filter(e -> {
-                // For non-admin users, hide events at full capacity OR already registered for
-                if (!isAdmin) {
-                    // Hide if already registered
-                    if (finalRegisteredEventIds.contains(e.getEventId())) {
-                        return false;
-                    }
-                    // Hide if at full capacity
-                    int totalCapacity = e.getCapacity() + e.getCurrentRegistrations();
-                    return e.getCurrentRegistrations() < totalCapacity;
+        Predicate<com.fstgc.vms.model.Event> shownAsUpcoming = e -> {
+            // For non-admin users, hide events at full capacity OR already registered for
+            if (!isAdmin) {
+                // Hide if already registered
+                if (finalRegisteredEventIds.contains(e.getEventId())) {
+                    return false;
                 }
-                // Admins see all events
-                return true;
-            })
-            .sorted((e1, e2) -> e1.getEventDate().compareTo(e2.getEventDate()))
-            .toList();
-            
-        // Combine past and completed events into one list
-        List<com.fstgc.vms.model.Event> pastAndCompletedEvents = allEvents.stream()
-            .filter(e -> e.getEventDate().isBefore(today) || e.getStatus() == EventStatus.COMPLETED)
-            .filter(e -> e.getStatus() != EventStatus.CANCELLED)
-            .sorted((e1, e2) -> e2.getEventDate().compareTo(e1.getEventDate())) // Most recent first
-            .toList();
-            
-        List<com.fstgc.vms.model.Event> cancelledEvents = allEvents.stream()
-            .filter(e -> e.getStatus() == EventStatus.CANCELLED)
-            .sorted((e1, e2) -> e2.getEventDate().compareTo(e1.getEventDate())) // Most recent first
-            .toList();
+                // Hide if at full capacity
+                int totalCapacity = e.getCapacity() + e.getCurrentRegistrations();
+                return e.getCurrentRegistrations() < totalCapacity;
+            }
+            // Admins see all events
+            return true;
+        };
+        
+        // Each column asks its index for one page of events at a time, past and cancelled ones most recent first
+        JPanel upcomingGrid = new JPanel(new GridLayout(0, 1, 0, 15));
+        boolean anyUpcoming = fillEventGrid(upcomingGrid, n -> firstUpcoming(today, n, shownAsUpcoming), EVENTS_PAGE);
+        JPanel pastCompletedGrid = new JPanel(new GridLayout(0, 1, 0, 15));
+        boolean anyPastCompleted = fillEventGrid(pastCompletedGrid, n -> eventController.past(today, n), EVENTS_PAGE);
+        JPanel cancelledGrid = new JPanel(new GridLayout(0, 1, 0, 15));
+        boolean anyCancelled = fillEventGrid(cancelledGrid, eventController::cancelled, EVENTS_PAGE);
         
         // Create horizontal layout with 3 columns (Upcoming, Past/Completed, Cancelled)
         JPanel horizontalSections = new JPanel(new GridLayout(1, 3, 15, 0));
@@ -1296,19 +1331,15 @@ public class SystemUI extends JFrame {
         upcomingLabel.setBorder(new EmptyBorder(0, 0, 10, 0));
         upcomingSection.add(upcomingLabel);
         
-        if (upcomingEvents.isEmpty()) {
+        if (!anyUpcoming) {
             JLabel noUpcomingLabel = new JLabel("No upcoming events");
             noUpcomingLabel.setFont(new Font("Segoe UI", Font.ITALIC, 12));
             noUpcomingLabel.setForeground(TEXT_SECONDARY);
             noUpcomingLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
             upcomingSection.add(noUpcomingLabel);
         } else {
-            JPanel upcomingGrid = new JPanel(new GridLayout(0, 1, 0, 15));
             upcomingGrid.setBackground(GRAY_BG);
             upcomingGrid.setAlignmentX(Component.LEFT_ALIGNMENT);
-            for (com.fstgc.vms.model.Event event : upcomingEvents) {
-                upcomingGrid.add(createEventCard(event));
-            }
             JScrollPane upcomingScroll = new JScrollPane(upcomingGrid);
             upcomingScroll.setBorder(null);
             upcomingScroll.setBackground(GRAY_BG);
@@ -1328,19 +1359,15 @@ public class SystemUI extends JFrame {
         pastCompletedLabel.setBorder(new EmptyBorder(0, 0, 10, 0));
         pastCompletedSection.add(pastCompletedLabel);
         
-        if (pastAndCompletedEvents.isEmpty()) {
+        if (!anyPastCompleted) {
             JLabel noPastCompletedLabel = new JLabel("No past or completed events");
             noPastCompletedLabel.setFont(new Font("Segoe UI", Font.ITALIC, 12));
             noPastCompletedLabel.setForeground(TEXT_SECONDARY);
             noPastCompletedLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
             pastCompletedSection.add(noPastCompletedLabel);
         } else {
-            JPanel pastCompletedGrid = new JPanel(new GridLayout(0, 1, 0, 15));
             pastCompletedGrid.setBackground(GRAY_BG);
             pastCompletedGrid.setAlignmentX(Component.LEFT_ALIGNMENT);
-            for (com.fstgc.vms.model.Event event : pastAndCompletedEvents) {
-                pastCompletedGrid.add(createEventCard(event));
-            }
             JScrollPane pastCompletedScroll = new JScrollPane(pastCompletedGrid);
             pastCompletedScroll.setBorder(null);
             pastCompletedScroll.setBackground(GRAY_BG);
@@ -1360,19 +1387,15 @@ public class SystemUI extends JFrame {
         cancelledLabel.setBorder(new EmptyBorder(0, 0, 10, 0));
         cancelledSection.add(cancelledLabel);
         
-        if (cancelledEvents.isEmpty()) {
+        if (!anyCancelled) {
             JLabel noCancelledLabel = new JLabel("No cancelled events");
             noCancelledLabel.setFont(new Font("Segoe UI", Font.ITALIC, 12));
             noCancelledLabel.setForeground(TEXT_SECONDARY);
             noCancelledLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
             cancelledSection.add(noCancelledLabel);
         } else {
-            JPanel cancelledGrid = new JPanel(new GridLayout(0, 1, 0, 15));
             cancelledGrid.setBackground(GRAY_BG);
             cancelledGrid.setAlignmentX(Component.LEFT_ALIGNMENT);
-            for (com.fstgc.vms.model.Event event : cancelledEvents) {
-                cancelledGrid.add(createEventCard(event));
-            }
             JScrollPane cancelledScroll = new JScrollPane(cancelledGrid);
             cancelledScroll.setBorder(null);
             cancelledScroll.setBackground(GRAY_BG);
@@ -1397,6 +1420,47 @@ public class SystemUI extends JFrame {
         return panel;
     }
     
+    /**
+     * The first {@code count} upcoming events from {@code from} that {@code shown} accepts. The
+     * date index is read a page at a time, doubling the page until enough events pass the filter
+     * or there are no more.
+     */
+    private List<com.fstgc.vms.model.Event> firstUpcoming(LocalDate from, int count, Predicate<com.fstgc.vms.model.Event> shown) {
+        int page = Math.max(count, 8);
+        while (true) {
+            List<com.fstgc.vms.model.Event> events = eventController.upcoming(from, page);
+            List<com.fstgc.vms.model.Event> found = events.stream().filter(shown).limit(count).toList();
+            if (found.size() == count || events.size() < page) {
+                return found;
+            }
+            page *= 2;
+        }
+    }
+
+    /**
+     * Fills a column of the Events tab with the first {@code limit} cards of {@code firstN}, which
+     * returns the column's first n events, and a "Show more" button if there are more.
+     * @return whether the column has any events
+     */
+    private boolean fillEventGrid(JPanel grid, IntFunction<List<com.fstgc.vms.model.Event>> firstN, int limit) {
+        List<com.fstgc.vms.model.Event> events = firstN.apply(limit + 1);
+        grid.removeAll();
+        for (com.fstgc.vms.model.Event event : events.subList(0, Math.min(limit, events.size()))) {
+            grid.add(createEventCard(event));
+        }
+        if (events.size() > limit) {
+            JPanel morePanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+            morePanel.setBackground(GRAY_BG);
+            JButton moreBtn = createModernButton("Show more", PRIMARY_BLUE);
+            moreBtn.addActionListener(e -> fillEventGrid(grid, firstN, limit + EVENTS_PAGE));
+            morePanel.add(moreBtn);
+            grid.add(morePanel);
+        }
+        grid.revalidate();
+        grid.repaint();
+        return !events.isEmpty();
+    }
+
     private JPanel createEventCard(com.fstgc.vms.model.Event event) {
         JPanel card = createModernCard();
         card.setLayout(new BorderLayout(10, 10));
@@ -2203,30 +2267,10 @@ public class SystemUI extends JFrame {
         
         panel.add(headerPanel, BorderLayout.NORTH);
 
-        // Get all timesheets and filter by role
-        List<Timesheet> allTimesheets = timesheetController.listAll();
-        if (currentRole == Role.VOLUNTEER) {
-            int currentUserId = authService.getCurrentUser().getId();
-            allTimesheets = allTimesheets.stream()
-                .filter(ts -> ts.getVolunteerId() == currentUserId)
-                .toList();
-        }
-        
-        // Separate into pending, approved, and rejected
-        List<Timesheet> pendingTimesheets = allTimesheets.stream()
-            .filter(ts -> ts.getApprovalStatus() == TimesheetStatus.PENDING)
-            .sorted((ts1, ts2) -> ts2.getCreatedDate().compareTo(ts1.getCreatedDate()))
-            .toList();
-            
-        List<Timesheet> approvedTimesheets = allTimesheets.stream()
-            .filter(ts -> ts.getApprovalStatus() == TimesheetStatus.APPROVED)
-            .sorted((ts1, ts2) -> ts2.getCreatedDate().compareTo(ts1.getCreatedDate()))
-            .toList();
-            
-        List<Timesheet> rejectedTimesheets = allTimesheets.stream()
-            .filter(ts -> ts.getApprovalStatus() == TimesheetStatus.REJECTED)
-            .sorted((ts1, ts2) -> ts2.getCreatedDate().compareTo(ts1.getCreatedDate()))
-            .toList();
+        // Separate into pending, approved, and rejected, newest first
+        List<Timesheet> pendingTimesheets = timesheetsWithStatus(currentRole, TimesheetStatus.PENDING);
+        List<Timesheet> approvedTimesheets = timesheetsWithStatus(currentRole, TimesheetStatus.APPROVED);
+        List<Timesheet> rejectedTimesheets = timesheetsWithStatus(currentRole, TimesheetStatus.REJECTED);
         
         // Create main content panel with sections
         JPanel contentPanel = new JPanel();
@@ -2306,6 +2350,17 @@ public class SystemUI extends JFrame {
         return panel;
     }
     
+    /** Timesheets with the status, newest first; volunteers only see their own. */
+    private List<Timesheet> timesheetsWithStatus(Role role, TimesheetStatus status) {
+        if (role == Role.VOLUNTEER) {
+            return timesheetController.listByVolunteer(authService.getCurrentUser().getId()).stream()
+                .filter(ts -> ts.getApprovalStatus() == status)
+                .sorted(Comparator.comparing(Timesheet::getCreatedDate, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder())).reversed())
+                .toList();
+        }
+        return timesheetController.listByStatus(status);
+    }
+
     private JPanel createTimesheetCard(Timesheet timesheet) {
         JPanel card = createModernCard();
         card.setLayout(new BorderLayout(10, 10));
@@ -2405,7 +2460,7 @@ public class SystemUI extends JFrame {
         hoursLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
         
         // Submitted date
-        JLabel submittedLabel = new JLabel("📤 Submitted: " + timesheet.getCreatedDate().toLocalDate());
+        JLabel submittedLabel = new JLabel("📤 Submitted: " + (timesheet.getCreatedDate() != null ? timesheet.getCreatedDate().toLocalDate() : "N/A"));
         submittedLabel.setFont(new Font("Segoe UI", Font.PLAIN, 10));
         submittedLabel.setForeground(TEXT_SECONDARY);
         submittedLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
@@ -2610,7 +2665,7 @@ public class SystemUI extends JFrame {
         messageLabel.setFont(new Font("Segoe UI", Font.PLAIN, 13));
         messageLabel.setForeground(TEXT_PRIMARY);
         
-        JLabel dateLabel = new JLabel("Posted on " + ann.getPublishedDate());
+        JLabel dateLabel = new JLabel("Posted on " + (ann.getPublishedDate() != null ? ann.getPublishedDate() : "N/A"));
         dateLabel.setFont(new Font("Segoe UI", Font.PLAIN, 11));
         dateLabel.setForeground(TEXT_SECONDARY);
         
@@ -3008,11 +3063,7 @@ public class SystemUI extends JFrame {
         leaderList.setLayout(new BoxLayout(leaderList, BoxLayout.Y_AXIS));
         leaderList.setBackground(CARD_BG);
         
-        // Filter to only active volunteers and sort by badge count
-        List<Volunteer> volunteers = volunteerController.listAll().stream()
-            .filter(v -> v.getStatus() == VolunteerStatus.ACTIVE)
-            .sorted((a, b) -> Integer.compare(getBadgesEarnedCount(b.getId()), getBadgesEarnedCount(a.getId())))
-            .toList();
+        List<Volunteer> volunteers = leaderboard(LEADERBOARD_ROWS);
         
         Color[] medalColors = {new Color(255, 215, 0), new Color(192, 192, 192), new Color(205, 127, 50)};
         int rank = 1;
@@ -3038,6 +3089,41 @@ public class SystemUI extends JFrame {
         return panel;
     }
     
+    /**
+     * The first {@code rows} active volunteers in leaderboard order, then active volunteers without
+     * badges by id. The ranking is read a page at a time, doubling the page until enough of the
+     * volunteers on it are active or it runs out.
+     */
+    private List<Volunteer> leaderboard(int rows) {
+        Map<Integer, Volunteer> ranked = new LinkedHashMap<>();
+        int page = rows;
+        while (true) {
+            List<Integer> top = awardController.topVolunteers(page);
+            for (int id : top) {
+                if (ranked.size() == rows) {
+                    break;
+                }
+                volunteerController.get(id)
+                    .filter(v -> v.getStatus() == VolunteerStatus.ACTIVE)
+                    .ifPresent(v -> ranked.putIfAbsent(id, v));
+            }
+            if (ranked.size() == rows || top.size() < page) {
+                break;
+            }
+            page *= 2;
+        }
+        List<Volunteer> volunteers = new ArrayList<>(ranked.values());
+        if (volunteers.size() < rows) {
+            // Fewer ranked volunteers than rows, so the rest of the board is filled from everyone else
+            volunteerController.listAll().stream()
+                .filter(v -> v.getStatus() == VolunteerStatus.ACTIVE && !ranked.containsKey(v.getId()))
+                .sorted(Comparator.comparingInt(Volunteer::getId))
+                .limit(rows - volunteers.size())
+                .forEach(volunteers::add);
+        }
+        return volunteers;
+    }
+
     private JPanel createBadgeTierCard(String name, String requirement, Color color, int count) {
         JPanel card = new JPanel();
         card.setLayout(new BoxLayout(card, BoxLayout.Y_AXIS));
@@ -3339,8 +3425,7 @@ public class SystemUI extends JFrame {
             .toList();
         
         // Filter out events that already have timesheets
-        List<Integer> existingTimesheetEventIds = timesheetController.listAll().stream()
-            .filter(ts -> ts.getVolunteerId() == volunteerId)
+        List<Integer> existingTimesheetEventIds = timesheetController.listByVolunteer(volunteerId).stream()
             .filter(ts -> ts.getEventId() != null)
             .map(Timesheet::getEventId)
             .toList();
@@ -3491,9 +3576,7 @@ public class SystemUI extends JFrame {
     
     private void showEditTimesheetDialog(int volunteerId) {
         // Get existing timesheets for this volunteer
-        List<Timesheet> timesheets = timesheetController.listAll().stream()
-            .filter(ts -> ts.getVolunteerId() == volunteerId)
-            .toList();
+        List<Timesheet> timesheets = timesheetController.listByVolunteer(volunteerId);
         
         if (timesheets.isEmpty()) {
             JOptionPane.showMessageDialog(this, "No timesheets found for this volunteer!", "Error", JOptionPane.ERROR_MESSAGE);
@@ -3647,8 +3730,7 @@ public class SystemUI extends JFrame {
     
     private void showApproveTimesheetDialog(int volunteerId) {
         // Get pending timesheets for this volunteer
-        List<Timesheet> pendingTimesheets = timesheetController.listAll().stream()
-            .filter(ts -> ts.getVolunteerId() == volunteerId)
+        List<Timesheet> pendingTimesheets = timesheetController.listByVolunteer(volunteerId).stream()
             .filter(ts -> ts.getApprovalStatus() == TimesheetStatus.PENDING)
             .toList();
         
@@ -3701,8 +3783,7 @@ public class SystemUI extends JFrame {
     
     private void showRejectTimesheetDialog(int volunteerId) {
         // Get pending timesheets for this volunteer
-        List<Timesheet> pendingTimesheets = timesheetController.listAll().stream()
-            .filter(ts -> ts.getVolunteerId() == volunteerId)
+        List<Timesheet> pendingTimesheets = timesheetController.listByVolunteer(volunteerId).stream()
             .filter(ts -> ts.getApprovalStatus() == TimesheetStatus.PENDING)
             .toList();
         
@@ -3809,8 +3890,7 @@ public class SystemUI extends JFrame {
                     .toList();
                 
                 // Filter out events with existing timesheets
-                List<Integer> existingTimesheetEventIds = timesheetController.listAll().stream()
-                    .filter(ts -> ts.getVolunteerId() == volunteerId)
+                List<Integer> existingTimesheetEventIds = timesheetController.listByVolunteer(volunteerId).stream()
                     .filter(ts -> ts.getEventId() != null)
                     .map(Timesheet::getEventId)
                     .toList();
@@ -0,0 +1,51 @@
+package com.fstgc.vms.util;
+
+import com.fstgc.vms.model.*;
+
+/**
+ * The top-level collections persisted by {@link DataPersistence}.
+ * The key of each constant matches its section name in vmsdatabase.txt.
+ */
+public enum Aggregate {
+    VOLUNTEERS("volunteers", Volunteer.class),
+    EVENTS("events", Event.class),
+    ATTENDANCE("attendance", Attendance.class, true),
+    ANNOUNCEMENTS("announcements", Announcement.class),
+    TIMESHEETS("timesheets", Timesheet.class, true),
+    ADMINS("admins", SystemAdmin.class),
+    AWARDS("awards", Award.class);
+
+    // Ids per storage file for aggregates that grow without bound; fixed so existing files stay valid
+    static final int PARTITION_SIZE = 10_000;
+
+    private final String key;
+    private final Class<?> entityType;
+    private final boolean partitioned;
+
+    Aggregate(String key, Class<?> entityType) {
+        this(key, entityType, false);
+    }
+
+    Aggregate(String key, Class<?> entityType, boolean partitioned) {
+        this.key = key;
+        this.entityType = entityType;
+        this.partitioned = partitioned;
+    }
+
+    public String key() { return key; }
+    public Class<?> entityType() { return entityType; }
+    public boolean isPartitioned() { return partitioned; }
+
+    public int partitionOf(int id) {
+        return partitioned ? id / PARTITION_SIZE : 0;
+    }
+
+    public static Aggregate fromKey(String key) {
+        for (Aggregate aggregate : values()) {
+            if (aggregate.key.equals(key)) {
+                return aggregate;
+            }
+        }
+        throw new IllegalArgumentException("Unknown aggregate: " + key);
+    }
+}
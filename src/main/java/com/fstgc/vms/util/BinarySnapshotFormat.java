@@ -0,0 +1,671 @@
+package com.fstgc.vms.util;
+
+import com.fstgc.vms.model.*;
+import com.fstgc.vms.model.enums.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary encoding of shard files, each read back whole into one heap buffer.
+ *
+ * <pre>
+ * file   := "VMSB" u16:version u8:codec block*
+ * block  := u8:aggregate-ordinal i32:record-count i32:stored-length [i32:raw-length] payload i32:crc32(payload)
+ * record := i32:length u8:op i32:id fields...   (no fields for a delete)
+ * </pre>
+ * Fields are written in declaration order with fixed-width numbers, dates as epoch
+ * seconds/days/nanos, enums as ordinals and strings as length-prefixed UTF-8. Nullable
+ * fields carry a presence byte. A file may hold blocks of several aggregates, which is
+ * how whole-database exports are written.
+ * <p>
+ * With a compression codec each block payload is deflated on its own and the raw length is
+ * stored in front of it, so the file is still read as a whole and inflated one block at a time.
+ * Version 1 files have no codec byte and are read as uncompressed.
+ */
+class BinarySnapshotFormat implements SnapshotFormat {
+    static final int VERSION = 2;
+    private static final byte[] MAGIC = {'V', 'M', 'S', 'B'};
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final byte OP_PUT = 0;
+    private static final byte OP_DELETE = 1;
+
+    private final Compression compression;
+
+    BinarySnapshotFormat() {
+        this(Compression.NONE);
+    }
+
+    BinarySnapshotFormat(Compression compression) {
+        this.compression = compression;
+    }
+
+    @Override
+    public String extension() {
+        return "vmsb";
+    }
+
+    @Override
+    public void write(Path file, Aggregate aggregate, int partition, SortedMap<Integer, Object> entities) throws IOException {
+        writeAll(file, Collections.singletonMap(aggregate, entities));
+    }
+
+    @Override
+    public int read(Path file, Aggregate aggregate, BiConsumer<Integer, Object> sink) throws IOException {
+        return readAll(file, (blockAggregate, id, entity) -> {
+            if (blockAggregate != aggregate) {
+                throw new IllegalStateException(file + " holds " + blockAggregate.key() + ", expected " + aggregate.key());
+            }
+            sink.accept(id, entity);
+        });
+    }
+
+    /** Writes the given aggregates, each as a run of checksummed blocks, to one file. */
+    @Override
+    public void writeAll(Path file, Map<Aggregate, ? extends Map<Integer, Object>> aggregates) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BLOCK_SIZE))) {
+            out.write(MAGIC);
+            out.writeShort(VERSION);
+            out.writeByte(compression.codec().id);
+            Deflater deflater = compression.codec() == Compression.Codec.NONE ? null : compression.newDeflater();
+            try {
+                for (Map.Entry<Aggregate, ? extends Map<Integer, Object>> entry : aggregates.entrySet()) {
+                    Aggregate aggregate = entry.getKey();
+                    BlockWriter block = new BlockWriter(out, aggregate, deflater);
+                    for (Map.Entry<Integer, Object> entity : entry.getValue().entrySet()) {
+                        block.add(entity.getKey(), entity.getValue());
+                    }
+                    block.finish();
+                }
+            } finally {
+                if (deflater != null) {
+                    deflater.end();
+                }
+            }
+        }
+    }
+
+    /**
+     * Like {@link #writeAll}, for entities already in the field encoding of {@link #encode};
+     * a null encoding is written as a delete.
+     */
+    void writeEncoded(Path file, Map<Aggregate, ? extends Map<Integer, byte[]>> aggregates) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BLOCK_SIZE))) {
+            out.write(MAGIC);
+            out.writeShort(VERSION);
+            out.writeByte(compression.codec().id);
+            Deflater deflater = compression.codec() == Compression.Codec.NONE ? null : compression.newDeflater();
+            try {
+                for (Map.Entry<Aggregate, ? extends Map<Integer, byte[]>> entry : aggregates.entrySet()) {
+                    BlockWriter block = new BlockWriter(out, entry.getKey(), deflater);
+                    for (Map.Entry<Integer, byte[]> entity : entry.getValue().entrySet()) {
+                        block.addEncoded(entity.getKey(), entity.getValue());
+                    }
+                    block.finish();
+                }
+            } finally {
+                if (deflater != null) {
+                    deflater.end();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the file into a heap buffer and streams every entity of every block to the sink.
+     * The file is not mapped: a mapping stays open until it is garbage collected, and while it
+     * is open Windows refuses to replace or delete the file.
+     */
+    @Override
+    public int readAll(Path file, StreamingJsonLoader.EntitySink sink) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException(file + " is not a binary snapshot");
+        }
+        int version = buffer.getShort();
+        if (version < 1 || version > VERSION) {
+            throw new IOException(file + " has unsupported binary snapshot version " + version);
+        }
+        Compression.Codec codec = version == 1 ? Compression.Codec.NONE : Compression.Codec.of(buffer.get());
+        Inflater inflater = codec == Compression.Codec.NONE ? null : new Inflater();
+        try {
+            return readBlocks(file, buffer, inflater, sink);
+        } finally {
+            if (inflater != null) {
+                inflater.end();
+            }
+        }
+    }
+
+    private static int readBlocks(Path file, ByteBuffer buffer, Inflater inflater, StreamingJsonLoader.EntitySink sink) throws IOException {
+        int count = 0;
+        while (buffer.hasRemaining()) {
+            Aggregate aggregate = Aggregate.values()[buffer.get()];
+            int records = buffer.getInt();
+            int length = buffer.getInt();
+            int rawLength = inflater != null ? buffer.getInt() : length;
+            ByteBuffer payload = buffer.slice();
+            payload.limit(length);
+            buffer.position(buffer.position() + length);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != buffer.getInt()) {
+                throw new IOException(file + " has a corrupt " + aggregate.key() + " block");
+            }
+            if (inflater != null) {
+                payload = inflate(file, inflater, payload, rawLength);
+            }
+            Decoder in = new Decoder(payload);
+            for (int i = 0; i < records; i++) {
+                int recordLength = in.buffer.getInt();
+                int next = in.buffer.position() + recordLength;
+                byte op = in.buffer.get();
+                int id = in.buffer.getInt();
+                sink.accept(aggregate, id, op == OP_PUT ? readEntity(aggregate, in) : null);
+                in.buffer.position(next);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static ByteBuffer inflate(Path file, Inflater inflater, ByteBuffer stored, int rawLength) throws IOException {
+        byte[] raw = new byte[rawLength];
+        inflater.reset();
+        inflater.setInput(stored);
+        try {
+            int inflated = 0;
+            while (inflated < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(raw, inflated, rawLength - inflated);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += n;
+            }
+            if (inflated != rawLength) {
+                throw new IOException(file + " has a truncated compressed block");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException(file + " has a corrupt compressed block: " + e.getMessage(), e);
+        }
+        return ByteBuffer.wrap(raw);
+    }
+
+    /** Buffers records until the block is full, then writes it with its checksum. */
+    private static final class BlockWriter {
+        private final DataOutputStream out;
+        private final Aggregate aggregate;
+        private final ByteArrayOutputStream payload = new ByteArrayOutputStream(BLOCK_SIZE + 1024);
+        private final ByteArrayOutputStream record = new ByteArrayOutputStream(512);
+        private final Encoder encoder = new Encoder(new DataOutputStream(record));
+        private final DataOutputStream payloadOut = new DataOutputStream(payload);
+        private final Deflater deflater;
+        private int records;
+
+        BlockWriter(DataOutputStream out, Aggregate aggregate, Deflater deflater) {
+            this.out = out;
+            this.aggregate = aggregate;
+            this.deflater = deflater;
+        }
+
+        void add(int id, Object entity) throws IOException {
+            record.reset();
+            encoder.out.writeByte(entity != null ? OP_PUT : OP_DELETE);
+            encoder.out.writeInt(id);
+            if (entity != null) {
+                writeEntity(aggregate, entity, encoder);
+            }
+            encoder.out.flush();
+            payloadOut.writeInt(record.size());
+            record.writeTo(payloadOut);
+            added();
+        }
+
+        void addEncoded(int id, byte[] fields) throws IOException {
+            payloadOut.writeInt(1 + Integer.BYTES + (fields != null ? fields.length : 0));
+            payloadOut.writeByte(fields != null ? OP_PUT : OP_DELETE);
+            payloadOut.writeInt(id);
+            if (fields != null) {
+                payloadOut.write(fields);
+            }
+            added();
+        }
+
+        private void added() throws IOException {
+            records++;
+            if (payload.size() >= BLOCK_SIZE) {
+                finish();
+            }
+        }
+
+        void finish() throws IOException {
+            if (records == 0) {
+                return;
+            }
+            payloadOut.flush();
+            byte[] bytes = payload.toByteArray();
+            int rawLength = bytes.length;
+            if (deflater != null) {
+                bytes = deflate(bytes);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            out.writeByte(aggregate.ordinal());
+            out.writeInt(records);
+            out.writeInt(bytes.length);
+            if (deflater != null) {
+                out.writeInt(rawLength);
+            }
+            out.write(bytes);
+            out.writeInt((int) crc.getValue());
+            payload.reset();
+            records = 0;
+        }
+
+        private byte[] deflate(byte[] raw) {
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream stored = new ByteArrayOutputStream(raw.length / 2 + 64);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                stored.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return stored.toByteArray();
+        }
+    }
+
+    /** One entity in the record field encoding, without the length, op and id in front of it. */
+    static byte[] encode(Aggregate aggregate, Object entity) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        Encoder encoder = new Encoder(new DataOutputStream(bytes));
+        writeEntity(aggregate, entity, encoder);
+        encoder.out.flush();
+        return bytes.toByteArray();
+    }
+
+    static Object decode(Aggregate aggregate, ByteBuffer buffer) {
+        return readEntity(aggregate, new Decoder(buffer));
+    }
+
+    private static void writeEntity(Aggregate aggregate, Object entity, Encoder out) throws IOException {
+        switch (aggregate) {
+            case VOLUNTEERS: {
+                Volunteer v = (Volunteer) entity;
+                writePerson(v, out);
+                out.dateTime(v.getRegistrationDate());
+                out.enumValue(v.getStatus());
+                out.string(v.getProfilePhotoUrl());
+                out.date(v.getDateOfBirth());
+                out.string(v.getAddress());
+                out.out.writeInt(v.getEventsAttended());
+                out.string(v.getLastModifiedBy());
+                out.dateTime(v.getLastModifiedDate());
+                out.out.writeInt(v.getBadgesEarned());
+                out.enumValue(v.getCurrentTier());
+                break;
+            }
+            case EVENTS: {
+                Event e = (Event) entity;
+                out.out.writeInt(e.getEventId());
+                out.string(e.getTitle());
+                out.string(e.getDescription());
+                out.date(e.getEventDate());
+                out.time(e.getStartTime());
+                out.time(e.getEndTime());
+                out.string(e.getLocation());
+                out.out.writeInt(e.getCapacity());
+                out.out.writeInt(e.getCurrentRegistrations());
+                out.enumValue(e.getEventType());
+                out.enumValue(e.getStatus());
+                out.out.writeInt(e.getCreatedByAdminId());
+                out.string(e.getLastModifiedBy());
+                out.dateTime(e.getLastModifiedDate());
+                break;
+            }
+            case ATTENDANCE: {
+                Attendance a = (Attendance) entity;
+                out.out.writeInt(a.getAttendanceId());
+                out.out.writeInt(a.getVolunteerId());
+                out.out.writeInt(a.getEventId());
+                out.dateTime(a.getCheckInTime());
+                out.dateTime(a.getCheckOutTime());
+                out.enumValue(a.getStatus());
+                out.out.writeDouble(a.getHoursWorked());
+                out.integer(a.getRecordedByAdminId());
+                out.string(a.getNotes());
+                out.string(a.getLastModifiedBy());
+                out.dateTime(a.getLastModifiedDate());
+                break;
+            }
+            case ANNOUNCEMENTS: {
+                Announcement a = (Announcement) entity;
+                out.out.writeInt(a.getAnnouncementId());
+                out.string(a.getTitle());
+                out.string(a.getMessage());
+                out.dateTime(a.getPublishedDate());
+                out.dateTime(a.getExpiryDate());
+                out.enumValue(a.getPriority());
+                out.enumValue(a.getTargetAudience());
+                out.integer(a.getEventId());
+                out.out.writeInt(a.getCreatedByAdminId());
+                out.out.writeBoolean(a.isDeleted());
+                out.string(a.getLastModifiedBy());
+                out.dateTime(a.getLastModifiedDate());
+                break;
+            }
+            case TIMESHEETS: {
+                Timesheet t = (Timesheet) entity;
+                out.out.writeInt(t.getTimesheetId());
+                out.out.writeInt(t.getVolunteerId());
+                out.integer(t.getAttendanceId());
+                out.integer(t.getEventId());
+                out.string(t.getEventName());
+                out.date(t.getPeriodStartDate());
+                out.date(t.getPeriodEndDate());
+                out.out.writeDouble(t.getTotalHours());
+                out.decimal(t.getApprovedHours());
+                out.enumValue(t.getApprovalStatus());
+                out.integer(t.getApprovedByAdminId());
+                out.dateTime(t.getApprovalDate());
+                out.string(t.getRejectionReason());
+                out.dateTime(t.getCreatedDate());
+                out.string(t.getLastModifiedBy());
+                out.dateTime(t.getLastModifiedDate());
+                break;
+            }
+            case ADMINS: {
+                SystemAdmin a = (SystemAdmin) entity;
+                writePerson(a, out);
+                out.string(a.getUsername());
+                out.string(a.getPasswordHash());
+                out.enumValue(a.getRole());
+                out.string(a.getPermissionsJson());
+                out.dateTime(a.getLastLogin());
+                out.out.writeInt(a.getFailedLoginAttempts());
+                out.dateTime(a.getAccountLockedUntil());
+                out.enumValue(a.getAccountStatus());
+                out.dateTime(a.getCreatedDate());
+                out.integer(a.getCreatedByAdminId());
+                out.string(a.getSecurityQuestion());
+                out.string(a.getSecurityAnswerHash());
+                break;
+            }
+            case AWARDS: {
+                Award a = (Award) entity;
+                out.out.writeInt(a.getAwardId());
+                out.out.writeInt(a.getVolunteerId());
+                out.string(a.getBadgeName());
+                out.string(a.getBadgeDescription());
+                out.out.writeInt(a.getCriteriaId());
+                out.dateTime(a.getDateEarned());
+                out.enumValue(a.getBadgeTier());
+                out.string(a.getBadgeIconUrl());
+                out.out.writeBoolean(a.isFeatured());
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown aggregate: " + aggregate);
+        }
+    }
+
+    private static Object readEntity(Aggregate aggregate, Decoder in) {
+        ByteBuffer b = in.buffer;
+        switch (aggregate) {
+            case VOLUNTEERS: {
+                Volunteer v = new Volunteer();
+                readPerson(v, in);
+                v.setRegistrationDate(in.dateTime());
+                v.setStatus(in.enumValue(VolunteerStatus.values()));
+                v.setProfilePhotoUrl(in.string());
+                v.setDateOfBirth(in.date());
+                v.setAddress(in.string());
+                v.setEventsAttended(b.getInt());
+                v.setLastModifiedBy(in.string());
+                v.setLastModifiedDate(in.dateTime());
+                v.setBadgesEarned(b.getInt());
+                v.setCurrentTier(in.enumValue(BadgeTier.values()));
+                return v;
+            }
+            case EVENTS: {
+                Event e = new Event();
+                e.setEventId(b.getInt());
+                e.setTitle(in.string());
+                e.setDescription(in.string());
+                e.setEventDate(in.date());
+                e.setStartTime(in.time());
+                e.setEndTime(in.time());
+                e.setLocation(in.string());
+                e.setCapacity(b.getInt());
+                e.setCurrentRegistrations(b.getInt());
+                e.setEventType(in.enumValue(EventType.values()));
+                e.setStatus(in.enumValue(EventStatus.values()));
+                e.setCreatedByAdminId(b.getInt());
+                e.setLastModifiedBy(in.string());
+                e.setLastModifiedDate(in.dateTime());
+                return e;
+            }
+            case ATTENDANCE: {
+                Attendance a = new Attendance();
+                a.setAttendanceId(b.getInt());
+                a.setVolunteerId(b.getInt());
+                a.setEventId(b.getInt());
+                a.setCheckInTime(in.dateTime());
+                a.setCheckOutTime(in.dateTime());
+                a.setStatus(in.enumValue(AttendanceStatus.values()));
+                a.setHoursWorked(b.getDouble());
+                a.setRecordedByAdminId(in.integer());
+                a.setNotes(in.string());
+                a.setLastModifiedBy(in.string());
+                a.setLastModifiedDate(in.dateTime());
+                return a;
+            }
+            case ANNOUNCEMENTS: {
+                Announcement a = new Announcement();
+                a.setAnnouncementId(b.getInt());
+                a.setTitle(in.string());
+                a.setMessage(in.string());
+                a.setPublishedDate(in.dateTime());
+                a.setExpiryDate(in.dateTime());
+                a.setPriority(in.enumValue(Priority.values()));
+                a.setTargetAudience(in.enumValue(TargetAudience.values()));
+                a.setEventId(in.integer());
+                a.setCreatedByAdminId(b.getInt());
+                a.setDeleted(b.get() != 0);
+                a.setLastModifiedBy(in.string());
+                a.setLastModifiedDate(in.dateTime());
+                return a;
+            }
+            case TIMESHEETS: {
+                Timesheet t = new Timesheet();
+                t.setTimesheetId(b.getInt());
+                t.setVolunteerId(b.getInt());
+                t.setAttendanceId(in.integer());
+                t.setEventId(in.integer());
+                t.setEventName(in.string());
+                t.setPeriodStartDate(in.date());
+                t.setPeriodEndDate(in.date());
+                t.setTotalHours(b.getDouble());
+                t.setApprovedHours(in.decimal());
+                t.setApprovalStatus(in.enumValue(TimesheetStatus.values()));
+                t.setApprovedByAdminId(in.integer());
+                t.setApprovalDate(in.dateTime());
+                t.setRejectionReason(in.string());
+                t.setCreatedDate(in.dateTime());
+                t.setLastModifiedBy(in.string());
+                t.setLastModifiedDate(in.dateTime());
+                return t;
+            }
+            case ADMINS: {
+                SystemAdmin a = new SystemAdmin();
+                readPerson(a, in);
+                a.setUsername(in.string());
+                a.setPasswordHash(in.string());
+                a.setRole(in.enumValue(Role.values()));
+                a.setPermissionsJson(in.string());
+                a.setLastLogin(in.dateTime());
+                a.setFailedLoginAttempts(b.getInt());
+                a.setAccountLockedUntil(in.dateTime());
+                a.setAccountStatus(in.enumValue(AccountStatus.values()));
+                a.setCreatedDate(in.dateTime());
+                a.setCreatedByAdminId(in.integer());
+                a.setSecurityQuestion(in.string());
+                a.setSecurityAnswerHash(in.string());
+                return a;
+            }
+            case AWARDS: {
+                Award a = new Award();
+                a.setAwardId(b.getInt());
+                a.setVolunteerId(b.getInt());
+                a.setBadgeName(in.string());
+                a.setBadgeDescription(in.string());
+                a.setCriteriaId(b.getInt());
+                a.setDateEarned(in.dateTime());
+                a.setBadgeTier(in.enumValue(BadgeTier.values()));
+                a.setBadgeIconUrl(in.string());
+                a.setFeatured(b.get() != 0);
+                return a;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown aggregate: " + aggregate);
+        }
+    }
+
+    private static void writePerson(Person p, Encoder out) throws IOException {
+        out.out.writeInt(p.getId());
+        out.string(p.getFirstName());
+        out.string(p.getLastName());
+        out.string(p.getEmail());
+        out.string(p.getPhone());
+    }
+
+    private static void readPerson(Person p, Decoder in) {
+        p.setId(in.buffer.getInt());
+        p.setFirstName(in.string());
+        p.setLastName(in.string());
+        p.setEmail(in.string());
+        p.setPhone(in.string());
+    }
+
+    private static final class Encoder {
+        final DataOutputStream out;
+
+        Encoder(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void string(String value) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        void dateTime(LocalDateTime value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(value.getNano());
+            }
+        }
+
+        void date(LocalDate value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeLong(value.toEpochDay());
+            }
+        }
+
+        void time(LocalTime value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeLong(value.toNanoOfDay());
+            }
+        }
+
+        void enumValue(Enum<?> value) throws IOException {
+            out.writeByte(value == null ? -1 : value.ordinal());
+        }
+
+        void integer(Integer value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeInt(value);
+            }
+        }
+
+        void decimal(Double value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeDouble(value);
+            }
+        }
+    }
+
+    private static final class Decoder {
+        final ByteBuffer buffer;
+
+        Decoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        String string() {
+            int length = buffer.getInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        LocalDateTime dateTime() {
+            if (buffer.get() == 0) {
+                return null;
+            }
+            long seconds = buffer.getLong();
+            return LocalDateTime.ofEpochSecond(seconds, buffer.getInt(), ZoneOffset.UTC);
+        }
+
+        LocalDate date() {
+            return buffer.get() == 0 ? null : LocalDate.ofEpochDay(buffer.getLong());
+        }
+
+        LocalTime time() {
+            return buffer.get() == 0 ? null : LocalTime.ofNanoOfDay(buffer.getLong());
+        }
+
+        <E extends Enum<E>> E enumValue(E[] values) {
+            byte ordinal = buffer.get();
+            return ordinal < 0 ? null : values[ordinal];
+        }
+
+        Integer integer() {
+            return buffer.get() == 0 ? null : buffer.getInt();
+        }
+
+        Double decimal() {
+            return buffer.get() == 0 ? null : buffer.getDouble();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.fstgc.vms.util;
+
+/**
+ * Running totals of the background compactions that fold delta segments back into the
+ * shard files. Instances are immutable; {@link DataPersistence#getCompactionMetrics()}
+ * returns the latest one.
+ */
+public final class CompactionMetrics {
+    static final CompactionMetrics NONE = new CompactionMetrics(0, 0, 0, 0, 0, 0, 0);
+
+    private final int compactions;
+    private final int failures;
+    private final int lastSegmentsMerged;
+    private final long lastDurationMillis;
+    private final long totalDurationMillis;
+    private final long lastBytesReclaimed;
+    private final long totalBytesReclaimed;
+
+    private CompactionMetrics(int compactions, int failures, int lastSegmentsMerged, long lastDurationMillis,
+                              long totalDurationMillis, long lastBytesReclaimed, long totalBytesReclaimed) {
+        this.compactions = compactions;
+        this.failures = failures;
+        this.lastSegmentsMerged = lastSegmentsMerged;
+        this.lastDurationMillis = lastDurationMillis;
+        this.totalDurationMillis = totalDurationMillis;
+        this.lastBytesReclaimed = lastBytesReclaimed;
+        this.totalBytesReclaimed = totalBytesReclaimed;
+    }
+
+    CompactionMetrics completed(int segmentsMerged, long durationMillis, long bytesReclaimed) {
+        return new CompactionMetrics(compactions + 1, failures, segmentsMerged, durationMillis,
+                totalDurationMillis + durationMillis, bytesReclaimed, totalBytesReclaimed + bytesReclaimed);
+    }
+
+    CompactionMetrics failed() {
+        return new CompactionMetrics(compactions, failures + 1, lastSegmentsMerged, lastDurationMillis,
+                totalDurationMillis, lastBytesReclaimed, totalBytesReclaimed);
+    }
+
+    public int getCompactions() { return compactions; }
+    public int getFailures() { return failures; }
+    public int getLastSegmentsMerged() { return lastSegmentsMerged; }
+    public long getLastDurationMillis() { return lastDurationMillis; }
+    public long getTotalDurationMillis() { return totalDurationMillis; }
+    public long getLastBytesReclaimed() { return lastBytesReclaimed; }
+    public long getTotalBytesReclaimed() { return totalBytesReclaimed; }
+
+    @Override
+    public String toString() {
+        return compactions + " compaction(s), " + failures + " failed; last merged " + lastSegmentsMerged
+                + " segment(s) in " + lastDurationMillis + " ms and reclaimed " + lastBytesReclaimed
+                + " bytes; " + totalBytesReclaimed + " bytes reclaimed in total";
+    }
+}
@@ -0,0 +1,116 @@
+package com.fstgc.vms.util;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Optional streaming compression of persisted files, selected with
+ * {@code -Dvms.persistence.compression=none|deflate} and {@code -Dvms.persistence.compressionLevel=0-9},
+ * or -1 for the Deflater default.
+ * A compressed stream starts with {@code "VMSC"} and a codec byte, so readers detect it on
+ * their own and files written with any setting stay readable.
+ */
+final class Compression {
+    enum Codec {
+        NONE(0), DEFLATE(1);
+
+        final int id;
+
+        Codec(int id) {
+            this.id = id;
+        }
+
+        static Codec of(int id) throws IOException {
+            for (Codec codec : values()) {
+                if (codec.id == id) {
+                    return codec;
+                }
+            }
+            throw new IOException("Unknown compression codec " + id);
+        }
+    }
+
+    static final Compression NONE = new Compression(Codec.NONE, Deflater.DEFAULT_COMPRESSION);
+    private static final byte[] MAGIC = {'V', 'M', 'S', 'C'};
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Codec codec;
+    private final int level;
+
+    private Compression(Codec codec, int level) {
+        this.codec = codec;
+        this.level = level;
+    }
+
+    static Compression named(String name, int level) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Compression level must be -1 (the default) or between 0 and 9: " + level);
+        }
+        switch (name.toLowerCase()) {
+            case "none": return NONE;
+            case "deflate": return new Compression(Codec.DEFLATE, level);
+            default: throw new IllegalArgumentException("Unknown compression codec: " + name);
+        }
+    }
+
+    Codec codec() {
+        return codec;
+    }
+
+    /** A deflater at the configured level; the caller must {@link Deflater#end()} it. */
+    Deflater newDeflater() {
+        return new Deflater(level);
+    }
+
+    /**
+     * Wraps a file output stream. Without compression the bytes pass through untouched and no
+     * header is written, so uncompressed files look exactly as they did before.
+     */
+    OutputStream wrap(OutputStream out) throws IOException {
+        if (codec == Codec.NONE) {
+            return out;
+        }
+        out.write(MAGIC);
+        out.write(codec.id);
+        Deflater deflater = newDeflater();
+        return new DeflaterOutputStream(out, deflater, BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    deflater.end();
+                }
+            }
+        };
+    }
+
+    /** Unwraps a stream written by {@link #wrap}, whichever codec it used, or returns plain input as is. */
+    static InputStream unwrap(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        buffered.mark(MAGIC.length + 1);
+        byte[] header = buffered.readNBytes(MAGIC.length + 1);
+        if (header.length <= MAGIC.length || !Arrays.equals(Arrays.copyOf(header, MAGIC.length), MAGIC)) {
+            buffered.reset();
+            return buffered;
+        }
+        if (Codec.of(header[MAGIC.length]) == Codec.NONE) {
+            return buffered;
+        }
+        Inflater inflater = new Inflater();
+        return new InflaterInputStream(buffered, inflater, BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inflater.end();
+                }
+            }
+        };
+    }
+}
@@ -3,182 +3,839 @@ package com.fstgc.vms.util;
 import com.fstgc.vms.model.*;
 import com.google.gson.*;
 import java.io.*;
-import java.lang.reflect.Type;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
-import java.time.LocalDate;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 public class DataPersistence {
     private static final String DATA_DIR = "database";
-    private static final String DATA_FILE = DATA_DIR + File.separator + "vmsdatabase.txt";
-    private static VMSDatabase database = new VMSDatabase();
-    private static final Gson gson = new GsonBuilder()
+    // Single-file layout used before per-aggregate storage; migrated into shard files on first start
+    private static final String LEGACY_DATA_FILE = DATA_DIR + File.separator + "vmsdatabase.txt";
+    private static final String JOURNAL_FILE = DATA_DIR + File.separator + "vmsdatabase.log";
+    // Where backup() puts its archives, and how fast it may write them (0 for no limit)
+    private static final String BACKUP_DIR = System.getProperty("vms.backup.dir", "backups");
+    private static final long BACKUP_BYTES_PER_SECOND = Long.getLong("vms.backup.bytesPerSecond", 4L * 1024 * 1024);
+    // Journaled mode appends each mutation to JOURNAL_FILE and only rewrites shard files at checkpoints
+    private static final boolean JOURNAL_ENABLED = Boolean.parseBoolean(System.getProperty("vms.journal", "true"));
+    private static final boolean JOURNAL_FSYNC = Boolean.parseBoolean(System.getProperty("vms.journal.fsync", "true"));
+    private static final int CHECKPOINT_RECORDS = Integer.getInteger("vms.journal.checkpointRecords", 1000);
+    private static final long CHECKPOINT_BYTES = Long.getLong("vms.journal.checkpointBytes", 4L * 1024 * 1024);
+    // How long the writer thread keeps collecting changes before committing them together
+    private static final long FLUSH_WINDOW_MS = Long.getLong("vms.persistence.flushWindowMs", 25);
+    // Delta segments are folded back into the shard files once there are this many, or this many bytes of them
+    private static final int COMPACTION_SEGMENTS = Integer.getInteger("vms.compaction.maxSegments", 16);
+    private static final long COMPACTION_BYTES = Long.getLong("vms.compaction.maxSegmentBytes", 16L * 1024 * 1024);
+    // Encoding of newly written shard files: "json" (readable) or "binary" (compact, read in one pass on load)
+    private static final String FORMAT = System.getProperty("vms.persistence.format", "json");
+    // Files of the B+tree storage format that earlier versions offered; they are no longer read
+    private static final String BTREE_FILES = "*.vmst";
+    // Codec for newly written shard files and segments: "none" or "deflate"; existing files are read whatever they use
+    private static final Compression COMPRESSION = Compression.named(
+            System.getProperty("vms.persistence.compression", "none"),
+            Integer.getInteger("vms.persistence.compressionLevel", 6));
+    // The saved state of every entity, in the binary record encoding. The live objects belong to the
+    // repositories alone; these immutable bytes are all that is kept here, so a copy of a table taken
+    // under the class lock is a consistent point in time however long it takes to write out
+    private static final Map<Aggregate, NavigableMap<Integer, byte[]>> tables = new EnumMap<>(Aggregate.class);
+    // Ids inserted, updated or deleted since the last checkpoint, per aggregate; guarded by the class lock
+    private static final Map<Aggregate, Set<Integer>> changed = new EnumMap<>(Aggregate.class);
+    // Aggregates are read from disk on first access; each has its own lock so one slow load holds up no other
+    private static final Map<Aggregate, Object> loadLocks = new EnumMap<>(Aggregate.class);
+    private static final Set<Aggregate> loaded = ConcurrentHashMap.newKeySet();
+    // Saves and deletes held back by the unit of work running on each thread
+    private static final ThreadLocal<Transaction> transaction = new ThreadLocal<>();
+    private static WriteAheadLog journal;
+    private static PersistenceWriter writer;
+    private static volatile LoadReport lastLoadReport;
+    private static final Gson gson = baseGsonBuilder()
             .setPrettyPrinting()
-            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
-            .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
-            .registerTypeAdapter(LocalTime.class, new LocalTimeAdapter())
             .create();
-    
-    // Custom adapter for LocalDateTime
-    static class LocalDateTimeAdapter implements JsonSerializer<LocalDateTime>, JsonDeserializer<LocalDateTime> {
-        private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
-        
-        @Override
-        public JsonElement serialize(LocalDateTime dateTime, Type type, JsonSerializationContext context) {
-            return new JsonPrimitive(dateTime.format(formatter));
-        }
-        
-        @Override
-        public LocalDateTime deserialize(JsonElement json, Type type, JsonDeserializationContext context) {
-            return LocalDateTime.parse(json.getAsString(), formatter);
-        }
-    }
-    
-    // Custom adapter for LocalDate
-    static class LocalDateAdapter implements JsonSerializer<LocalDate>, JsonDeserializer<LocalDate> {
-        private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE;
-        
-        @Override
-        public JsonElement serialize(LocalDate date, Type type, JsonSerializationContext context) {
-            return new JsonPrimitive(date.format(formatter));
-        }
-        
-        @Override
-        public LocalDate deserialize(JsonElement json, Type type, JsonDeserializationContext context) {
-            return LocalDate.parse(json.getAsString(), formatter);
-        }
-    }
-    
-    // Custom adapter for LocalTime
-    static class LocalTimeAdapter implements JsonSerializer<LocalTime>, JsonDeserializer<LocalTime> {
-        private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_TIME;
-        
-        @Override
-        public JsonElement serialize(LocalTime time, Type type, JsonSerializationContext context) {
-            return new JsonPrimitive(time.format(formatter));
-        }
-        
-        @Override
-        public LocalTime deserialize(JsonElement json, Type type, JsonDeserializationContext context) {
-            return LocalTime.parse(json.getAsString(), formatter);
-        }
-    }
-
-    // Container class to hold all data
-    static class VMSDatabase {
-        Map<Integer, Volunteer> volunteers = new HashMap<>();
-        Map<Integer, Event> events = new HashMap<>();
-        Map<Integer, Attendance> attendance = new HashMap<>();
-        Map<Integer, Announcement> announcements = new HashMap<>();
-        Map<Integer, Timesheet> timesheets = new HashMap<>();
-        Map<Integer, SystemAdmin> admins = new HashMap<>();
-        Map<Integer, Award> awards = new HashMap<>();
-    }
-
-    public static void initialize() {
+    // Journal records are single lines, so they are written without pretty printing
+    private static final Gson compactGson = baseGsonBuilder().create();
+    private static final ShardStore shards = new ShardStore(new File(DATA_DIR).toPath(),
+            SnapshotFormat.named(FORMAT, gson, COMPRESSION), new JsonSnapshotFormat(gson), new BinarySnapshotFormat());
+    private static final HotBackup backups = new HotBackup(new File(DATA_DIR).toPath(), BACKUP_BYTES_PER_SECOND);
+    // Held while shard files are replaced or deleted outside the writer thread, and while a backup pins them
+    private static final Object filesLock = new Object();
+    private static final SnapshotCompactor compactor = new SnapshotCompactor(shards, DataPersistence::writeSnapshot,
+            COMPACTION_SEGMENTS, COMPACTION_BYTES);
+
+    static {
+        for (Aggregate aggregate : Aggregate.values()) {
+            tables.put(aggregate, new ConcurrentSkipListMap<>());
+            changed.put(aggregate, new TreeSet<>());
+            loadLocks.put(aggregate, new Object());
+        }
+    }
+
+    /** The pretty-printing Gson used for JSON shard and legacy files. */
+    static Gson gson() {
+        return gson;
+    }
+
+    /** The codec configured for newly written files. */
+    static Compression compression() {
+        return COMPRESSION;
+    }
+
+    private static GsonBuilder baseGsonBuilder() {
+        return ModelTypeAdapters.register(new GsonBuilder());
+    }
+
+    /**
+     * Opens the database directory and replays the journal.
+     * @throws IllegalStateException if the journal holds records this version cannot read
+     */
+    public static synchronized void initialize() {
         // Create database directory if it doesn't exist
         File dir = new File(DATA_DIR);
         if (!dir.exists()) {
             dir.mkdirs();
             System.out.println("Created database directory: " + DATA_DIR);
         }
-        loadDatabase();
+        if (writer != null) {
+            return;
+        }
+        refuseTreeFiles(dir.toPath());
+        backups.deleteStaleStaging();
+        boolean migrated = loadDatabase();
+        boolean upgraded = migrated || hasOlderSchema();
+        if (JOURNAL_ENABLED) {
+            openJournal();
+        }
+        writer = new PersistenceWriter(FLUSH_WINDOW_MS, DataPersistence::flushBatch);
+        if (upgraded) {
+            deriveOmittedFields();
+        }
+        if (migrated) {
+            migrateLegacyFile();
+        } else if (upgraded) {
+            rewriteOlderSchema();
+        }
+        // Drain queued writes and fold the journal into the shard files on exit
+        Runtime.getRuntime().addShutdownHook(new Thread(DataPersistence::shutdown, "vms-persistence-shutdown"));
+    }
+
+    /** Starting without the data in B+tree files would look like an empty database, and new saves would reuse their ids. */
+    private static void refuseTreeFiles(Path dir) {
+        try (DirectoryStream<Path> trees = Files.newDirectoryStream(dir, BTREE_FILES)) {
+            if (trees.iterator().hasNext()) {
+                throw new IllegalStateException(DATA_DIR + " holds B+tree files (" + BTREE_FILES + "), which this version no longer reads;"
+                        + " start the previous version once without -Dvms.persistence.format=btree to convert them to shard files");
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading database directory " + DATA_DIR + ": " + e.getMessage());
+        }
     }
 
-    private static void loadDatabase() {
-        File file = new File(DATA_FILE);
-        if (!file.exists()) {
-            database = new VMSDatabase();
+    private static void openJournal() {
+        WriteAheadLog log = new WriteAheadLog(new File(JOURNAL_FILE).toPath(), JOURNAL_FSYNC);
+        try {
+            int replayed = log.replay(DataPersistence::apply);
+            if (replayed > 0) {
+                System.out.println("Replayed " + replayed + " journal records from " + JOURNAL_FILE);
+            }
+            journal = log;
+        } catch (IOException e) {
+            try {
+                log.close();
+            } catch (IOException ignored) {
+                // nothing else to release
+            }
+            // Saving without the records it holds would write over them, so do not open the store at all
+            throw new IllegalStateException("Cannot replay journal " + JOURNAL_FILE + ", leaving it untouched: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Loads the legacy single file if no shard files exist yet. Shard files are not read here;
+     * each aggregate is loaded by {@link #ensureLoaded} the first time it is used.
+     * @return true if the data came from the legacy file and still has to be split into shards
+     */
+    private static boolean loadDatabase() {
+        File file = new File(LEGACY_DATA_FILE);
+        try {
+            if (shards.exists() || !file.exists()) {
+                return false;
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading database directory " + DATA_DIR + ": " + e.getMessage());
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            StreamingJsonLoader.readLegacy(file.toPath(), gson, (aggregate, id, entity) -> tables.get(aggregate).put(id, snapshot(aggregate, entity)));
+            loaded.addAll(EnumSet.allOf(Aggregate.class));
+            lastLoadReport = LoadReport.of(LEGACY_DATA_FILE, tables, System.nanoTime() - start);
+            System.out.println("Database loaded successfully: " + lastLoadReport);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error loading database from " + LEGACY_DATA_FILE + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Reads one aggregate's shard files and delta segments into its table unless that already
+     * happened. Called before any access to the table; concurrent callers wait for the first.
+     * @throws IllegalStateException if the files cannot be read; the next access tries again
+     */
+    private static void ensureLoaded(Aggregate aggregate) {
+        if (loaded.contains(aggregate)) {
             return;
         }
+        synchronized (loadLocks.get(aggregate)) {
+            if (loaded.contains(aggregate)) {
+                return;
+            }
+            NavigableMap<Integer, byte[]> table = tables.get(aggregate);
+            long start = System.nanoTime();
+            try {
+                shards.load(aggregate, (id, entity) -> table.put(id, snapshot(aggregate, entity)));
+                shards.loadSegments(aggregate, (id, entity) -> {
+                    if (entity == null) {
+                        table.remove(id);
+                    } else {
+                        table.put(id, snapshot(aggregate, entity));
+                    }
+                });
+                lastLoadReport = LoadReport.of(DATA_DIR, Map.of(aggregate, table), System.nanoTime() - start);
+                System.out.println("Database loaded successfully: " + lastLoadReport);
+            } catch (IOException | RuntimeException e) {
+                // Serving what was read would hand out the ids of the entities that were not, and a
+                // later checkpoint would write over them, so nothing of this aggregate is served or saved
+                table.clear();
+                System.err.println("Error loading " + aggregate.key() + " from " + DATA_DIR + ": " + e.getMessage());
+                throw new IllegalStateException("Could not load " + aggregate.key() + " from " + DATA_DIR + ": " + e.getMessage(), e);
+            }
+            loaded.add(aggregate);
+        }
+    }
+
+    /** Loads every aggregate, before all of them are written out together. */
+    private static void loadAll() throws IOException {
+        for (Aggregate aggregate : Aggregate.values()) {
+            try {
+                ensureLoaded(aggregate);
+            } catch (IllegalStateException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+    }
 
+    /**
+     * Loads the given aggregates on a background thread, so that their first use does not wait
+     * for the disk. Aggregates already loaded are skipped.
+     */
+    public static void preload(Aggregate... aggregates) {
+        Thread thread = new Thread(() -> {
+            for (Aggregate aggregate : aggregates) {
+                try {
+                    ensureLoaded(aggregate);
+                } catch (IllegalStateException e) {
+                    // Already reported; the first real use tries again and fails visibly
+                }
+            }
+        }, "vms-preloader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Entity counts and timing of the most recent load, or null if nothing has been loaded yet. */
+    public static LoadReport getLastLoadReport() {
+        return lastLoadReport;
+    }
+
+    private static void migrateLegacyFile() {
         try {
-            String json = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
-            database = gson.fromJson(json, VMSDatabase.class);
-            if (database == null) {
-                database = new VMSDatabase();
+            writeSnapshot();
+            Path legacy = new File(LEGACY_DATA_FILE).toPath();
+            Files.move(legacy, legacy.resolveSibling(legacy.getFileName() + ".migrated"), StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Migrated " + LEGACY_DATA_FILE + " to per-aggregate files in " + DATA_DIR);
+        } catch (IOException e) {
+            System.err.println("Error migrating " + LEGACY_DATA_FILE + ", will retry on next start: " + e.getMessage());
+        }
+    }
+
+    private static boolean hasOlderSchema() {
+        try {
+            return shards.oldestSchemaVersion() < SchemaMigrations.CURRENT;
+        } catch (IOException e) {
+            System.err.println("Error reading schema versions in " + DATA_DIR + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Fills in what records of an older schema left out and only other aggregates can tell, once
+     * they are all loaded; see {@link SchemaMigrations#linkAttendance} and {@link SchemaMigrations#assignTiers}.
+     * The entities changed are saved like any other.
+     */
+    private static void deriveOmittedFields() {
+        try {
+            Map<Integer, Attendance> attendance = loadAttendance();
+            List<Timesheet> timesheets = SchemaMigrations.linkAttendance(loadTimesheets(), attendance);
+            List<Volunteer> volunteers = SchemaMigrations.assignTiers(loadVolunteers(), attendance);
+            timesheets.forEach(DataPersistence::saveTimesheet);
+            volunteers.forEach(DataPersistence::saveVolunteer);
+            System.out.println("Upgraded schema: linked " + timesheets.size() + " timesheet(s) to their attendance, set the tier of "
+                    + volunteers.size() + " volunteer(s)");
+        } catch (IllegalStateException e) {
+            System.err.println("Error upgrading schema, will retry on next start: " + e.getMessage());
+        }
+    }
+
+    /** Rewrites the shard files in the current schema, so the upgrade is done only once. */
+    private static void rewriteOlderSchema() {
+        try {
+            writeSnapshot();
+        } catch (IOException e) {
+            System.err.println("Error rewriting " + DATA_DIR + " in the current schema, will retry on next start: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Group commit for one burst of mutations; runs on the writer thread only.
+     * With the journal the burst becomes one append and one fsync, otherwise the changes go straight to a delta segment.
+     */
+    private static void flushBatch(List<Mutation> batch, boolean checkpointRequested) throws IOException {
+        boolean checkpointNeeded = checkpointRequested || journal == null;
+        if (journal != null && !batch.isEmpty()) {
+            try {
+                journal.append(batch);
+            } catch (IOException e) {
+                // The shard files still capture the change; checkpoint so nothing depends on the broken journal
+                System.err.println("Error appending to journal " + JOURNAL_FILE + ": " + e.getMessage());
+                checkpointNeeded = true;
+            }
+            checkpointNeeded |= journal.records() >= CHECKPOINT_RECORDS || journal.size() >= CHECKPOINT_BYTES;
+        }
+        if (checkpointNeeded) {
+            writeCheckpoint();
+        }
+    }
+
+    /**
+     * Writes the entities changed since the last checkpoint as one delta segment, then empties the
+     * journal. Only the changed ids are copied, under the lock, and serialized outside it.
+     */
+    private static void writeCheckpoint() throws IOException {
+        Map<Aggregate, SortedMap<Integer, Object>> delta;
+        long segment;
+        synchronized (DataPersistence.class) {
+            delta = takeChanges();
+            if (delta.isEmpty()) {
+                return;
             }
-            System.out.println("Database loaded successfully from " + DATA_FILE);
+            segment = shards.nextSegment();
+        }
+        try {
+            commitSegment(shards, segment, delta, journal);
         } catch (IOException e) {
-            System.err.println("Error loading database from " + DATA_FILE + ": " + e.getMessage());
-            database = new VMSDatabase();
+            // Keep the journal; it is still the only durable copy of these changes
+            System.err.println("Error saving delta segment to " + DATA_DIR + ": " + e.getMessage());
+            restoreChanges(delta);
+            throw e;
         }
+        compactor.maybeCompact();
     }
 
-    private static void saveDatabase() {
+    /**
+     * Writes the delta segment and only then empties the journal, whose records the segment now holds.
+     * {@link ShardStore#writeSegment} returns once the segment and its directory entry are on disk;
+     * a crash before that still finds the records in the journal.
+     * @throws IOException if the segment could not be written; the journal is left as it was
+     */
+    static void commitSegment(ShardStore store, long segment, Map<Aggregate, SortedMap<Integer, Object>> delta, WriteAheadLog log)
+            throws IOException {
+        store.writeSegment(segment, delta);
+        System.out.println("Database saved successfully: " + countOf(delta) + " change(s) in delta segment " + segment + " in " + DATA_DIR);
+        truncate(log);
+    }
+
+    /**
+     * Rewrites every shard file from a point-in-time copy of the tables and deletes the delta
+     * segments numbered before the copy was taken. The lock is held only while the table
+     * references are copied; the snapshots they refer to never change. Later segments and the journal are left alone: they hold changes
+     * at least as new as the copy, and are applied on top of it at startup.
+     * @return number of segments deleted
+     */
+    private static int writeSnapshot() throws IOException {
+        synchronized (filesLock) {
+            return writeSnapshotFiles();
+        }
+    }
+
+    private static int writeSnapshotFiles() throws IOException {
+        loadAll();
+        Map<Aggregate, NavigableMap<Integer, byte[]>> copy = new EnumMap<>(Aggregate.class);
+        long covered;
+        synchronized (DataPersistence.class) {
+            covered = shards.lastSegment();
+            for (Aggregate aggregate : Aggregate.values()) {
+                copy.put(aggregate, new TreeMap<>(tables.get(aggregate)));
+            }
+        }
+        int written = 0;
+        for (Aggregate aggregate : Aggregate.values()) {
+            NavigableMap<Integer, byte[]> table = copy.get(aggregate);
+            Set<Integer> partitions = new TreeSet<>(shards.partitions(aggregate));
+            partitions.add(0);
+            for (int id : table.keySet()) {
+                partitions.add(aggregate.partitionOf(id));
+            }
+            for (int partition : partitions) {
+                SortedMap<Integer, Object> entities = new TreeMap<>();
+                partitionOf(aggregate, table, partition).forEach((id, bytes) -> entities.put(id, restore(aggregate, bytes)));
+                shards.write(aggregate, partition, entities);
+                written++;
+            }
+        }
+        System.out.println("Database saved successfully to " + written + " file(s) in " + DATA_DIR);
+        return shards.deleteSegments(covered);
+    }
+
+    /** Moves the changed ids out of {@link #changed}, pairing each with its entity or null if it was deleted. */
+    private static Map<Aggregate, SortedMap<Integer, Object>> takeChanges() {
+        Map<Aggregate, SortedMap<Integer, Object>> delta = new EnumMap<>(Aggregate.class);
+        for (Aggregate aggregate : Aggregate.values()) {
+            Set<Integer> ids = changed.get(aggregate);
+            if (ids.isEmpty()) {
+                continue;
+            }
+            SortedMap<Integer, Object> entities = new TreeMap<>();
+            for (int id : ids) {
+                byte[] saved = tables.get(aggregate).get(id);
+                entities.put(id, saved == null ? null : restore(aggregate, saved));
+            }
+            delta.put(aggregate, entities);
+            ids.clear();
+        }
+        return delta;
+    }
+
+    private static synchronized void restoreChanges(Map<Aggregate, SortedMap<Integer, Object>> delta) {
+        delta.forEach((aggregate, entities) -> changed.get(aggregate).addAll(entities.keySet()));
+    }
+
+    private static int countOf(Map<Aggregate, SortedMap<Integer, Object>> delta) {
+        return delta.values().stream().mapToInt(Map::size).sum();
+    }
+
+    private static void truncate(WriteAheadLog log) {
+        if (log != null) {
+            try {
+                log.truncate();
+            } catch (IOException e) {
+                // Replaying the old records over the new files is harmless, so keep going
+                System.err.println("Error truncating journal " + JOURNAL_FILE + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static <V> SortedMap<Integer, V> partitionOf(Aggregate aggregate, NavigableMap<Integer, V> table, int partition) {
+        if (!aggregate.isPartitioned()) {
+            return table;
+        }
+        int first = partition * Aggregate.PARTITION_SIZE;
+        return table.subMap(first, true, first + Aggregate.PARTITION_SIZE, false);
+    }
+
+    /**
+     * Saves every change since the last checkpoint as a delta segment and empties the journal.
+     * Happens automatically once the journal passes its size thresholds and on shutdown.
+     */
+    public static CompletableFuture<Void> checkpoint() {
+        return writer != null ? writer.checkpoint() : CompletableFuture.completedFuture(null);
+    }
+
+    /** Folds all delta segments into the shard files on the background compaction thread. */
+    public static CompletableFuture<Void> compact() {
+        return compactor.compact();
+    }
+
+    /** Where backups go unless told otherwise: {@code backups/}, or {@code -Dvms.backup.dir}. */
+    public static Path backupDirectory() {
+        return new File(BACKUP_DIR).toPath();
+    }
+
+    /**
+     * Backs up the database to a zip archive named {@code vms-backup-<timestamp>.zip} in
+     * {@code directory} while saves carry on. The archive holds every change written before one
+     * instant shortly after the call, when the files are pinned in one short step on the writer thread; the archive is then written on a
+     * background thread at up to {@code -Dvms.backup.bytesPerSecond} (4 MB/s by default).
+     * Unpacking the archive into an empty {@code database} directory restores it.
+     * @return completes with the archive once it is written
+     */
+    public static CompletableFuture<Path> backup(Path directory) {
+        Path archive = directory.resolve(HotBackup.archiveName(LocalDateTime.now()));
+        return backups.backup(archive, staging -> {
+            // Keep the compactor from replacing files, and pin them between two batches of writes
+            synchronized (filesLock) {
+                PersistenceWriter.Task pin = () -> pinFiles(staging);
+                if (writer != null) {
+                    try {
+                        writer.run(pin).join();
+                    } catch (CompletionException e) {
+                        if (e.getCause() instanceof IOException) {
+                            throw (IOException) e.getCause();
+                        }
+                        throw e;
+                    }
+                } else {
+                    pin.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Writes an entity-level backup to {@code directory}: a full one if {@code base} is null,
+     * otherwise a differential one holding only what changed since the backup {@code base}.
+     * See {@link DifferentialBackup} for the archive and how a chain of them is restored.
+     * @return the archive written
+     */
+    public static Path exportBackup(Path directory, Path base) throws IOException {
+        loadAll();
+        // The tables already hold the encoded entities; the fingerprints and the archive both come from them
+        Map<Aggregate, NavigableMap<Integer, byte[]>> encoded = new EnumMap<>(Aggregate.class);
+        synchronized (DataPersistence.class) {
+            for (Aggregate aggregate : Aggregate.values()) {
+                encoded.put(aggregate, new TreeMap<>(tables.get(aggregate)));
+            }
+        }
+        return DifferentialBackup.write(directory, base, encoded);
+    }
+
+    private static void pinFiles(Path staging) throws IOException {
+        List<Path> files = new ArrayList<>(shards.files());
+        Path legacy = new File(LEGACY_DATA_FILE).toPath();
+        if (Files.exists(legacy)) {
+            files.add(legacy);
+        }
+        for (Path file : files) {
+            HotBackup.link(file, staging);
+        }
+        if (journal != null && journal.size() > 0) {
+            HotBackup.copy(new File(JOURNAL_FILE).toPath(), staging, journal.size());
+        }
+    }
+
+    /** Durations and bytes reclaimed of the compactions run so far. */
+    public static CompactionMetrics getCompactionMetrics() {
+        return compactor.metrics();
+    }
+
+    /** Completes once every change made before this call has been written to disk. */
+    public static CompletableFuture<Void> flush() {
+        return writer != null ? writer.flush() : CompletableFuture.completedFuture(null);
+    }
+
+    private static void shutdown() {
+        if (writer == null) {
+            return;
+        }
+        writer.close();
+        compactor.close();
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("Error closing journal " + JOURNAL_FILE + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static void apply(Mutation mutation) {
+        ensureLoaded(mutation.aggregate);
+        Map<Integer, byte[]> table = tables.get(mutation.aggregate);
+        if (mutation.op == Mutation.Op.DELETE) {
+            table.remove(mutation.id);
+        } else {
+            table.put(mutation.id, snapshot(mutation.aggregate, gson.fromJson(mutation.entity, mutation.aggregate.entityType())));
+        }
+        changed.get(mutation.aggregate).add(mutation.id);
+    }
+
+    private static CompletableFuture<Void> record(Aggregate aggregate, int id, Object entity) {
+        ensureLoaded(aggregate);
+        Transaction current = transaction.get();
+        if (current != null) {
+            return current.write(aggregate, id, entity);
+        }
+        synchronized (DataPersistence.class) {
+            tables.get(aggregate).put(id, snapshot(aggregate, entity));
+            return write(Mutation.put(aggregate, id, journalRecord(entity)));
+        }
+    }
+
+    private static CompletableFuture<Void> remove(Aggregate aggregate, int id) {
+        ensureLoaded(aggregate);
+        Transaction current = transaction.get();
+        if (current != null) {
+            return current.write(aggregate, id, null);
+        }
+        synchronized (DataPersistence.class) {
+            tables.get(aggregate).remove(id);
+            return write(Mutation.delete(aggregate, id));
+        }
+    }
+
+    private static CompletableFuture<Void> write(Mutation mutation) {
+        return write(List.of(mutation));
+    }
+
+    private static CompletableFuture<Void> write(List<Mutation> mutations) {
+        for (Mutation mutation : mutations) {
+            changed.get(mutation.aggregate).add(mutation.id);
+        }
+        if (writer == null) {
+            // Not initialized yet; write through on the caller's thread
+            try {
+                flushBatch(mutations, false);
+                return CompletableFuture.completedFuture(null);
+            } catch (IOException e) {
+                System.err.println("Error saving database to " + DATA_DIR + ": " + e.getMessage());
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return writer.submit(mutations);
+    }
+
+    /**
+     * Starts holding back this thread's saves and deletes until {@link #commitTransaction()} or
+     * {@link #rollbackTransaction()}. Used by {@code com.fstgc.vms.service.UnitOfWork}.
+     */
+    public static void beginTransaction() {
+        if (transaction.get() != null) {
+            throw new IllegalStateException("A transaction is already open on this thread");
+        }
+        transaction.set(new Transaction());
+    }
+
+    public static boolean inTransaction() {
+        return transaction.get() != null;
+    }
+
+    /**
+     * Applies the held-back changes and hands them to the writer as one unit: they are journaled
+     * with a single append, and replayed after a crash either all together or not at all. An entity
+     * saved several times in the transaction is written once, as it is at commit.
+     * @return completes once the unit is on disk
+     */
+    public static CompletableFuture<Void> commitTransaction() {
+        Transaction current = transaction.get();
+        if (current == null) {
+            throw new IllegalStateException("No transaction is open on this thread");
+        }
+        // Serialize before touching the tables, so a failure here leaves the transaction to roll back
+        List<Mutation> mutations = new ArrayList<>();
+        List<byte[]> snapshots = new ArrayList<>();
+        for (Map.Entry<Aggregate, Map<Integer, Object>> writes : current.writes.entrySet()) {
+            for (Map.Entry<Integer, Object> write : writes.getValue().entrySet()) {
+                if (write.getValue() == null) {
+                    mutations.add(Mutation.delete(writes.getKey(), write.getKey()));
+                    snapshots.add(null);
+                } else {
+                    mutations.add(Mutation.put(writes.getKey(), write.getKey(), journalRecord(write.getValue())));
+                    snapshots.add(snapshot(writes.getKey(), write.getValue()));
+                }
+            }
+        }
+        for (int i = 0; i < mutations.size() - 1; i++) {
+            mutations.set(i, mutations.get(i).withMore());
+        }
+        transaction.remove();
+        CompletableFuture<Void> written;
+        synchronized (DataPersistence.class) {
+            for (int i = 0; i < mutations.size(); i++) {
+                Mutation mutation = mutations.get(i);
+                if (snapshots.get(i) == null) {
+                    tables.get(mutation.aggregate).remove(mutation.id);
+                } else {
+                    tables.get(mutation.aggregate).put(mutation.id, snapshots.get(i));
+                }
+            }
+            written = write(mutations);
+        }
+        written.whenComplete((ignored, error) -> {
+            if (error != null) {
+                current.done.completeExceptionally(error);
+            } else {
+                current.done.complete(null);
+            }
+        });
+        for (Runnable action : current.committed) {
+            action.run();
+        }
+        return current.done;
+    }
+
+    /** Drops the held-back changes and runs the {@link #onRollback} actions, latest first. */
+    public static void rollbackTransaction() {
+        Transaction current = transaction.get();
+        if (current == null) {
+            throw new IllegalStateException("No transaction is open on this thread");
+        }
+        transaction.remove();
+        current.done.cancel(false);
+        for (int i = current.undo.size() - 1; i >= 0; i--) {
+            current.undo.get(i).run();
+        }
+    }
+
+    /**
+     * Registers an action restoring in-memory state if this thread's transaction rolls back;
+     * does nothing outside a transaction.
+     */
+    public static void onRollback(Runnable undo) {
+        Transaction current = transaction.get();
+        if (current != null) {
+            current.undo.add(undo);
+        }
+    }
+
+    /**
+     * Runs {@code action} once this thread's transaction has committed, or right away outside a
+     * transaction; dropped if the transaction rolls back.
+     */
+    public static void onCommit(Runnable action) {
+        Transaction current = transaction.get();
+        if (current != null) {
+            current.committed.add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class Transaction {
+        // Latest entity per id, null for a delete, in the order first written
+        final Map<Aggregate, Map<Integer, Object>> writes = new EnumMap<>(Aggregate.class);
+        final List<Runnable> undo = new ArrayList<>();
+        final List<Runnable> committed = new ArrayList<>();
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        CompletableFuture<Void> write(Aggregate aggregate, int id, Object entity) {
+            writes.computeIfAbsent(aggregate, a -> new LinkedHashMap<>()).put(id, entity);
+            return done;
+        }
+    }
+
+    /** The entity as it is now, in the binary record encoding. */
+    private static byte[] snapshot(Aggregate aggregate, Object entity) {
         try {
-            String json = gson.toJson(database);
-            Files.write(new File(DATA_FILE).toPath(), json.getBytes(StandardCharsets.UTF_8));
-            System.out.println("Database saved successfully to " + DATA_FILE);
+            return BinarySnapshotFormat.encode(aggregate, entity);
         } catch (IOException e) {
-            System.err.println("Error saving database to " + DATA_FILE + ": " + e.getMessage());
+            // Encoding into memory does no I/O
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** A new object decoded from a snapshot, which nothing else refers to. */
+    private static Object restore(Aggregate aggregate, byte[] snapshot) {
+        return BinarySnapshotFormat.decode(aggregate, ByteBuffer.wrap(snapshot));
+    }
+
+    /** The journal's JSON for a saved entity; without a journal nothing reads it. */
+    private static JsonElement journalRecord(Object entity) {
+        return journal != null ? compactGson.toJsonTree(entity) : null;
+    }
+
+    /** The aggregate's entities decoded afresh, which the caller may change as it likes. */
+    @SuppressWarnings("unchecked")
+    private static <T> Map<Integer, T> load(Aggregate aggregate) {
+        ensureLoaded(aggregate);
+        Map<Integer, byte[]> saved;
+        synchronized (DataPersistence.class) {
+            saved = new HashMap<>(tables.get(aggregate));
         }
+        // The snapshots never change, so they can be decoded outside the lock
+        Map<Integer, T> entities = new HashMap<>(saved.size() * 2);
+        saved.forEach((id, snapshot) -> entities.put(id, (T) restore(aggregate, snapshot)));
+        return entities;
+    }
+
+    public static CompletableFuture<Void> saveVolunteer(Volunteer volunteer) {
+        return record(Aggregate.VOLUNTEERS, volunteer.getId(), volunteer);
     }
 
-    public static void saveVolunteers(Map<Integer, Volunteer> volunteers) {
-        database.volunteers = new HashMap<>(volunteers);
-        saveDatabase();
+    public static CompletableFuture<Void> deleteVolunteer(int id) {
+        return remove(Aggregate.VOLUNTEERS, id);
     }
 
     public static Map<Integer, Volunteer> loadVolunteers() {
-        return new HashMap<>(database.volunteers);
+        return load(Aggregate.VOLUNTEERS);
+    }
+
+    public static CompletableFuture<Void> saveEvent(Event event) {
+        return record(Aggregate.EVENTS, event.getEventId(), event);
     }
 
-    public static void saveEvents(Map<Integer, Event> events) {
-        database.events = new HashMap<>(events);
-        saveDatabase();
+    public static CompletableFuture<Void> deleteEvent(int id) {
+        return remove(Aggregate.EVENTS, id);
     }
 
     public static Map<Integer, Event> loadEvents() {
-        return new HashMap<>(database.events);
+        return load(Aggregate.EVENTS);
     }
 
-    public static void saveAttendance(Map<Integer, Attendance> attendance) {
-        database.attendance = new HashMap<>(attendance);
-        saveDatabase();
+    public static CompletableFuture<Void> saveAttendance(Attendance attendance) {
+        return record(Aggregate.ATTENDANCE, attendance.getAttendanceId(), attendance);
+    }
+
+    public static CompletableFuture<Void> deleteAttendance(int id) {
+        return remove(Aggregate.ATTENDANCE, id);
     }
 
     public static Map<Integer, Attendance> loadAttendance() {
-        return new HashMap<>(database.attendance);
+        return load(Aggregate.ATTENDANCE);
+    }
+
+    public static CompletableFuture<Void> saveAnnouncement(Announcement announcement) {
+        return record(Aggregate.ANNOUNCEMENTS, announcement.getAnnouncementId(), announcement);
     }
 
-    public static void saveAnnouncements(Map<Integer, Announcement> announcements) {
-        database.announcements = new HashMap<>(announcements);
-        saveDatabase();
+    public static CompletableFuture<Void> deleteAnnouncement(int id) {
+        return remove(Aggregate.ANNOUNCEMENTS, id);
     }
 
     public static Map<Integer, Announcement> loadAnnouncements() {
-        return new HashMap<>(database.announcements);
+        return load(Aggregate.ANNOUNCEMENTS);
+    }
+
+    public static CompletableFuture<Void> saveTimesheet(Timesheet timesheet) {
+        return record(Aggregate.TIMESHEETS, timesheet.getTimesheetId(), timesheet);
     }
 
-    public static void saveTimesheets(Map<Integer, Timesheet> timesheets) {
-        database.timesheets = new HashMap<>(timesheets);
-        saveDatabase();
+    public static CompletableFuture<Void> deleteTimesheet(int id) {
+        return remove(Aggregate.TIMESHEETS, id);
     }
 
     public static Map<Integer, Timesheet> loadTimesheets() {
-        return new HashMap<>(database.timesheets);
+        return load(Aggregate.TIMESHEETS);
     }
 
-    public static void saveAdmins(Map<Integer, SystemAdmin> admins) {
-        database.admins = new HashMap<>(admins);
-        saveDatabase();
+    public static CompletableFuture<Void> saveAdmin(SystemAdmin admin) {
+        return record(Aggregate.ADMINS, admin.getId(), admin);
     }
 
     public static Map<Integer, SystemAdmin> loadAdmins() {
-        return new HashMap<>(database.admins);
+        return load(Aggregate.ADMINS);
     }
 
-    public static void saveAwards(Map<Integer, Award> awards) {
-        database.awards = new HashMap<>(awards);
-        saveDatabase();
+    public static CompletableFuture<Void> saveAward(Award award) {
+        return record(Aggregate.AWARDS, award.getAwardId(), award);
     }
 
     public static Map<Integer, Award> loadAwards() {
-        return new HashMap<>(database.awards);
+        return load(Aggregate.AWARDS);
     }
 }
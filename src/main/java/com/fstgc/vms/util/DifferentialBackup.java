@@ -0,0 +1,344 @@
+package com.fstgc.vms.util;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Entity-level backups that can be chained: a full backup holds every entity, and a differential
+ * one only the entities added, changed or deleted since the backup it is based on.
+ * <p>
+ * The modification version of an entity is a 64-bit fingerprint of its binary encoding. Each
+ * backup stores the fingerprints of the whole database as it was backed up, so the next
+ * differential compares against them to find the changed entities. Because the fingerprint is
+ * computed from the entity itself, it survives restarts, compaction and storage format changes,
+ * and no file format needs a version column.
+ * <p>
+ * An archive is a zip of
+ * <pre>
+ * manifest.json     {"id", "type": "full"|"differential", "base", "baseHash", "created",
+ *                    "schemaVersion", "changed", "deleted", "total", "contentHash"}
+ * entities.vmsb     the changed entities in the {@link BinarySnapshotFormat}, deletions as delete records
+ * fingerprints.bin  (u8 aggregate, i32 count, (i32 id, i64 fingerprint)*)* of the whole database
+ * </pre>
+ * {@code contentHash} is the SHA-256 of every (aggregate, id, fingerprint) in order; after a
+ * restore the same hash is computed from the restored entities and must match.
+ *
+ * <pre>
+ * java com.fstgc.vms.util.DifferentialBackup full backups
+ * java com.fstgc.vms.util.DifferentialBackup diff backups backups/vms-full-20250101-120000.zip
+ * java com.fstgc.vms.util.DifferentialBackup verify backups/vms-full-....zip backups/vms-diff-....zip ...
+ * java com.fstgc.vms.util.DifferentialBackup restore restored backups/vms-full-....zip backups/vms-diff-....zip ...
+ * </pre>
+ * {@code full} and {@code diff} read the {@code database} directory and must run while the
+ * application is closed; a running application uses {@link DataPersistence#exportBackup}.
+ * {@code restore} writes a {@code vmsdatabase.txt} that the application splits into its files
+ * on the next start.
+ */
+public final class DifferentialBackup {
+    private static final String MANIFEST = "manifest.json";
+    private static final String ENTITIES = "entities.vmsb";
+    private static final String FINGERPRINTS = "fingerprints.bin";
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    /** A backup read back from its archive. */
+    static final class Archive {
+        final Path file;
+        final JsonObject manifest;
+        final Map<Aggregate, Map<Integer, Long>> fingerprints;
+
+        Archive(Path file, JsonObject manifest, Map<Aggregate, Map<Integer, Long>> fingerprints) {
+            this.file = file;
+            this.manifest = manifest;
+            this.fingerprints = fingerprints;
+        }
+
+        String id() { return manifest.get("id").getAsString(); }
+        String contentHash() { return manifest.get("contentHash").getAsString(); }
+        boolean isFull() { return manifest.get("type").getAsString().equals("full"); }
+    }
+
+    private DifferentialBackup() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || !Set.of("full", "diff", "verify", "restore").contains(args[0])
+                || (args[0].equals("diff") && args.length != 3) || (args[0].equals("restore") && args.length < 3)) {
+            System.err.println("Usage: DifferentialBackup full <dir> | diff <dir> <base> | verify <backup>... | restore <output-dir> <backup>...");
+            System.exit(2);
+        }
+        try {
+            run(args);
+        } catch (IOException | IllegalStateException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void run(String[] args) throws IOException {
+        switch (args[0]) {
+            case "full":
+            case "diff":
+                DataPersistence.initialize();
+                DataPersistence.exportBackup(Paths.get(args[1]), args[0].equals("diff") ? Paths.get(args[2]) : null);
+                break;
+            case "verify":
+                restore(paths(args, 1));
+                break;
+            default:
+                Map<Aggregate, NavigableMap<Integer, Object>> tables = restore(paths(args, 2));
+                Path output = Paths.get(args[1]);
+                Files.createDirectories(output);
+                new JsonSnapshotFormat(DataPersistence.gson()).writeAll(output.resolve("vmsdatabase.txt"), tables);
+                System.out.println("Restored " + LoadReport.of(args[args.length - 1], tables, 0).getTotalCount()
+                        + " entities to " + output.resolve("vmsdatabase.txt"));
+        }
+    }
+
+    private static List<Path> paths(String[] args, int from) {
+        List<Path> paths = new ArrayList<>();
+        for (int i = from; i < args.length; i++) {
+            paths.add(Paths.get(args[i]));
+        }
+        return paths;
+    }
+
+    /**
+     * Writes a backup to {@code directory}: a differential one against {@code base}, or a full
+     * one if {@code base} is null. The entities are given in the {@link BinarySnapshotFormat}
+     * field encoding, and the fingerprints and the archived entities are both taken from those
+     * bytes, so they always describe the same state.
+     * @return the archive written
+     */
+    static Path write(Path directory, Path base, Map<Aggregate, ? extends Map<Integer, byte[]>> encoded) throws IOException {
+        Archive parent = base != null ? read(base) : null;
+        String id = (parent != null ? "vms-diff-" : "vms-full-") + STAMP.format(LocalDateTime.now());
+        Map<Aggregate, SortedMap<Integer, byte[]>> changes = new EnumMap<>(Aggregate.class);
+        Map<Aggregate, Map<Integer, Long>> fingerprints = new EnumMap<>(Aggregate.class);
+        int changed = 0;
+        int deleted = 0;
+        for (Aggregate aggregate : Aggregate.values()) {
+            Map<Integer, Long> previous = parent != null ? parent.fingerprints.getOrDefault(aggregate, Map.of()) : Map.of();
+            SortedMap<Integer, byte[]> delta = new TreeMap<>();
+            Map<Integer, Long> current = new TreeMap<>();
+            for (Map.Entry<Integer, byte[]> entity : new TreeMap<>(encoded.get(aggregate)).entrySet()) {
+                long fingerprint = fingerprint(entity.getValue());
+                current.put(entity.getKey(), fingerprint);
+                Long before = previous.get(entity.getKey());
+                if (before == null || before != fingerprint) {
+                    delta.put(entity.getKey(), entity.getValue());
+                    changed++;
+                }
+            }
+            for (Integer gone : previous.keySet()) {
+                if (!current.containsKey(gone)) {
+                    delta.put(gone, null);
+                    deleted++;
+                }
+            }
+            changes.put(aggregate, delta);
+            fingerprints.put(aggregate, current);
+        }
+
+        JsonObject manifest = new JsonObject();
+        manifest.addProperty("id", id);
+        manifest.addProperty("type", parent != null ? "differential" : "full");
+        if (parent != null) {
+            manifest.addProperty("base", parent.id());
+            manifest.addProperty("baseHash", parent.contentHash());
+        }
+        manifest.addProperty("created", LocalDateTime.now().toString());
+        manifest.addProperty("schemaVersion", SchemaMigrations.CURRENT);
+        manifest.addProperty("changed", changed);
+        manifest.addProperty("deleted", deleted);
+        manifest.addProperty("total", fingerprints.values().stream().mapToInt(Map::size).sum());
+        manifest.addProperty("contentHash", contentHash(fingerprints));
+
+        Files.createDirectories(directory);
+        Path archive = directory.resolve(id + ".zip");
+        Path temp = archive.resolveSibling(archive.getFileName() + ".tmp");
+        Path entities = Files.createTempFile(directory, id, "." + ENTITIES);
+        try {
+            new BinarySnapshotFormat().writeEncoded(entities, changes);
+            try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                zip.putNextEntry(new ZipEntry(MANIFEST));
+                zip.write(DataPersistence.gson().toJson(manifest).getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+                zip.putNextEntry(new ZipEntry(ENTITIES));
+                Files.copy(entities, zip);
+                zip.closeEntry();
+                zip.putNextEntry(new ZipEntry(FINGERPRINTS));
+                writeFingerprints(new DataOutputStream(zip), fingerprints);
+                zip.closeEntry();
+            }
+            Files.move(temp, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(entities);
+            Files.deleteIfExists(temp);
+        }
+        System.out.println("Wrote " + manifest.get("type").getAsString() + " backup " + archive + ": " + changed
+                + " changed and " + deleted + " deleted of " + manifest.get("total").getAsInt() + " entities");
+        return archive;
+    }
+
+    /**
+     * Replays a full backup and the differentials after it, in order, checking that each one is
+     * based on the one before and that the state after each matches its content hash.
+     * @return the entities as of the last backup
+     */
+    static Map<Aggregate, NavigableMap<Integer, Object>> restore(List<Path> chain) throws IOException {
+        Map<Aggregate, NavigableMap<Integer, Object>> tables = new EnumMap<>(Aggregate.class);
+        for (Aggregate aggregate : Aggregate.values()) {
+            tables.put(aggregate, new ConcurrentSkipListMap<>());
+        }
+        Archive previous = null;
+        for (Path file : chain) {
+            Archive archive = read(file);
+            if (previous == null && !archive.isFull()) {
+                throw new IOException(file + " is a differential backup; the chain must start with a full backup");
+            }
+            if (previous != null && (archive.isFull()
+                    || !archive.manifest.get("base").getAsString().equals(previous.id())
+                    || !archive.manifest.get("baseHash").getAsString().equals(previous.contentHash()))) {
+                throw new IOException(file + " is not based on " + previous.file);
+            }
+            SchemaMigrations.check(archive.manifest.get("schemaVersion").getAsInt(), file);
+            readEntities(file, (aggregate, id, entity) -> {
+                if (entity == null) {
+                    tables.get(aggregate).remove(id);
+                } else {
+                    tables.get(aggregate).put(id, entity);
+                }
+            });
+            Map<Aggregate, Map<Integer, Long>> restored = new EnumMap<>(Aggregate.class);
+            for (Aggregate aggregate : Aggregate.values()) {
+                Map<Integer, Long> fingerprints = new TreeMap<>();
+                for (Map.Entry<Integer, Object> entity : tables.get(aggregate).entrySet()) {
+                    fingerprints.put(entity.getKey(), fingerprint(aggregate, entity.getValue()));
+                }
+                restored.put(aggregate, fingerprints);
+            }
+            String hash = contentHash(restored);
+            if (!hash.equals(archive.contentHash())) {
+                throw new IOException("Restored state after " + file + " has content hash " + hash + ", expected " + archive.contentHash());
+            }
+            System.out.println("Verified " + file + ": " + restored.values().stream().mapToInt(Map::size).sum() + " entities, content hash " + hash);
+            previous = archive;
+        }
+        return tables;
+    }
+
+    /** Reads the manifest and fingerprints of a backup. */
+    static Archive read(Path file) throws IOException {
+        JsonObject manifest = null;
+        Map<Aggregate, Map<Integer, Long>> fingerprints = null;
+        try (ZipInputStream zip = new ZipInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.getName().equals(MANIFEST)) {
+                    manifest = JsonParser.parseReader(new InputStreamReader(zip, StandardCharsets.UTF_8)).getAsJsonObject();
+                } else if (entry.getName().equals(FINGERPRINTS)) {
+                    fingerprints = readFingerprints(new DataInputStream(zip));
+                }
+            }
+        }
+        if (manifest == null || fingerprints == null) {
+            throw new IOException(file + " is not a differential backup archive");
+        }
+        return new Archive(file, manifest, fingerprints);
+    }
+
+    private static void readEntities(Path file, StreamingJsonLoader.EntitySink sink) throws IOException {
+        Path entities = Files.createTempFile("vms-restore", "." + ENTITIES);
+        try {
+            try (ZipInputStream zip = new ZipInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                ZipEntry entry;
+                while ((entry = zip.getNextEntry()) != null) {
+                    if (entry.getName().equals(ENTITIES)) {
+                        Files.copy(zip, entities, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+            }
+            new BinarySnapshotFormat().readAll(entities, sink);
+        } finally {
+            Files.deleteIfExists(entities);
+        }
+    }
+
+    private static void writeFingerprints(DataOutputStream out, Map<Aggregate, Map<Integer, Long>> fingerprints) throws IOException {
+        for (Map.Entry<Aggregate, Map<Integer, Long>> table : fingerprints.entrySet()) {
+            out.writeByte(table.getKey().ordinal());
+            out.writeInt(table.getValue().size());
+            for (Map.Entry<Integer, Long> entity : table.getValue().entrySet()) {
+                out.writeInt(entity.getKey());
+                out.writeLong(entity.getValue());
+            }
+        }
+        out.flush();
+    }
+
+    private static Map<Aggregate, Map<Integer, Long>> readFingerprints(DataInputStream in) throws IOException {
+        Map<Aggregate, Map<Integer, Long>> fingerprints = new EnumMap<>(Aggregate.class);
+        int ordinal;
+        while ((ordinal = in.read()) >= 0) {
+            int count = in.readInt();
+            Map<Integer, Long> table = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                table.put(in.readInt(), in.readLong());
+            }
+            fingerprints.put(Aggregate.values()[ordinal], table);
+        }
+        return fingerprints;
+    }
+
+    /** The first 64 bits of the SHA-256 of the entity's binary encoding. */
+    static long fingerprint(Aggregate aggregate, Object entity) throws IOException {
+        return fingerprint(BinarySnapshotFormat.encode(aggregate, entity));
+    }
+
+    static long fingerprint(byte[] encoded) {
+        byte[] digest = sha256().digest(encoded);
+        long fingerprint = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            fingerprint = fingerprint << 8 | (digest[i] & 0xff);
+        }
+        return fingerprint;
+    }
+
+    /** SHA-256 of every (aggregate, id, fingerprint), aggregates in declaration order and ids ascending. */
+    static String contentHash(Map<Aggregate, Map<Integer, Long>> fingerprints) {
+        MessageDigest digest = sha256();
+        byte[] record = new byte[1 + Integer.BYTES + Long.BYTES];
+        for (Aggregate aggregate : Aggregate.values()) {
+            for (Map.Entry<Integer, Long> entity : new TreeMap<>(fingerprints.getOrDefault(aggregate, Map.of())).entrySet()) {
+                ByteBuffer.wrap(record).put((byte) aggregate.ordinal()).putInt(entity.getKey()).putLong(entity.getValue());
+                digest.update(record);
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.fstgc.vms.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Online backups of the files in the database directory, taken while the application keeps
+ * writing. A backup runs in two steps on its own thread:
+ * <ol>
+ * <li>Pin: {@link DataPersistence} stops file replacement for a moment and the current files are
+ *     hard-linked into a staging directory. Shard files and delta segments are never changed in
+ *     place, only replaced or deleted, so a link keeps their content as it was. The journal, which
+ *     is appended to in place, is copied instead, up to its last complete record.</li>
+ * <li>Archive: the staging directory is written to a zip file at a limited rate, so the backup
+ *     does not compete with the application for the disk, and then removed.</li>
+ * </ol>
+ * Restoring is unpacking the archive into an empty database directory.
+ */
+final class HotBackup {
+    /** Links or copies the files of one instant into {@code staging}. */
+    interface Pin {
+        void pin(Path staging) throws IOException;
+    }
+
+    static final String PREFIX = "vms-backup-";
+    private static final String STAGING_PREFIX = ".backup-";
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final int CHUNK = 64 * 1024;
+
+    private final Path dataDir;
+    private final long bytesPerSecond;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "vms-backup");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    /** @param bytesPerSecond archive write rate, or 0 for no limit */
+    HotBackup(Path dataDir, long bytesPerSecond) {
+        this.dataDir = dataDir;
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    static String archiveName(LocalDateTime time) {
+        return PREFIX + STAMP.format(time) + ".zip";
+    }
+
+    /**
+     * Pins the files with {@code pin} and archives them to {@code archive}, on the backup thread.
+     * @return completes with the archive once it is written
+     */
+    CompletableFuture<Path> backup(Path archive, Pin pin) {
+        return CompletableFuture.supplyAsync(() -> {
+            Path staging = null;
+            try {
+                staging = Files.createTempDirectory(dataDir, STAGING_PREFIX);
+                pin.pin(staging);
+                long start = System.nanoTime();
+                long bytes = archive(staging, archive);
+                System.out.println("Backed up " + bytes + " bytes of " + dataDir + " to " + archive
+                        + " in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+                return archive;
+            } catch (IOException e) {
+                System.err.println("Error backing up " + dataDir + " to " + archive + ": " + e.getMessage());
+                throw new UncheckedIOException(e);
+            } finally {
+                if (staging != null) {
+                    deleteTree(staging);
+                }
+            }
+        }, executor);
+    }
+
+    /** Removes staging directories left behind by a backup that was interrupted by a crash. */
+    void deleteStaleStaging() {
+        if (!Files.isDirectory(dataDir)) {
+            return;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dataDir, STAGING_PREFIX + "*")) {
+            for (Path staging : stream) {
+                deleteTree(staging);
+            }
+        } catch (IOException e) {
+            System.err.println("Error removing old backup staging directories in " + dataDir + ": " + e.getMessage());
+        }
+    }
+
+    /** Hard-links {@code file} into {@code dir}, or copies it where the file system has no links. */
+    static void link(Path file, Path dir) throws IOException {
+        Path target = dir.resolve(file.getFileName());
+        try {
+            Files.createLink(target, file);
+        } catch (NoSuchFileException e) {
+            throw e;
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** Copies the first {@code length} bytes of {@code file} into {@code dir}. */
+    static void copy(Path file, Path dir, long length) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(dir.resolve(file.getFileName()), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long position = 0;
+            while (position < length) {
+                long copied = in.transferTo(position, length - position, out);
+                if (copied <= 0) {
+                    throw new IOException(file + " is shorter than " + length + " bytes");
+                }
+                position += copied;
+            }
+        }
+    }
+
+    /** Zips every file of {@code staging} into {@code archive}, through a temporary file so a failed backup leaves none. */
+    private long archive(Path staging, Path archive) throws IOException {
+        Files.createDirectories(archive.toAbsolutePath().getParent());
+        Path temp = archive.resolveSibling(archive.getFileName() + ".tmp");
+        List<Path> files;
+        try (Stream<Path> list = Files.list(staging)) {
+            files = list.sorted(Comparator.comparing(Path::toString)).collect(Collectors.toList());
+        }
+        Throttle throttle = new Throttle(bytesPerSecond);
+        byte[] buffer = new byte[CHUNK];
+        try (OutputStream file = Files.newOutputStream(temp);
+             ZipOutputStream zip = new ZipOutputStream(file)) {
+            for (Path entry : files) {
+                zip.putNextEntry(new ZipEntry(entry.getFileName().toString()));
+                try (InputStream in = Files.newInputStream(entry)) {
+                    int read;
+                    while ((read = in.read(buffer)) > 0) {
+                        zip.write(buffer, 0, read);
+                        throttle.pass(read);
+                    }
+                }
+                zip.closeEntry();
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return throttle.bytes;
+    }
+
+    private static void deleteTree(Path dir) {
+        try (Stream<Path> walk = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            System.err.println("Error removing backup staging directory " + dir + ": " + e.getMessage());
+        }
+    }
+
+    /** Sleeps as needed to keep the bytes passed through at or below the rate. */
+    private static final class Throttle {
+        private final long bytesPerSecond;
+        private final long start = System.nanoTime();
+        long bytes;
+
+        Throttle(long bytesPerSecond) {
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        void pass(int count) throws IOException {
+            bytes += count;
+            if (bytesPerSecond <= 0) {
+                return;
+            }
+            long ahead = (long) (bytes * 1e9 / bytesPerSecond) - (System.nanoTime() - start);
+            if (ahead > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(ahead);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Backup interrupted");
+                }
+            }
+        }
+    }
+}
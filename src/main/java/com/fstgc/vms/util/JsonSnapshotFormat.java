@@ -0,0 +1,100 @@
+package com.fstgc.vms.util;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Human-readable shard files: {@code {"schemaVersion": ..., "aggregate": ..., "partition": ..., "entities": {"id": {...}}}}.
+ * Multi-aggregate files use the legacy {@code vmsdatabase.txt} layout, {@code {"schemaVersion": ..., "volunteers": {"id": {...}}, ...}},
+ * with {@code null} standing for a deleted id. The schema version comes first so a reader knows
+ * whether to migrate the records before it reaches them.
+ */
+class JsonSnapshotFormat implements SnapshotFormat {
+    private final Gson gson;
+    private final Compression compression;
+
+    JsonSnapshotFormat(Gson gson) {
+        this(gson, Compression.NONE);
+    }
+
+    JsonSnapshotFormat(Gson gson, Compression compression) {
+        this.gson = gson;
+        this.compression = compression;
+    }
+
+    @Override
+    public String extension() {
+        return "json";
+    }
+
+    @Override
+    public void write(Path file, Aggregate aggregate, int partition, SortedMap<Integer, Object> entities) throws IOException {
+        // Stream entity by entity so a save never builds a JSON tree of the whole shard
+        try (JsonWriter writer = gson.newJsonWriter(open(file))) {
+            writer.beginObject();
+            writer.name(SchemaMigrations.PROPERTY).value(SchemaMigrations.CURRENT);
+            writer.name("aggregate").value(aggregate.key());
+            writer.name("partition").value(partition);
+            writer.name("entities").beginObject();
+            for (Map.Entry<Integer, Object> entry : entities.entrySet()) {
+                writer.name(String.valueOf(entry.getKey()));
+                gson.toJson(entry.getValue(), aggregate.entityType(), writer);
+            }
+            writer.endObject();
+            writer.endObject();
+        }
+    }
+
+    @Override
+    public int read(Path file, Aggregate aggregate, BiConsumer<Integer, Object> sink) throws IOException {
+        return StreamingJsonLoader.readShard(file, gson, aggregate, sink);
+    }
+
+    @Override
+    public int schemaVersion(Path file) throws IOException {
+        return StreamingJsonLoader.schemaVersion(file);
+    }
+
+    @Override
+    public void writeAll(Path file, Map<Aggregate, ? extends Map<Integer, Object>> aggregates) throws IOException {
+        try (JsonWriter writer = gson.newJsonWriter(open(file))) {
+            // Deletions are written as explicit nulls; fields inside entities still follow the Gson settings
+            writer.setSerializeNulls(true);
+            writer.beginObject();
+            writer.name(SchemaMigrations.PROPERTY).value(SchemaMigrations.CURRENT);
+            for (Map.Entry<Aggregate, ? extends Map<Integer, Object>> table : aggregates.entrySet()) {
+                writer.name(table.getKey().key()).beginObject();
+                for (Map.Entry<Integer, Object> entry : table.getValue().entrySet()) {
+                    writer.name(String.valueOf(entry.getKey()));
+                    if (entry.getValue() == null) {
+                        writer.nullValue();
+                    } else {
+                        gson.toJson(entry.getValue(), table.getKey().entityType(), writer);
+                    }
+                }
+                writer.endObject();
+            }
+            writer.endObject();
+        }
+    }
+
+    /** Text goes through the codec as it is written, so the uncompressed file never exists in full. */
+    private Writer open(Path file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(compression.wrap(Files.newOutputStream(file)), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public int readAll(Path file, StreamingJsonLoader.EntitySink sink) throws IOException {
+        return StreamingJsonLoader.readLegacy(file, gson, sink);
+    }
+}
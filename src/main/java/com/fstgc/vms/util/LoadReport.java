@@ -0,0 +1,44 @@
+package com.fstgc.vms.util;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summary of a database load: where it came from, how many entities of each
+ * aggregate were read, and how long it took.
+ */
+public final class LoadReport {
+    private final String source;
+    private final Map<Aggregate, Integer> counts;
+    private final long elapsedMillis;
+
+    private LoadReport(String source, Map<Aggregate, Integer> counts, long elapsedMillis) {
+        this.source = source;
+        this.counts = Collections.unmodifiableMap(counts);
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    static LoadReport of(String source, Map<Aggregate, ? extends Map<Integer, ?>> tables, long elapsedNanos) {
+        Map<Aggregate, Integer> counts = new EnumMap<>(Aggregate.class);
+        tables.forEach((aggregate, table) -> counts.put(aggregate, table.size()));
+        return new LoadReport(source, counts, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+    }
+
+    public String getSource() { return source; }
+    public Map<Aggregate, Integer> getCounts() { return counts; }
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    public int getTotalCount() {
+        return counts.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner entities = new StringJoiner(", ");
+        counts.forEach((aggregate, count) -> entities.add(count + " " + aggregate.key()));
+        return getTotalCount() + " entities (" + entities + ") from " + source + " in " + elapsedMillis + " ms";
+    }
+}
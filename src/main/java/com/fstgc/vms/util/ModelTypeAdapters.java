@@ -0,0 +1,633 @@
+package com.fstgc.vms.util;
+
+import com.fstgc.vms.model.*;
+import com.fstgc.vms.model.enums.*;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Hand-written streaming Gson adapters for the model classes and the {@code java.time} types
+ * they use, replacing reflection and the per-field {@code JsonElement} trees of
+ * {@code JsonSerializer}/{@code JsonDeserializer}.
+ * <p>
+ * The JSON is exactly what the reflective adapters produced: subclass fields before
+ * {@link Person} fields, each in declaration order, nulls left out, enums by name and dates in
+ * ISO format, except that a null creation date is written as null. Unknown names are skipped on
+ * read and missing ones keep the constructor default.
+ */
+final class ModelTypeAdapters {
+    private ModelTypeAdapters() {
+    }
+
+    static GsonBuilder register(GsonBuilder builder) {
+        return builder
+                .registerTypeAdapter(LocalDateTime.class, LOCAL_DATE_TIME.nullSafe())
+                .registerTypeAdapter(LocalDate.class, LOCAL_DATE.nullSafe())
+                .registerTypeAdapter(LocalTime.class, LOCAL_TIME.nullSafe())
+                .registerTypeAdapter(Volunteer.class, VOLUNTEER.nullSafe())
+                .registerTypeAdapter(Event.class, EVENT.nullSafe())
+                .registerTypeAdapter(Attendance.class, ATTENDANCE.nullSafe())
+                .registerTypeAdapter(Announcement.class, ANNOUNCEMENT.nullSafe())
+                .registerTypeAdapter(Timesheet.class, TIMESHEET.nullSafe())
+                .registerTypeAdapter(SystemAdmin.class, SYSTEM_ADMIN.nullSafe())
+                .registerTypeAdapter(Award.class, AWARD.nullSafe());
+    }
+
+    static final TypeAdapter<LocalDateTime> LOCAL_DATE_TIME = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, LocalDateTime value) throws IOException {
+            out.value(format(value));
+        }
+
+        @Override
+        public LocalDateTime read(JsonReader in) throws IOException {
+            return parseDateTime(in.nextString());
+        }
+    };
+
+    static final TypeAdapter<LocalDate> LOCAL_DATE = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, LocalDate value) throws IOException {
+            out.value(format(value));
+        }
+
+        @Override
+        public LocalDate read(JsonReader in) throws IOException {
+            return parseDate(in.nextString());
+        }
+    };
+
+    static final TypeAdapter<LocalTime> LOCAL_TIME = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, LocalTime value) throws IOException {
+            out.value(format(value));
+        }
+
+        @Override
+        public LocalTime read(JsonReader in) throws IOException {
+            return parseTime(in.nextString());
+        }
+    };
+
+    static final TypeAdapter<Volunteer> VOLUNTEER = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, Volunteer v) throws IOException {
+            out.beginObject();
+            unknownDateTime(out, "registrationDate", v.getRegistrationDate());
+            enumValue(out, "status", v.getStatus());
+            out.name("profilePhotoUrl").value(v.getProfilePhotoUrl());
+            date(out, "dateOfBirth", v.getDateOfBirth());
+            out.name("address").value(v.getAddress());
+            out.name("eventsAttended").value(v.getEventsAttended());
+            out.name("lastModifiedBy").value(v.getLastModifiedBy());
+            dateTime(out, "lastModifiedDate", v.getLastModifiedDate());
+            out.name("badgesEarned").value(v.getBadgesEarned());
+            enumValue(out, "currentTier", v.getCurrentTier());
+            writePerson(out, v);
+            out.endObject();
+        }
+
+        @Override
+        public Volunteer read(JsonReader in) throws IOException {
+            Volunteer v = new Volunteer();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                switch (name) {
+                    case "registrationDate": v.setRegistrationDate(readDateTime(in)); break;
+                    case "status": v.setStatus(readEnum(in, VolunteerStatus.class)); break;
+                    case "profilePhotoUrl": v.setProfilePhotoUrl(readString(in)); break;
+                    case "dateOfBirth": v.setDateOfBirth(readDate(in)); break;
+                    case "address": v.setAddress(readString(in)); break;
+                    case "eventsAttended": v.setEventsAttended(in.nextInt()); break;
+                    case "lastModifiedBy": v.setLastModifiedBy(readString(in)); break;
+                    case "lastModifiedDate": v.setLastModifiedDate(readDateTime(in)); break;
+                    case "badgesEarned": v.setBadgesEarned(in.nextInt()); break;
+                    case "currentTier": v.setCurrentTier(readEnum(in, BadgeTier.class)); break;
+                    default: readPersonField(in, name, v);
+                }
+            }
+            in.endObject();
+            return v;
+        }
+    };
+
+    static final TypeAdapter<Event> EVENT = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, Event e) throws IOException {
+            out.beginObject();
+            out.name("eventId").value(e.getEventId());
+            out.name("title").value(e.getTitle());
+            out.name("description").value(e.getDescription());
+            date(out, "eventDate", e.getEventDate());
+            time(out, "startTime", e.getStartTime());
+            time(out, "endTime", e.getEndTime());
+            out.name("location").value(e.getLocation());
+            out.name("capacity").value(e.getCapacity());
+            out.name("currentRegistrations").value(e.getCurrentRegistrations());
+            enumValue(out, "eventType", e.getEventType());
+            enumValue(out, "status", e.getStatus());
+            out.name("createdByAdminId").value(e.getCreatedByAdminId());
+            out.name("lastModifiedBy").value(e.getLastModifiedBy());
+            dateTime(out, "lastModifiedDate", e.getLastModifiedDate());
+            out.endObject();
+        }
+
+        @Override
+        public Event read(JsonReader in) throws IOException {
+            Event e = new Event();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "eventId": e.setEventId(in.nextInt()); break;
+                    case "title": e.setTitle(readString(in)); break;
+                    case "description": e.setDescription(readString(in)); break;
+                    case "eventDate": e.setEventDate(readDate(in)); break;
+                    case "startTime": e.setStartTime(readTime(in)); break;
+                    case "endTime": e.setEndTime(readTime(in)); break;
+                    case "location": e.setLocation(readString(in)); break;
+                    case "capacity": e.setCapacity(in.nextInt()); break;
+                    case "currentRegistrations": e.setCurrentRegistrations(in.nextInt()); break;
+                    case "eventType": e.setEventType(readEnum(in, EventType.class)); break;
+                    case "status": e.setStatus(readEnum(in, EventStatus.class)); break;
+                    case "createdByAdminId": e.setCreatedByAdminId(in.nextInt()); break;
+                    case "lastModifiedBy": e.setLastModifiedBy(readString(in)); break;
+                    case "lastModifiedDate": e.setLastModifiedDate(readDateTime(in)); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return e;
+        }
+    };
+
+    static final TypeAdapter<Attendance> ATTENDANCE = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, Attendance a) throws IOException {
+            out.beginObject();
+            out.name("attendanceId").value(a.getAttendanceId());
+            out.name("volunteerId").value(a.getVolunteerId());
+            out.name("eventId").value(a.getEventId());
+            dateTime(out, "checkInTime", a.getCheckInTime());
+            dateTime(out, "checkOutTime", a.getCheckOutTime());
+            enumValue(out, "status", a.getStatus());
+            out.name("hoursWorked").value(a.getHoursWorked());
+            out.name("recordedByAdminId").value(a.getRecordedByAdminId());
+            out.name("notes").value(a.getNotes());
+            out.name("lastModifiedBy").value(a.getLastModifiedBy());
+            dateTime(out, "lastModifiedDate", a.getLastModifiedDate());
+            out.endObject();
+        }
+
+        @Override
+        public Attendance read(JsonReader in) throws IOException {
+            Attendance a = new Attendance();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "attendanceId": a.setAttendanceId(in.nextInt()); break;
+                    case "volunteerId": a.setVolunteerId(in.nextInt()); break;
+                    case "eventId": a.setEventId(in.nextInt()); break;
+                    case "checkInTime": a.setCheckInTime(readDateTime(in)); break;
+                    case "checkOutTime": a.setCheckOutTime(readDateTime(in)); break;
+                    case "status": a.setStatus(readEnum(in, AttendanceStatus.class)); break;
+                    case "hoursWorked": a.setHoursWorked(in.nextDouble()); break;
+                    case "recordedByAdminId": a.setRecordedByAdminId(readInteger(in)); break;
+                    case "notes": a.setNotes(readString(in)); break;
+                    case "lastModifiedBy": a.setLastModifiedBy(readString(in)); break;
+                    case "lastModifiedDate": a.setLastModifiedDate(readDateTime(in)); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return a;
+        }
+    };
+
+    static final TypeAdapter<Announcement> ANNOUNCEMENT = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, Announcement a) throws IOException {
+            out.beginObject();
+            out.name("announcementId").value(a.getAnnouncementId());
+            out.name("title").value(a.getTitle());
+            out.name("message").value(a.getMessage());
+            unknownDateTime(out, "publishedDate", a.getPublishedDate());
+            dateTime(out, "expiryDate", a.getExpiryDate());
+            enumValue(out, "priority", a.getPriority());
+            enumValue(out, "targetAudience", a.getTargetAudience());
+            out.name("eventId").value(a.getEventId());
+            out.name("createdByAdminId").value(a.getCreatedByAdminId());
+            out.name("deleted").value(a.isDeleted());
+            out.name("lastModifiedBy").value(a.getLastModifiedBy());
+            dateTime(out, "lastModifiedDate", a.getLastModifiedDate());
+            out.endObject();
+        }
+
+        @Override
+        public Announcement read(JsonReader in) throws IOException {
+            Announcement a = new Announcement();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "announcementId": a.setAnnouncementId(in.nextInt()); break;
+                    case "title": a.setTitle(readString(in)); break;
+                    case "message": a.setMessage(readString(in)); break;
+                    case "publishedDate": a.setPublishedDate(readDateTime(in)); break;
+                    case "expiryDate": a.setExpiryDate(readDateTime(in)); break;
+                    case "priority": a.setPriority(readEnum(in, Priority.class)); break;
+                    case "targetAudience": a.setTargetAudience(readEnum(in, TargetAudience.class)); break;
+                    case "eventId": a.setEventId(readInteger(in)); break;
+                    case "createdByAdminId": a.setCreatedByAdminId(in.nextInt()); break;
+                    case "deleted": a.setDeleted(in.nextBoolean()); break;
+                    case "lastModifiedBy": a.setLastModifiedBy(readString(in)); break;
+                    case "lastModifiedDate": a.setLastModifiedDate(readDateTime(in)); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return a;
+        }
+    };
+
+    static final TypeAdapter<Timesheet> TIMESHEET = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, Timesheet t) throws IOException {
+            out.beginObject();
+            out.name("timesheetId").value(t.getTimesheetId());
+            out.name("volunteerId").value(t.getVolunteerId());
+            out.name("attendanceId").value(t.getAttendanceId());
+            out.name("eventId").value(t.getEventId());
+            out.name("eventName").value(t.getEventName());
+            date(out, "periodStartDate", t.getPeriodStartDate());
+            date(out, "periodEndDate", t.getPeriodEndDate());
+            out.name("totalHours").value(t.getTotalHours());
+            out.name("approvedHours").value(t.getApprovedHours());
+            enumValue(out, "approvalStatus", t.getApprovalStatus());
+            out.name("approvedByAdminId").value(t.getApprovedByAdminId());
+            dateTime(out, "approvalDate", t.getApprovalDate());
+            out.name("rejectionReason").value(t.getRejectionReason());
+            unknownDateTime(out, "createdDate", t.getCreatedDate());
+            out.name("lastModifiedBy").value(t.getLastModifiedBy());
+            dateTime(out, "lastModifiedDate", t.getLastModifiedDate());
+            out.endObject();
+        }
+
+        @Override
+        public Timesheet read(JsonReader in) throws IOException {
+            Timesheet t = new Timesheet();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "timesheetId": t.setTimesheetId(in.nextInt()); break;
+                    case "volunteerId": t.setVolunteerId(in.nextInt()); break;
+                    case "attendanceId": t.setAttendanceId(readInteger(in)); break;
+                    case "eventId": t.setEventId(readInteger(in)); break;
+                    case "eventName": t.setEventName(readString(in)); break;
+                    case "periodStartDate": t.setPeriodStartDate(readDate(in)); break;
+                    case "periodEndDate": t.setPeriodEndDate(readDate(in)); break;
+                    case "totalHours": t.setTotalHours(in.nextDouble()); break;
+                    case "approvedHours": t.setApprovedHours(readDouble(in)); break;
+                    case "approvalStatus": t.setApprovalStatus(readEnum(in, TimesheetStatus.class)); break;
+                    case "approvedByAdminId": t.setApprovedByAdminId(readInteger(in)); break;
+                    case "approvalDate": t.setApprovalDate(readDateTime(in)); break;
+                    case "rejectionReason": t.setRejectionReason(readString(in)); break;
+                    case "createdDate": t.setCreatedDate(readDateTime(in)); break;
+                    case "lastModifiedBy": t.setLastModifiedBy(readString(in)); break;
+                    case "lastModifiedDate": t.setLastModifiedDate(readDateTime(in)); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return t;
+        }
+    };
+
+    static final TypeAdapter<SystemAdmin> SYSTEM_ADMIN = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, SystemAdmin a) throws IOException {
+            out.beginObject();
+            out.name("username").value(a.getUsername());
+            out.name("passwordHash").value(a.getPasswordHash());
+            enumValue(out, "role", a.getRole());
+            out.name("permissionsJson").value(a.getPermissionsJson());
+            dateTime(out, "lastLogin", a.getLastLogin());
+            out.name("failedLoginAttempts").value(a.getFailedLoginAttempts());
+            dateTime(out, "accountLockedUntil", a.getAccountLockedUntil());
+            enumValue(out, "accountStatus", a.getAccountStatus());
+            unknownDateTime(out, "createdDate", a.getCreatedDate());
+            out.name("createdByAdminId").value(a.getCreatedByAdminId());
+            out.name("securityQuestion").value(a.getSecurityQuestion());
+            out.name("securityAnswerHash").value(a.getSecurityAnswerHash());
+            writePerson(out, a);
+            out.endObject();
+        }
+
+        @Override
+        public SystemAdmin read(JsonReader in) throws IOException {
+            SystemAdmin a = new SystemAdmin();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                switch (name) {
+                    case "username": a.setUsername(readString(in)); break;
+                    case "passwordHash": a.setPasswordHash(readString(in)); break;
+                    case "role": a.setRole(readEnum(in, Role.class)); break;
+                    case "permissionsJson": a.setPermissionsJson(readString(in)); break;
+                    case "lastLogin": a.setLastLogin(readDateTime(in)); break;
+                    case "failedLoginAttempts": a.setFailedLoginAttempts(in.nextInt()); break;
+                    case "accountLockedUntil": a.setAccountLockedUntil(readDateTime(in)); break;
+                    case "accountStatus": a.setAccountStatus(readEnum(in, AccountStatus.class)); break;
+                    case "createdDate": a.setCreatedDate(readDateTime(in)); break;
+                    case "createdByAdminId": a.setCreatedByAdminId(readInteger(in)); break;
+                    case "securityQuestion": a.setSecurityQuestion(readString(in)); break;
+                    case "securityAnswerHash": a.setSecurityAnswerHash(readString(in)); break;
+                    default: readPersonField(in, name, a);
+                }
+            }
+            in.endObject();
+            return a;
+        }
+    };
+
+    static final TypeAdapter<Award> AWARD = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, Award a) throws IOException {
+            out.beginObject();
+            out.name("awardId").value(a.getAwardId());
+            out.name("volunteerId").value(a.getVolunteerId());
+            out.name("badgeName").value(a.getBadgeName());
+            out.name("badgeDescription").value(a.getBadgeDescription());
+            out.name("criteriaId").value(a.getCriteriaId());
+            dateTime(out, "dateEarned", a.getDateEarned());
+            enumValue(out, "badgeTier", a.getBadgeTier());
+            out.name("badgeIconUrl").value(a.getBadgeIconUrl());
+            out.name("featured").value(a.isFeatured());
+            out.endObject();
+        }
+
+        @Override
+        public Award read(JsonReader in) throws IOException {
+            Award a = new Award();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "awardId": a.setAwardId(in.nextInt()); break;
+                    case "volunteerId": a.setVolunteerId(in.nextInt()); break;
+                    case "badgeName": a.setBadgeName(readString(in)); break;
+                    case "badgeDescription": a.setBadgeDescription(readString(in)); break;
+                    case "criteriaId": a.setCriteriaId(in.nextInt()); break;
+                    case "dateEarned": a.setDateEarned(readDateTime(in)); break;
+                    case "badgeTier": a.setBadgeTier(readEnum(in, BadgeTier.class)); break;
+                    case "badgeIconUrl": a.setBadgeIconUrl(readString(in)); break;
+                    case "featured": a.setFeatured(in.nextBoolean()); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return a;
+        }
+    };
+
+    private static void writePerson(JsonWriter out, Person p) throws IOException {
+        out.name("id").value(p.getId());
+        out.name("firstName").value(p.getFirstName());
+        out.name("lastName").value(p.getLastName());
+        out.name("email").value(p.getEmail());
+        out.name("phone").value(p.getPhone());
+    }
+
+    private static void readPersonField(JsonReader in, String name, Person p) throws IOException {
+        switch (name) {
+            case "id": p.setId(in.nextInt()); break;
+            case "firstName": p.setFirstName(readString(in)); break;
+            case "lastName": p.setLastName(readString(in)); break;
+            case "email": p.setEmail(readString(in)); break;
+            case "phone": p.setPhone(readString(in)); break;
+            default: in.skipValue();
+        }
+    }
+
+    // A null value with a pending name is dropped by JsonWriter unless nulls are serialized, as Gson does
+    private static void dateTime(JsonWriter out, String name, LocalDateTime value) throws IOException {
+        out.name(name).value(value == null ? null : format(value));
+    }
+
+    /**
+     * A date the model class sets to the time of creation. Left out it would read back as the time
+     * of loading, so a null, an unknown date, is written even where nulls are left out.
+     */
+    private static void unknownDateTime(JsonWriter out, String name, LocalDateTime value) throws IOException {
+        if (value != null) {
+            dateTime(out, name, value);
+            return;
+        }
+        boolean serializeNulls = out.getSerializeNulls();
+        out.setSerializeNulls(true);
+        out.name(name).nullValue();
+        out.setSerializeNulls(serializeNulls);
+    }
+
+    private static void date(JsonWriter out, String name, LocalDate value) throws IOException {
+        out.name(name).value(value == null ? null : format(value));
+    }
+
+    private static void time(JsonWriter out, String name, LocalTime value) throws IOException {
+        out.name(name).value(value == null ? null : format(value));
+    }
+
+    private static void enumValue(JsonWriter out, String name, Enum<?> value) throws IOException {
+        out.name(name).value(value == null ? null : value.name());
+    }
+
+    private static boolean nextIsNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return true;
+        }
+        return false;
+    }
+
+    private static String readString(JsonReader in) throws IOException {
+        return nextIsNull(in) ? null : in.nextString();
+    }
+
+    private static Integer readInteger(JsonReader in) throws IOException {
+        return nextIsNull(in) ? null : in.nextInt();
+    }
+
+    private static Double readDouble(JsonReader in) throws IOException {
+        return nextIsNull(in) ? null : in.nextDouble();
+    }
+
+    private static LocalDateTime readDateTime(JsonReader in) throws IOException {
+        return nextIsNull(in) ? null : LOCAL_DATE_TIME.read(in);
+    }
+
+    private static LocalDate readDate(JsonReader in) throws IOException {
+        return nextIsNull(in) ? null : LOCAL_DATE.read(in);
+    }
+
+    private static LocalTime readTime(JsonReader in) throws IOException {
+        return nextIsNull(in) ? null : LOCAL_TIME.read(in);
+    }
+
+    /*
+     * ISO_LOCAL_DATE_TIME, ISO_LOCAL_DATE and ISO_LOCAL_TIME written and parsed by hand for
+     * four-digit years, which is every date this application stores. Anything else goes
+     * through the DateTimeFormatter, so the text is always exactly what the formatter gives.
+     */
+    private static final int[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000};
+
+    static String format(LocalDateTime value) {
+        if (value.getYear() < 0 || value.getYear() > 9999) {
+            return DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value);
+        }
+        StringBuilder text = new StringBuilder(29);
+        appendDate(text, value.getYear(), value.getMonthValue(), value.getDayOfMonth());
+        text.append('T');
+        appendTime(text, value.getHour(), value.getMinute(), value.getSecond(), value.getNano());
+        return text.toString();
+    }
+
+    static String format(LocalDate value) {
+        if (value.getYear() < 0 || value.getYear() > 9999) {
+            return DateTimeFormatter.ISO_LOCAL_DATE.format(value);
+        }
+        StringBuilder text = new StringBuilder(10);
+        appendDate(text, value.getYear(), value.getMonthValue(), value.getDayOfMonth());
+        return text.toString();
+    }
+
+    static String format(LocalTime value) {
+        StringBuilder text = new StringBuilder(18);
+        appendTime(text, value.getHour(), value.getMinute(), value.getSecond(), value.getNano());
+        return text.toString();
+    }
+
+    private static void appendDate(StringBuilder text, int year, int month, int day) {
+        appendDigits(text, year, 4);
+        text.append('-');
+        appendDigits(text, month, 2);
+        text.append('-');
+        appendDigits(text, day, 2);
+    }
+
+    /** Seconds are always written; the fraction only if non-zero, without trailing zeros. */
+    private static void appendTime(StringBuilder text, int hour, int minute, int second, int nano) {
+        appendDigits(text, hour, 2);
+        text.append(':');
+        appendDigits(text, minute, 2);
+        text.append(':');
+        appendDigits(text, second, 2);
+        if (nano > 0) {
+            int width = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                width--;
+            }
+            text.append('.');
+            appendDigits(text, nano, width);
+        }
+    }
+
+    private static void appendDigits(StringBuilder text, int value, int width) {
+        for (int i = width - 1; i >= 0; i--) {
+            text.append((char) ('0' + value / POWERS_OF_TEN[i] % 10));
+        }
+    }
+
+    static LocalDateTime parseDateTime(String text) {
+        if (text.length() >= 16 && text.charAt(10) == 'T') {
+            LocalDate date = parseDate(text, 0);
+            LocalTime time = date != null ? parseTime(text, 11) : null;
+            if (time != null) {
+                return LocalDateTime.of(date, time);
+            }
+        }
+        return LocalDateTime.parse(text, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    static LocalDate parseDate(String text) {
+        LocalDate date = text.length() == 10 ? parseDate(text, 0) : null;
+        return date != null ? date : LocalDate.parse(text, DateTimeFormatter.ISO_LOCAL_DATE);
+    }
+
+    static LocalTime parseTime(String text) {
+        LocalTime time = parseTime(text, 0);
+        return time != null ? time : LocalTime.parse(text, DateTimeFormatter.ISO_LOCAL_TIME);
+    }
+
+    /** {@code yyyy-MM-dd} at the offset, or null if the text has any other shape. */
+    private static LocalDate parseDate(String text, int at) {
+        if (text.length() < at + 10 || text.charAt(at + 4) != '-' || text.charAt(at + 7) != '-') {
+            return null;
+        }
+        int year = digits(text, at, 4);
+        int month = digits(text, at + 5, 2);
+        int day = digits(text, at + 8, 2);
+        return year < 0 || month < 0 || day < 0 ? null : LocalDate.of(year, month, day);
+    }
+
+    /** {@code HH:mm[:ss[.fffffffff]]} from the offset to the end, or null if the text has any other shape. */
+    private static LocalTime parseTime(String text, int at) {
+        int length = text.length() - at;
+        if (length < 5 || text.charAt(at + 2) != ':') {
+            return null;
+        }
+        int hour = digits(text, at, 2);
+        int minute = digits(text, at + 3, 2);
+        int second = 0;
+        int nano = 0;
+        if (length > 5) {
+            if (length < 8 || text.charAt(at + 5) != ':') {
+                return null;
+            }
+            second = digits(text, at + 6, 2);
+            if (length > 8) {
+                int fraction = length - 9;
+                if (text.charAt(at + 8) != '.' || fraction < 1 || fraction > 9) {
+                    return null;
+                }
+                nano = digits(text, at + 9, fraction);
+                if (nano < 0) {
+                    return null;
+                }
+                nano *= POWERS_OF_TEN[9 - fraction];
+            }
+        }
+        return hour < 0 || minute < 0 || second < 0 ? null : LocalTime.of(hour, minute, second, nano);
+    }
+
+    private static int digits(String text, int at, int count) {
+        int value = 0;
+        for (int i = at; i < at + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /** Unknown constant names read as null, matching Gson's own enum adapter. */
+    private static <E extends Enum<E>> E readEnum(JsonReader in, Class<E> type) throws IOException {
+        String name = readString(in);
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
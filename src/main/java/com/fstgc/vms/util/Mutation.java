@@ -0,0 +1,40 @@
+package com.fstgc.vms.util;
+
+import com.google.gson.JsonElement;
+
+/**
+ * A single insert/update or delete of one entity, as written to the journal.
+ * The entity is captured as a JSON tree at the time of the mutation so later
+ * in-place edits to the live object cannot leak into an earlier record.
+ */
+final class Mutation {
+    enum Op { PUT, DELETE }
+
+    final Op op;
+    final Aggregate aggregate;
+    final int id;
+    final JsonElement entity; // null for DELETE
+    // True on every record of a unit of work but the last, which must all be replayed or none
+    final boolean more;
+
+    private Mutation(Op op, Aggregate aggregate, int id, JsonElement entity, boolean more) {
+        this.op = op;
+        this.aggregate = aggregate;
+        this.id = id;
+        this.entity = entity;
+        this.more = more;
+    }
+
+    static Mutation put(Aggregate aggregate, int id, JsonElement entity) {
+        return new Mutation(Op.PUT, aggregate, id, entity, false);
+    }
+
+    static Mutation delete(Aggregate aggregate, int id) {
+        return new Mutation(Op.DELETE, aggregate, id, null, false);
+    }
+
+    /** The same change, marked as followed by more records of its unit of work. */
+    Mutation withMore() {
+        return new Mutation(op, aggregate, id, entity, true);
+    }
+}
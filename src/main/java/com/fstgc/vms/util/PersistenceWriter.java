@@ -0,0 +1,181 @@
+package com.fstgc.vms.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single background thread that performs all storage writes for {@link DataPersistence}.
+ *
+ * Callers enqueue mutations and return immediately. The writer takes the first queued
+ * request, keeps collecting whatever else arrives within the flush window, and hands the
+ * whole burst to the {@link BatchHandler} as one group commit. Each request carries a
+ * future that completes once the batch containing it is on disk.
+ */
+class PersistenceWriter {
+    interface BatchHandler {
+        void flush(List<Mutation> batch, boolean checkpoint) throws IOException;
+    }
+
+    interface Task {
+        void run() throws IOException;
+    }
+
+    private static final class Request {
+        final List<Mutation> mutations; // empty for flush/checkpoint barriers
+        final boolean checkpoint;
+        final Task task; // run after the batch is written, or null
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Request(List<Mutation> mutations, boolean checkpoint) {
+            this(mutations, checkpoint, null);
+        }
+
+        Request(List<Mutation> mutations, boolean checkpoint, Task task) {
+            this.mutations = mutations;
+            this.checkpoint = checkpoint;
+            this.task = task;
+        }
+
+        boolean isBarrier() { return mutations.isEmpty(); }
+    }
+
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final long windowNanos;
+    private final BatchHandler handler;
+    private final Thread thread;
+    private volatile boolean closed;
+
+    PersistenceWriter(long windowMillis, BatchHandler handler) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.handler = handler;
+        this.thread = new Thread(this::run, "vms-persistence-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    CompletableFuture<Void> submit(Mutation mutation) {
+        return enqueue(new Request(List.of(mutation), false));
+    }
+
+    /** Submits the records of one unit of work; they always end up in the same batch. */
+    CompletableFuture<Void> submit(List<Mutation> mutations) {
+        return mutations.isEmpty() ? CompletableFuture.completedFuture(null) : enqueue(new Request(mutations, false));
+    }
+
+    /** Completes once everything submitted before this call is durable. */
+    CompletableFuture<Void> flush() {
+        return enqueue(new Request(List.of(), false));
+    }
+
+    CompletableFuture<Void> checkpoint() {
+        return enqueue(new Request(List.of(), true));
+    }
+
+    /**
+     * Runs {@code task} on the writer thread once everything submitted before this call is
+     * durable, with no other write in progress until it returns.
+     */
+    CompletableFuture<Void> run(Task task) {
+        return enqueue(new Request(List.of(), false, task));
+    }
+
+    /**
+     * Drains the queue, runs a final checkpoint and stops the thread. Requests submitted
+     * afterwards fail with {@code IllegalStateException}.
+     */
+    void close() {
+        synchronized (queue) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(new Request(List.of(), true));
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CompletableFuture<Void> enqueue(Request request) {
+        // Never waits for the writer, so callers may enqueue while holding their own locks. Under the
+        // same lock as close(), so nothing is queued behind the final checkpoint where no one would run it
+        synchronized (queue) {
+            if (closed) {
+                request.done.completeExceptionally(new IllegalStateException("Persistence writer is closed; the change was not saved"));
+            } else {
+                queue.add(request);
+            }
+        }
+        return request.done;
+    }
+
+    private void run() {
+        List<Request> batch = new ArrayList<>();
+        while (true) {
+            try {
+                Request first = queue.take();
+                batch.add(first);
+                if (!first.isBarrier()) {
+                    collectWindow(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queue.drainTo(batch);
+            }
+            process(batch);
+            batch.clear();
+            if ((closed || Thread.currentThread().isInterrupted()) && queue.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    private void collectWindow(List<Request> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + windowNanos;
+        while (true) {
+            long remaining = deadline - System.nanoTime();
+            Request next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            if (next.isBarrier()) {
+                // Someone is waiting on durability; stop coalescing and flush now
+                return;
+            }
+        }
+    }
+
+    private void process(List<Request> batch) {
+        List<Mutation> mutations = new ArrayList<>(batch.size());
+        boolean checkpoint = false;
+        for (Request request : batch) {
+            mutations.addAll(request.mutations);
+            checkpoint |= request.checkpoint;
+        }
+        try {
+            handler.flush(mutations, checkpoint);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error writing " + mutations.size() + " queued changes: " + e.getMessage());
+            batch.forEach(request -> request.done.completeExceptionally(e));
+            return;
+        }
+        for (Request request : batch) {
+            try {
+                if (request.task != null) {
+                    request.task.run();
+                }
+                request.done.complete(null);
+            } catch (IOException | RuntimeException e) {
+                request.done.completeExceptionally(e);
+            }
+        }
+    }
+}
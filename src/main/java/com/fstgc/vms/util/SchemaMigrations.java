@@ -0,0 +1,150 @@
+package com.fstgc.vms.util;
+
+import com.fstgc.vms.model.Attendance;
+import com.fstgc.vms.model.Timesheet;
+import com.fstgc.vms.model.Volunteer;
+import com.fstgc.vms.model.enums.BadgeTier;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Versions of the entity JSON written by {@link DataPersistence}, and the steps that bring a
+ * record of an older version up to {@link #CURRENT}.
+ * <p>
+ * JSON files record the version they were written with in a leading {@code "schemaVersion"}
+ * property, and journal records in a {@code "schema"} property; files and records without one
+ * predate versioning and are version 1. Migrations run on one record at a time while a file is
+ * streamed in, on the record's JSON tree just before it is bound to its model class, so an old
+ * file is upgraded in the same single pass that loads it. Binary snapshots always hold the
+ * current model, since their record layout is versioned with the format itself.
+ * <p>
+ * To change the schema, bump {@link #CURRENT} and append the step from the previous version to
+ * {@link #STEPS}. Fields that can only be worked out from other aggregates are filled in after
+ * loading instead: {@link DataPersistence} runs {@link #linkAttendance} and {@link #assignTiers}
+ * once all aggregates are in memory whenever it finds files of an older version.
+ */
+final class SchemaMigrations {
+    /** A transformation of one record, in place, from the version before it to the next. */
+    interface Step {
+        void apply(Aggregate aggregate, JsonObject entity);
+    }
+
+    static final int CURRENT = 2;
+    static final String PROPERTY = "schemaVersion";
+
+    // STEPS[v - 1] migrates a record from version v to v + 1
+    private static final Step[] STEPS = {
+        SchemaMigrations::fillOmittedFields,
+    };
+
+    private SchemaMigrations() {
+    }
+
+    /** Fails for files written by a newer version of the application, whose fields this one would drop. */
+    static void check(int version, Path file) throws IOException {
+        if (version < 1 || version > CURRENT) {
+            throw new IOException(file + " has schema version " + version + ", this version of the application reads 1 to " + CURRENT);
+        }
+    }
+
+    /** Brings one record written with {@code version} up to the current schema. */
+    static JsonElement migrate(Aggregate aggregate, JsonElement entity, int version) {
+        if (entity.isJsonObject()) {
+            for (int v = version; v < CURRENT; v++) {
+                STEPS[v - 1].apply(aggregate, entity.getAsJsonObject());
+            }
+        }
+        return entity;
+    }
+
+    /**
+     * Version 1 to 2: records written before these fields existed leave them out. Left out, the
+     * dates would read back as the time of loading, a new value on every start, so they are set
+     * to an explicit null: unknown. Approved hours stay unset too; they cannot be told from the
+     * hours submitted. {@code Volunteer.currentTier} and {@code Timesheet.attendanceId} depend on
+     * other aggregates and are worked out by {@link #linkAttendance} and {@link #assignTiers}
+     * once everything is loaded.
+     */
+    private static void fillOmittedFields(Aggregate aggregate, JsonObject entity) {
+        switch (aggregate) {
+            case VOLUNTEERS:
+                nullIfMissing(entity, "registrationDate");
+                break;
+            case ANNOUNCEMENTS:
+                nullIfMissing(entity, "publishedDate");
+                break;
+            case TIMESHEETS:
+            case ADMINS:
+                nullIfMissing(entity, "createdDate");
+                break;
+            case AWARDS:
+            case EVENTS:
+            case ATTENDANCE:
+                break;
+        }
+    }
+
+    private static void nullIfMissing(JsonObject entity, String field) {
+        if (!entity.has(field)) {
+            entity.add(field, JsonNull.INSTANCE);
+        }
+    }
+
+    /**
+     * Links each timesheet without an attendance record to the one completed attendance of its
+     * volunteer at its event, the record it would have been submitted from. Timesheets with no
+     * such record, or more than one, are left unlinked.
+     * @return the timesheets changed
+     */
+    static List<Timesheet> linkAttendance(Map<Integer, Timesheet> timesheets, Map<Integer, Attendance> attendance) {
+        Map<List<Integer>, List<Attendance>> completed = new HashMap<>();
+        for (Attendance record : attendance.values()) {
+            if (record.getCheckInTime() != null && record.getCheckOutTime() != null) {
+                completed.computeIfAbsent(List.of(record.getVolunteerId(), record.getEventId()), k -> new ArrayList<>()).add(record);
+            }
+        }
+        List<Timesheet> changed = new ArrayList<>();
+        for (Timesheet timesheet : timesheets.values()) {
+            if (timesheet.getAttendanceId() != null || timesheet.getEventId() == null) {
+                continue;
+            }
+            List<Attendance> records = completed.get(List.of(timesheet.getVolunteerId(), timesheet.getEventId()));
+            if (records != null && records.size() == 1) {
+                timesheet.setAttendanceId(records.get(0).getAttendanceId());
+                changed.add(timesheet);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Gives each volunteer without a tier the one their completed attendance earns, as
+     * {@code VolunteerService.updateVolunteerTier} would on their next attendance.
+     * @return the volunteers changed
+     */
+    static List<Volunteer> assignTiers(Map<Integer, Volunteer> volunteers, Map<Integer, Attendance> attendance) {
+        Map<Integer, Double> hours = new HashMap<>();
+        for (Attendance record : attendance.values()) {
+            if (record.getCheckInTime() != null && record.getCheckOutTime() != null) {
+                hours.merge(record.getVolunteerId(), record.getHoursWorked(), Double::sum);
+            }
+        }
+        List<Volunteer> changed = new ArrayList<>();
+        for (Volunteer volunteer : volunteers.values()) {
+            BadgeTier tier = BadgeTier.forHours(hours.getOrDefault(volunteer.getId(), 0.0));
+            if (volunteer.getCurrentTier() == null && tier != null) {
+                volunteer.setCurrentTier(tier);
+                changed.add(volunteer);
+            }
+        }
+        return changed;
+    }
+
+}
@@ -0,0 +1,401 @@
+package com.fstgc.vms.util;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One file per aggregate (or per id partition of a partitioned aggregate) under the
+ * data directory, e.g. {@code volunteers.json} or {@code attendance-0002.vmsb}.
+ * Files are replaced atomically and are written and loaded independently of each other.
+ * New files are written in the configured {@link SnapshotFormat}; files in any known format
+ * are read, and when a shard exists in two formats the newer file wins.
+ * A file is on disk, and so is its name in the directory, by the time a write returns.
+ */
+class ShardStore {
+    /** Forces a file or a directory to disk. */
+    interface Sync {
+        void force(Path path) throws IOException;
+    }
+
+    private static final Pattern SHARD_NAME = Pattern.compile("([a-z]+)(?:-(\\d{4}))?\\.([a-z]+)");
+    // delta-NNNNNN-<aggregate>-of<files in the segment>.<ext>, or delta-NNNNNN.<ext> holding every aggregate as written before
+    private static final Pattern SEGMENT_NAME = Pattern.compile("delta-(\\d{6})(?:-([a-z]+)-of(\\d+))?\\.([a-z]+)");
+
+    private final Path dir;
+    private final SnapshotFormat format;
+    private final Map<String, SnapshotFormat> formats = new LinkedHashMap<>();
+    private final Sync sync;
+    // Highest delta segment sequence number handed out, or -1 until the directory has been scanned
+    private long lastSegment = -1;
+
+    ShardStore(Path dir, SnapshotFormat format, SnapshotFormat... readable) {
+        this(dir, ShardStore::fsync, format, readable);
+    }
+
+    ShardStore(Path dir, Sync sync, SnapshotFormat format, SnapshotFormat... readable) {
+        this.dir = dir;
+        this.sync = sync;
+        this.format = format;
+        formats.put(format.extension(), format);
+        for (SnapshotFormat other : readable) {
+            formats.putIfAbsent(other.extension(), other);
+        }
+    }
+
+    Path file(Aggregate aggregate, int partition) {
+        return file(aggregate, partition, format);
+    }
+
+    private Path file(Aggregate aggregate, int partition, SnapshotFormat in) {
+        String name = aggregate.isPartitioned()
+                ? String.format("%s-%04d.%s", aggregate.key(), partition, in.extension())
+                : aggregate.key() + "." + in.extension();
+        return dir.resolve(name);
+    }
+
+    boolean exists() throws IOException {
+        return !list().isEmpty() || !listSegments().isEmpty();
+    }
+
+    /** The oldest schema version among the shard files and delta segments, or the current one if there are none. */
+    int oldestSchemaVersion() throws IOException {
+        int oldest = SchemaMigrations.CURRENT;
+        List<Path> files = list();
+        files.addAll(listSegments());
+        for (Path file : files) {
+            oldest = Math.min(oldest, formatOf(file).schemaVersion(file));
+        }
+        return oldest;
+    }
+
+    /** Partitions of the aggregate that currently have a shard file. */
+    Set<Integer> partitions(Aggregate aggregate) throws IOException {
+        Set<Integer> partitions = new TreeSet<>();
+        for (Path file : list()) {
+            Matcher matcher = SHARD_NAME.matcher(file.getFileName().toString());
+            if (matcher.matches() && aggregateOf(file) == aggregate) {
+                partitions.add(matcher.group(2) != null ? Integer.parseInt(matcher.group(2)) : 0);
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Loads the shard files of one aggregate in parallel, streaming each entity straight into
+     * the sink. The sink is called from several threads at once.
+     * @return number of entities read
+     */
+    int load(Aggregate aggregate, BiConsumer<Integer, Object> sink) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path file : list()) {
+            if (aggregateOf(file) == aggregate) {
+                files.add(file);
+            }
+        }
+        if (files.isEmpty()) {
+            return 0;
+        }
+        if (files.size() == 1) {
+            return formatOf(files.get(0)).read(files.get(0), aggregate, sink);
+        }
+        int threads = Math.min(files.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "vms-shard-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Integer>> loads = new ArrayList<>();
+            for (Path file : files) {
+                SnapshotFormat in = formatOf(file);
+                loads.add(pool.submit(() -> in.read(file, aggregate, sink)));
+            }
+            int count = 0;
+            for (int i = 0; i < files.size(); i++) {
+                count += await(loads.get(i), files.get(i));
+            }
+            return count;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    void write(Aggregate aggregate, int partition, SortedMap<Integer, Object> entities) throws IOException {
+        Path target = file(aggregate, partition);
+        if (entities.isEmpty() && aggregate.isPartitioned()) {
+            deleteOthers(aggregate, partition, null);
+            return;
+        }
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        format.write(temp, aggregate, partition, entities);
+        replace(temp, target);
+        deleteOthers(aggregate, partition, format);
+    }
+
+    /**
+     * Reserves the sequence number of the next delta segment. Segments are applied in sequence
+     * order on load, so callers reserve the number at the moment they take the changes.
+     */
+    synchronized long nextSegment() throws IOException {
+        lastSegment = lastSegment() + 1;
+        return lastSegment;
+    }
+
+    /**
+     * Writes changes under a sequence number from {@link #nextSegment()}, one file per aggregate,
+     * e.g. {@code delta-000042-volunteers-of2.json}; a null entity records a deletion. The files
+     * are renamed into place only once all of them are on disk, and a segment missing one of its
+     * files is skipped on load, so a crash never applies part of the changes.
+     */
+    void writeSegment(long sequence, Map<Aggregate, ? extends Map<Integer, Object>> changes) throws IOException {
+        Map<Path, Path> temps = new LinkedHashMap<>();
+        for (Map.Entry<Aggregate, ? extends Map<Integer, Object>> entry : changes.entrySet()) {
+            Path target = dir.resolve(String.format("delta-%06d-%s-of%d.%s",
+                    sequence, entry.getKey().key(), changes.size(), format.extension()));
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+            format.writeAll(temp, Collections.singletonMap(entry.getKey(), entry.getValue()));
+            sync.force(temp);
+            temps.put(temp, target);
+        }
+        for (Map.Entry<Path, Path> temp : temps.entrySet()) {
+            Files.move(temp.getKey(), temp.getValue(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        sync.force(dir);
+    }
+
+    /**
+     * Moves a finished temp file over the target. The data is forced before the rename and the
+     * directory after it, so that a crash leaves either the old file or the whole new one, and
+     * the callers may then drop the journal records or segments the file replaces.
+     */
+    private void replace(Path temp, Path target) throws IOException {
+        sync.force(temp);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        sync.force(dir);
+    }
+
+    private static void fsync(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Windows cannot open a directory at all; NTFS journals the rename itself
+        }
+    }
+
+    /**
+     * Replays one aggregate's changes from the delta segments in sequence order, after its
+     * shard files have been loaded. Only the aggregate's own segment files are read, and the
+     * combined files of earlier versions. Deleted ids reach the sink with a null entity.
+     * @return number of segment files read
+     */
+    int loadSegments(Aggregate aggregate, BiConsumer<Integer, Object> sink) throws IOException {
+        List<Path> segments = listSegments();
+        Map<Long, Integer> found = new HashMap<>();
+        for (Path segment : segments) {
+            found.merge(sequenceOf(segment), 1, Integer::sum);
+        }
+        int read = 0;
+        for (Path segment : segments) {
+            Matcher matcher = SEGMENT_NAME.matcher(segment.getFileName().toString());
+            matcher.matches();
+            if (matcher.group(2) != null) {
+                if (!matcher.group(2).equals(aggregate.key())) {
+                    continue;
+                }
+                if (found.get(sequenceOf(segment)) < Integer.parseInt(matcher.group(3))) {
+                    // Cut short by a crash while it was renamed into place; the journal still holds its changes
+                    System.err.println("Skipping incomplete delta segment " + segment);
+                    continue;
+                }
+            }
+            formatOf(segment).readAll(segment, (segmentAggregate, id, entity) -> {
+                if (segmentAggregate == aggregate) {
+                    sink.accept(id, entity);
+                }
+            });
+            read++;
+        }
+        return read;
+    }
+
+    /**
+     * Deletes the segments up to and including {@code sequence}, once a snapshot contains their changes.
+     * @return number of segments deleted
+     */
+    int deleteSegments(long sequence) throws IOException {
+        Set<Long> deleted = new HashSet<>();
+        for (Path segment : listSegments()) {
+            if (sequenceOf(segment) <= sequence && Files.deleteIfExists(segment)) {
+                deleted.add(sequenceOf(segment));
+            }
+        }
+        return deleted.size();
+    }
+
+    /** Every shard file, in any format, followed by every delta segment in sequence order. */
+    List<Path> files() throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path file : stream) {
+                    if (aggregateOf(file) != null && formatOf(file) != null) {
+                        files.add(file);
+                    }
+                }
+            }
+        }
+        Collections.sort(files);
+        files.addAll(listSegments());
+        return files;
+    }
+
+    /**
+     * Deletes every shard file, in any format, and every delta segment.
+     * @return number of files deleted
+     */
+    int deleteAll() throws IOException {
+        int deleted = 0;
+        for (Path file : files()) {
+            if (Files.deleteIfExists(file)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    int segmentCount() throws IOException {
+        Set<Long> sequences = new HashSet<>();
+        for (Path segment : listSegments()) {
+            sequences.add(sequenceOf(segment));
+        }
+        return sequences.size();
+    }
+
+    long segmentBytes() throws IOException {
+        return sizeOf(listSegments());
+    }
+
+    /** Total size of the shard files and delta segments. */
+    long diskUsage() throws IOException {
+        return sizeOf(list()) + segmentBytes();
+    }
+
+    private static long sizeOf(List<Path> files) throws IOException {
+        long bytes = 0;
+        for (Path file : files) {
+            try {
+                bytes += Files.size(file);
+            } catch (NoSuchFileException e) {
+                // removed by a concurrent compaction
+            }
+        }
+        return bytes;
+    }
+
+    /** Sequence number of the newest segment handed out so far. */
+    synchronized long lastSegment() throws IOException {
+        if (lastSegment < 0) {
+            List<Path> segments = listSegments();
+            lastSegment = segments.isEmpty() ? 0 : sequenceOf(segments.get(segments.size() - 1));
+        }
+        return lastSegment;
+    }
+
+    private List<Path> listSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "delta-*")) {
+            for (Path file : stream) {
+                if (SEGMENT_NAME.matcher(file.getFileName().toString()).matches() && formatOf(file) != null) {
+                    segments.add(file);
+                }
+            }
+        }
+        segments.sort(Comparator.comparingLong(ShardStore::sequenceOf));
+        return segments;
+    }
+
+    private static long sequenceOf(Path segment) {
+        Matcher matcher = SEGMENT_NAME.matcher(segment.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    /** Removes copies of the shard in every format except {@code keep}, so a stale file can never shadow the new one. */
+    private void deleteOthers(Aggregate aggregate, int partition, SnapshotFormat keep) throws IOException {
+        for (SnapshotFormat other : formats.values()) {
+            if (other != keep) {
+                Files.deleteIfExists(file(aggregate, partition, other));
+            }
+        }
+    }
+
+    private List<Path> list() throws IOException {
+        // Keyed by shard name without extension; the most recently written format wins
+        Map<String, Path> newest = new TreeMap<>();
+        if (!Files.isDirectory(dir)) {
+            return new ArrayList<>();
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path file : stream) {
+                if (aggregateOf(file) == null || formatOf(file) == null) {
+                    continue;
+                }
+                String name = file.getFileName().toString();
+                String shard = name.substring(0, name.lastIndexOf('.'));
+                Path current = newest.get(shard);
+                if (current == null || Files.getLastModifiedTime(file).compareTo(Files.getLastModifiedTime(current)) > 0) {
+                    newest.put(shard, file);
+                }
+            }
+        }
+        return new ArrayList<>(newest.values());
+    }
+
+    private SnapshotFormat formatOf(Path file) {
+        String name = file.getFileName().toString();
+        return formats.get(name.substring(name.lastIndexOf('.') + 1));
+    }
+
+    private static Aggregate aggregateOf(Path file) {
+        Matcher matcher = SHARD_NAME.matcher(file.getFileName().toString());
+        if (!matcher.matches()) {
+            return null;
+        }
+        for (Aggregate aggregate : Aggregate.values()) {
+            if (aggregate.key().equals(matcher.group(1)) && aggregate.isPartitioned() == (matcher.group(2) != null)) {
+                return aggregate;
+            }
+        }
+        return null;
+    }
+
+    private static <T> T await(Future<T> future, Path file) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading " + file, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error loading " + file + ": " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.fstgc.vms.util;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Folds delta segments back into the shard files on a background thread once they pass a
+ * count or size threshold. The snapshot itself is written by the {@link Snapshot} callback
+ * from a point-in-time copy of the tables; this class decides when to run it and keeps the
+ * {@link CompactionMetrics}. Checkpoints and saves carry on while a compaction runs.
+ */
+final class SnapshotCompactor {
+    interface Snapshot {
+        /**
+         * Writes every shard file from one consistent view and deletes the segments it covers.
+         * @return number of segments deleted
+         */
+        int write() throws IOException;
+    }
+
+    private final ShardStore shards;
+    private final Snapshot snapshot;
+    private final int maxSegments;
+    private final long maxSegmentBytes;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "vms-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile CompactionMetrics metrics = CompactionMetrics.NONE;
+    private CompletableFuture<Void> current;
+
+    SnapshotCompactor(ShardStore shards, Snapshot snapshot, int maxSegments, long maxSegmentBytes) {
+        this.shards = shards;
+        this.snapshot = snapshot;
+        this.maxSegments = maxSegments;
+        this.maxSegmentBytes = maxSegmentBytes;
+    }
+
+    CompactionMetrics metrics() {
+        return metrics;
+    }
+
+    /** Starts a compaction if the segments have outgrown the thresholds and none is running yet. */
+    void maybeCompact() {
+        try {
+            if (shards.segmentCount() >= maxSegments || shards.segmentBytes() >= maxSegmentBytes) {
+                compact();
+            }
+        } catch (IOException e) {
+            System.err.println("Error checking delta segments: " + e.getMessage());
+        }
+    }
+
+    /** Starts a compaction now, or returns the one already running. */
+    synchronized CompletableFuture<Void> compact() {
+        if (current == null || current.isDone()) {
+            current = CompletableFuture.runAsync(this::run, executor);
+        }
+        return current;
+    }
+
+    private void run() {
+        try {
+            long before = shards.diskUsage();
+            long start = System.nanoTime();
+            int merged = snapshot.write();
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            long reclaimed = Math.max(0, before - shards.diskUsage());
+            metrics = metrics.completed(merged, elapsed, reclaimed);
+            System.out.println("Compacted " + merged + " delta segment(s) in " + elapsed + " ms, reclaimed " + reclaimed + " bytes");
+        } catch (IOException | RuntimeException e) {
+            metrics = metrics.failed();
+            System.err.println("Error compacting delta segments, will retry after the next checkpoint: " + e.getMessage());
+        }
+    }
+
+    /** Waits for a running compaction to finish; a half-written one is simply redone on the next start. */
+    void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.fstgc.vms.util;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Converts a whole database between the legacy single-file JSON layout ({@code vmsdatabase.txt})
+ * and a single binary snapshot file. Every field survives the round trip, so a binary file
+ * converted back produces the same JSON the application would have written. The output is
+ * compressed when {@code -Dvms.persistence.compression} is set.
+ * <p>
+ * {@code upgrade} rewrites a JSON database in the current {@link SchemaMigrations schema},
+ * one record at a time, so it needs memory for a single record however large the file is.
+ *
+ * <pre>
+ * java com.fstgc.vms.util.SnapshotConverter to-binary database/vmsdatabase.txt vmsdatabase.vmsb
+ * java com.fstgc.vms.util.SnapshotConverter to-json vmsdatabase.vmsb vmsdatabase.txt
+ * java com.fstgc.vms.util.SnapshotConverter upgrade old/vmsdatabase.txt vmsdatabase.txt
+ * </pre>
+ */
+public final class SnapshotConverter {
+    private SnapshotConverter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3 || !(args[0].equals("to-binary") || args[0].equals("to-json") || args[0].equals("upgrade"))) {
+            System.err.println("Usage: SnapshotConverter to-binary|to-json|upgrade <input> <output>");
+            System.exit(2);
+        }
+        Path input = Paths.get(args[1]);
+        Path output = Paths.get(args[2]);
+        long start = System.nanoTime();
+        if (args[0].equals("upgrade")) {
+            int count = upgrade(input, output);
+            System.out.println("Upgraded " + count + " entities from " + input + " to schema version " + SchemaMigrations.CURRENT
+                    + " in " + output + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            return;
+        }
+        Map<Aggregate, NavigableMap<Integer, Object>> tables = args[0].equals("to-binary")
+                ? readJson(input) : readBinary(input);
+        if (args[0].equals("to-binary")) {
+            new BinarySnapshotFormat(DataPersistence.compression()).writeAll(output, tables);
+        } else {
+            new JsonSnapshotFormat(DataPersistence.gson(), DataPersistence.compression()).writeAll(output, tables);
+        }
+        LoadReport report = LoadReport.of(input.toString(), tables, System.nanoTime() - start);
+        System.out.println("Converted " + report + " to " + output + " (" + Files.size(input) + " -> " + Files.size(output) + " bytes)");
+    }
+
+    static Map<Aggregate, NavigableMap<Integer, Object>> readJson(Path file) throws IOException {
+        Map<Aggregate, NavigableMap<Integer, Object>> tables = emptyTables();
+        StreamingJsonLoader.readLegacy(file, DataPersistence.gson(), (aggregate, id, entity) -> tables.get(aggregate).put(id, entity));
+        return tables;
+    }
+
+    /** Streams a legacy-layout JSON file to {@code output}, migrating each record as it passes through. */
+    static int upgrade(Path input, Path output) throws IOException {
+        Gson gson = DataPersistence.gson();
+        int count = 0;
+        int version = 1;
+        try (JsonReader reader = StreamingJsonLoader.open(input);
+             JsonWriter writer = gson.newJsonWriter(new BufferedWriter(new OutputStreamWriter(
+                     DataPersistence.compression().wrap(Files.newOutputStream(output)), StandardCharsets.UTF_8)))) {
+            writer.setSerializeNulls(true);
+            writer.beginObject();
+            writer.name(SchemaMigrations.PROPERTY).value(SchemaMigrations.CURRENT);
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals(SchemaMigrations.PROPERTY)) {
+                    version = reader.nextInt();
+                    SchemaMigrations.check(version, input);
+                    continue;
+                }
+                Aggregate aggregate = find(name);
+                if (aggregate == null) {
+                    reader.skipValue();
+                    continue;
+                }
+                writer.name(name).beginObject();
+                count += StreamingJsonLoader.readEntities(reader, gson, aggregate, version, (id, entity) -> {
+                    try {
+                        writer.name(String.valueOf(id));
+                        if (entity == null) {
+                            writer.nullValue();
+                        } else {
+                            gson.toJson(entity, aggregate.entityType(), writer);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writer.endObject();
+            }
+            reader.endObject();
+            writer.endObject();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return count;
+    }
+
+    private static Aggregate find(String key) {
+        for (Aggregate aggregate : Aggregate.values()) {
+            if (aggregate.key().equals(key)) {
+                return aggregate;
+            }
+        }
+        return null;
+    }
+
+    static Map<Aggregate, NavigableMap<Integer, Object>> readBinary(Path file) throws IOException {
+        Map<Aggregate, NavigableMap<Integer, Object>> tables = emptyTables();
+        new BinarySnapshotFormat().readAll(file, (aggregate, id, entity) -> tables.get(aggregate).put(id, entity));
+        return tables;
+    }
+
+    private static Map<Aggregate, NavigableMap<Integer, Object>> emptyTables() {
+        Map<Aggregate, NavigableMap<Integer, Object>> tables = new EnumMap<>(Aggregate.class);
+        for (Aggregate aggregate : Aggregate.values()) {
+            tables.put(aggregate, new ConcurrentSkipListMap<>());
+        }
+        return tables;
+    }
+}
@@ -0,0 +1,51 @@
+package com.fstgc.vms.util;
+
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.BiConsumer;
+
+/**
+ * On-disk encoding of one shard file. Selected with {@code -Dvms.persistence.format=json|binary};
+ * files written in either format are always readable, so switching formats needs no conversion step.
+ */
+interface SnapshotFormat {
+    /** File extension, without the dot, that identifies files in this format. */
+    String extension();
+
+    void write(Path file, Aggregate aggregate, int partition, SortedMap<Integer, Object> entities) throws IOException;
+
+    /**
+     * Streams every entity in the file to the sink.
+     * @return number of entities read
+     */
+    int read(Path file, Aggregate aggregate, BiConsumer<Integer, Object> sink) throws IOException;
+
+    /**
+     * Writes entities of several aggregates to one file. A null entity marks a deleted id,
+     * which is how delta segments record removals.
+     */
+    void writeAll(Path file, Map<Aggregate, ? extends Map<Integer, Object>> aggregates) throws IOException;
+
+    /**
+     * Streams every entity of every aggregate in a file written by {@link #writeAll}; deleted ids
+     * reach the sink with a null entity.
+     * @return number of entities read
+     */
+    int readAll(Path file, StreamingJsonLoader.EntitySink sink) throws IOException;
+
+    /** The {@link SchemaMigrations} version the records of a file were written with. */
+    default int schemaVersion(Path file) throws IOException {
+        return SchemaMigrations.CURRENT;
+    }
+
+    static SnapshotFormat named(String name, Gson gson, Compression compression) {
+        switch (name.toLowerCase()) {
+            case "json": return new JsonSnapshotFormat(gson, compression);
+            case "binary": return new BinarySnapshotFormat(compression);
+            default: throw new IllegalArgumentException("Unknown persistence format: " + name);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.fstgc.vms.util;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.BiConsumer;
+
+/**
+ * Reads persisted JSON token by token with {@link JsonReader}, handing each entity to a sink
+ * as soon as it is parsed. Neither the raw file text nor an intermediate JSON tree is ever
+ * held in memory, so peak heap during load is roughly the size of the resulting objects.
+ * Records of files written with an older schema are parsed one at a time into a JSON tree and
+ * run through {@link SchemaMigrations} before they are bound.
+ */
+final class StreamingJsonLoader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    interface EntitySink {
+        void accept(Aggregate aggregate, int id, Object entity);
+    }
+
+    private StreamingJsonLoader() {
+    }
+
+    /** Opens a JSON file, inflating it on the fly if it was written compressed. */
+    static JsonReader open(Path file) throws IOException {
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(Compression.unwrap(Files.newInputStream(file)), StandardCharsets.UTF_8), BUFFER_SIZE);
+        return new JsonReader(reader);
+    }
+
+    /**
+     * Reads a JSON object of {@code "id": entity} pairs written with schema {@code version}.
+     * @return number of entities read
+     */
+    static int readEntities(JsonReader reader, Gson gson, Aggregate aggregate, int version, BiConsumer<Integer, Object> sink) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return 0;
+        }
+        TypeAdapter<?> adapter = gson.getAdapter(aggregate.entityType());
+        boolean migrate = version < SchemaMigrations.CURRENT;
+        int count = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            int id = Integer.parseInt(reader.nextName());
+            if (migrate && reader.peek() != JsonToken.NULL) {
+                sink.accept(id, adapter.fromJsonTree(SchemaMigrations.migrate(aggregate, JsonParser.parseReader(reader), version)));
+            } else {
+                sink.accept(id, adapter.read(reader));
+            }
+            count++;
+        }
+        reader.endObject();
+        return count;
+    }
+
+    /** The schema version a file was written with, read from its leading property; 1 if it has none. */
+    static int schemaVersion(Path file) throws IOException {
+        if (Files.size(file) == 0) {
+            return SchemaMigrations.CURRENT;
+        }
+        try (JsonReader reader = open(file)) {
+            reader.beginObject();
+            if (reader.hasNext() && reader.nextName().equals(SchemaMigrations.PROPERTY)) {
+                return reader.nextInt();
+            }
+            return 1;
+        }
+    }
+
+    /** Reads a shard file: {@code {"schemaVersion": ..., "aggregate": ..., "partition": ..., "entities": {...}}}. */
+    static int readShard(Path file, Gson gson, Aggregate aggregate, BiConsumer<Integer, Object> sink) throws IOException {
+        int count = 0;
+        int version = 1;
+        try (JsonReader reader = open(file)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals(SchemaMigrations.PROPERTY)) {
+                    version = reader.nextInt();
+                    SchemaMigrations.check(version, file);
+                } else if (name.equals("entities")) {
+                    count += readEntities(reader, gson, aggregate, version, sink);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        return count;
+    }
+
+    /** Reads the legacy single-file layout, one top-level section per aggregate. */
+    static int readLegacy(Path file, Gson gson, EntitySink sink) throws IOException {
+        if (Files.size(file) == 0) {
+            return 0;
+        }
+        int count = 0;
+        int version = 1;
+        try (JsonReader reader = open(file)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals(SchemaMigrations.PROPERTY)) {
+                    version = reader.nextInt();
+                    SchemaMigrations.check(version, file);
+                    continue;
+                }
+                Aggregate aggregate = find(name);
+                if (aggregate == null) {
+                    reader.skipValue();
+                    continue;
+                }
+                count += readEntities(reader, gson, aggregate, version, (id, entity) -> sink.accept(aggregate, id, entity));
+            }
+            reader.endObject();
+        }
+        return count;
+    }
+
+    private static Aggregate find(String key) {
+        for (Aggregate aggregate : Aggregate.values()) {
+            if (aggregate.key().equals(key)) {
+                return aggregate;
+            }
+        }
+        return null;
+    }
+}
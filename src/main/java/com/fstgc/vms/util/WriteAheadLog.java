@@ -0,0 +1,182 @@
+package com.fstgc.vms.util;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of {@link Mutation}s.
+ *
+ * Each record is one line: the CRC32 of the JSON payload as 8 hex digits, a space,
+ * and the compact JSON payload. A line that is incomplete or fails its checksum marks
+ * a torn write from a crash; replay stops there and the tail is cut off. An intact record
+ * that cannot be read, such as one written by a newer version of the application, fails the
+ * replay instead and leaves the file as it is.
+ * <p>
+ * The records of a unit of work carry {@code "more":true} on all but the last, so a unit
+ * whose last record did not make it to disk is cut off as a whole. Entities carry the
+ * {@link SchemaMigrations} version they were written with and are migrated on replay.
+ */
+class WriteAheadLog implements Closeable {
+    private final Path path;
+    private final boolean fsync;
+    private FileChannel channel;
+    private long size;
+    private int records;
+
+    WriteAheadLog(Path path, boolean fsync) {
+        this.path = path;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Feeds every intact record to the sink in order and opens the log for appending.
+     * @return number of records replayed
+     * @throws IOException if an intact record cannot be read; the file is not changed then
+     */
+    int replay(Consumer<Mutation> sink) throws IOException {
+        long validBytes = 0;
+        long unitBytes = 0;
+        int count = 0;
+        List<Mutation> unit = new ArrayList<>();
+        if (Files.exists(path)) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    Mutation mutation = decode(line, count + unit.size() + 1);
+                    if (mutation == null) {
+                        System.err.println("Journal " + path + " has a torn record after " + count + " entries; discarding tail");
+                        break;
+                    }
+                    unit.add(mutation);
+                    unitBytes += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                    if (!mutation.more) {
+                        unit.forEach(sink);
+                        count += unit.size();
+                        validBytes += unitBytes;
+                        unit.clear();
+                        unitBytes = 0;
+                    }
+                }
+            }
+        }
+        if (!unit.isEmpty()) {
+            System.err.println("Journal " + path + " ends in an incomplete unit of " + unit.size() + " record(s); discarding it");
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (validBytes > channel.size()) {
+            // Last record is intact but lost its newline; restore it so the next append starts a fresh line
+            channel.position(channel.size());
+            channel.write(ByteBuffer.wrap(new byte[] {'\n'}));
+        }
+        channel.truncate(validBytes);
+        channel.position(validBytes);
+        size = validBytes;
+        records = count;
+        return count;
+    }
+
+    /** Appends a group of records with a single write and, if enabled, a single fsync. */
+    void append(List<Mutation> mutations) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (Mutation mutation : mutations) {
+            String payload = encode(mutation).toString();
+            lines.append(checksum(payload)).append(' ').append(payload).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        int length = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+        size += length;
+        records += mutations.size();
+    }
+
+    /** Discards all records; called once their effects are in a durable snapshot. */
+    void truncate() throws IOException {
+        channel.truncate(0);
+        channel.position(0);
+        if (fsync) {
+            channel.force(true);
+        }
+        size = 0;
+        records = 0;
+    }
+
+    long size() { return size; }
+    int records() { return records; }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private static JsonObject encode(Mutation mutation) {
+        JsonObject json = new JsonObject();
+        json.addProperty("op", mutation.op.name());
+        json.addProperty("aggregate", mutation.aggregate.key());
+        json.addProperty("id", mutation.id);
+        if (mutation.entity != null) {
+            json.addProperty("schema", SchemaMigrations.CURRENT);
+            json.add("entity", mutation.entity);
+        }
+        if (mutation.more) {
+            json.addProperty("more", true);
+        }
+        return json;
+    }
+
+    /** @return the record on {@code line}, or null if it is torn: cut short or failing its checksum */
+    private Mutation decode(String line, int number) throws IOException {
+        int space = line.indexOf(' ');
+        if (space != 8) {
+            return null;
+        }
+        String payload = line.substring(space + 1);
+        if (!line.substring(0, space).equals(checksum(payload))) {
+            return null;
+        }
+        try {
+            JsonObject json = JsonParser.parseString(payload).getAsJsonObject();
+            Aggregate aggregate = Aggregate.fromKey(json.get("aggregate").getAsString());
+            int id = json.get("id").getAsInt();
+            Mutation mutation = Mutation.Op.valueOf(json.get("op").getAsString()) == Mutation.Op.DELETE
+                    ? Mutation.delete(aggregate, id)
+                    : Mutation.put(aggregate, id, migrate(aggregate, json));
+            return json.has("more") && json.get("more").getAsBoolean() ? mutation.withMore() : mutation;
+        } catch (RuntimeException e) {
+            // The checksum matched, so this is what was written, not a torn write
+            throw new IOException("Journal " + path + " record " + number + " cannot be read: " + e.getMessage(), e);
+        }
+    }
+
+    private JsonElement migrate(Aggregate aggregate, JsonObject json) throws IOException {
+        int version = json.has("schema") ? json.get("schema").getAsInt() : 1;
+        SchemaMigrations.check(version, path);
+        return SchemaMigrations.migrate(aggregate, json.get("entity"), version);
+    }
+
+    private static String checksum(String payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload.getBytes(StandardCharsets.UTF_8));
+        return String.format("%08x", crc.getValue());
+    }
+}
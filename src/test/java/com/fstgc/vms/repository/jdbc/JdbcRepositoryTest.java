@@ -0,0 +1,178 @@
+package com.fstgc.vms.repository.jdbc;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fstgc.vms.model.Event;
+import com.fstgc.vms.model.SystemAdmin;
+import com.fstgc.vms.model.Volunteer;
+import com.fstgc.vms.model.enums.EventStatus;
+import com.fstgc.vms.model.enums.VolunteerStatus;
+import com.fstgc.vms.repository.AdminRepository;
+import com.fstgc.vms.repository.EventRepository;
+import com.fstgc.vms.repository.VolunteerRepository;
+import com.fstgc.vms.service.UnitOfWork;
+import com.fstgc.vms.util.DataPersistence;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Each test gets its own private in-memory H2 database, gone when it is closed. */
+class JdbcRepositoryTest {
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+    private static final LocalDate MAY_1 = LocalDate.of(2025, 5, 1);
+
+    private JdbcRepositoryFactory factory;
+
+    @BeforeAll
+    static void open() {
+        // A unit of work also opens a transaction of the file store
+        DataPersistence.initialize();
+    }
+
+    @BeforeEach
+    void openDatabase() throws SQLException {
+        factory = new JdbcRepositoryFactory(JdbcDatabase.open("jdbc:h2:mem:vms-test-" + DATABASES.incrementAndGet()));
+    }
+
+    @AfterEach
+    void closeDatabase() throws SQLException {
+        UnitOfWork.useTransactions(null);
+        factory.database().close();
+    }
+
+    @Test
+    void savesFindsUpdatesAndDeletes() {
+        VolunteerRepository volunteers = factory.volunteers();
+        Volunteer ada = volunteers.save(volunteer("Ada", "ada@example.com"));
+        Volunteer grace = volunteers.save(volunteer("Grace", "grace@example.com"));
+        assertEquals(ada.getId() + 1, grace.getId());
+
+        Volunteer read = volunteers.findById(ada.getId()).orElseThrow();
+        assertEquals("Ada", read.getFirstName());
+        assertEquals(ada.getRegistrationDate(), read.getRegistrationDate());
+        assertEquals(VolunteerStatus.ACTIVE, read.getStatus());
+        assertEquals(grace.getId(), volunteers.findByEmail("GRACE@example.com").orElseThrow().getId());
+
+        read.setStatus(VolunteerStatus.INACTIVE);
+        read.setLastName("Byron");
+        volunteers.update(read);
+        assertEquals("Byron", volunteers.findById(ada.getId()).orElseThrow().getLastName());
+        assertEquals(List.of(ada.getId()), ids(volunteers.filterByStatus("inactive")));
+        assertEquals(List.of(ada.getId()), ids(volunteers.searchByName("ada byr")));
+
+        assertTrue(volunteers.delete(grace.getId()));
+        assertFalse(volunteers.delete(grace.getId()));
+        assertTrue(volunteers.findByEmail("grace@example.com").isEmpty());
+        assertEquals(List.of(ada.getId()), ids(volunteers.findAll()));
+    }
+
+    @Test
+    void rejectsTakenEmailIgnoringCase() {
+        VolunteerRepository volunteers = factory.volunteers();
+        Volunteer ada = volunteers.save(volunteer("Ada", "ada@example.com"));
+        Volunteer grace = volunteers.save(volunteer("Grace", "grace@example.com"));
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> volunteers.save(volunteer("Other", "ADA@example.com")));
+        assertEquals("Email already exists", error.getMessage());
+        grace.setEmail("Ada@Example.com");
+        assertThrows(IllegalArgumentException.class, () -> volunteers.update(grace));
+
+        // A volunteer keeps its own email through updates
+        ada.setFirstName("Adele");
+        volunteers.update(ada);
+        assertEquals("Adele", volunteers.findByEmail("ada@example.com").orElseThrow().getFirstName());
+        assertEquals(2, volunteers.findAll().size());
+    }
+
+    @Test
+    void rejectsTakenUsernameOrEmailOfAdmins() {
+        AdminRepository admins = factory.admins();
+        SystemAdmin root = admins.save(admin("root", "root@example.com"));
+
+        assertEquals("Username already exists",
+                assertThrows(IllegalArgumentException.class, () -> admins.save(admin("ROOT", "other@example.com"))).getMessage());
+        assertEquals("Email already exists",
+                assertThrows(IllegalArgumentException.class, () -> admins.save(admin("other", "Root@example.com"))).getMessage());
+        assertEquals(root.getId(), admins.findByUsername("Root").orElseThrow().getId());
+        assertEquals(root.getId(), admins.findByUsername("root@example.com").orElseThrow().getId());
+        assertTrue(admins.findByUsername("other").isEmpty());
+    }
+
+    @Test
+    void rollsBackAFailedUnitOfWork() {
+        UnitOfWork.useTransactions(factory.database()::inTransaction);
+        VolunteerRepository volunteers = factory.volunteers();
+        Volunteer ada = volunteers.save(volunteer("Ada", "ada@example.com"));
+
+        assertThrows(IllegalArgumentException.class, () -> UnitOfWork.run(() -> {
+            volunteers.save(volunteer("Linus", "linus@example.com"));
+            volunteers.delete(ada.getId());
+            // Fails on the unique email after the writes above
+            volunteers.save(volunteer("Grace", "grace@example.com"));
+            return volunteers.save(volunteer("Twin", "GRACE@example.com"));
+        }));
+
+        assertTrue(volunteers.findById(ada.getId()).isPresent());
+        assertTrue(volunteers.findByEmail("linus@example.com").isEmpty());
+        assertTrue(volunteers.findByEmail("grace@example.com").isEmpty());
+        assertEquals(List.of(ada.getId()), ids(volunteers.findAll()));
+
+        UnitOfWork.run(() -> volunteers.save(volunteer("Grace", "grace@example.com")));
+        assertEquals(2, volunteers.findAll().size());
+    }
+
+    @Test
+    void findsPastAndCancelledEventsNewestFirst() {
+        EventRepository events = factory.events();
+        int old = events.save(event(MAY_1.minusDays(10), EventStatus.PUBLISHED)).getEventId();
+        int completedEarly = events.save(event(MAY_1.plusDays(3), EventStatus.COMPLETED)).getEventId();
+        int yesterday = events.save(event(MAY_1.minusDays(1), EventStatus.PUBLISHED)).getEventId();
+        int cancelled = events.save(event(MAY_1.minusDays(2), EventStatus.CANCELLED)).getEventId();
+        int cancelledLater = events.save(event(MAY_1.plusDays(5), EventStatus.CANCELLED)).getEventId();
+        events.save(event(MAY_1, EventStatus.PUBLISHED));
+
+        assertEquals(List.of(completedEarly, yesterday, old), eventIds(events.findPast(MAY_1, 10)));
+        assertEquals(List.of(completedEarly, yesterday), eventIds(events.findPast(MAY_1, 2)));
+        assertEquals(List.of(cancelledLater, cancelled), eventIds(events.findCancelled(10)));
+        assertEquals(List.of(cancelledLater), eventIds(events.findCancelled(1)));
+    }
+
+    private static List<Integer> ids(List<Volunteer> volunteers) {
+        return volunteers.stream().map(Volunteer::getId).collect(Collectors.toList());
+    }
+
+    private static List<Integer> eventIds(List<Event> events) {
+        return events.stream().map(Event::getEventId).collect(Collectors.toList());
+    }
+
+    private static Volunteer volunteer(String firstName, String email) {
+        Volunteer volunteer = new Volunteer();
+        volunteer.setFirstName(firstName);
+        volunteer.setLastName("Tester");
+        volunteer.setEmail(email);
+        return volunteer;
+    }
+
+    private static SystemAdmin admin(String username, String email) {
+        SystemAdmin admin = new SystemAdmin();
+        admin.setUsername(username);
+        admin.setEmail(email);
+        admin.setPasswordHash("hash");
+        return admin;
+    }
+
+    private static Event event(LocalDate date, EventStatus status) {
+        Event event = new Event();
+        event.setTitle("Event on " + date);
+        event.setEventDate(date);
+        event.setStatus(status);
+        return event;
+    }
+}
@@ -0,0 +1,94 @@
+package com.fstgc.vms.repository.memory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fstgc.vms.model.Announcement;
+import com.fstgc.vms.model.enums.Priority;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ActiveAnnouncementIndexTest {
+    private final Object lock = new Object();
+    private final ActiveAnnouncementIndex active = new ActiveAnnouncementIndex(lock);
+
+    @Test
+    void ordersByPriorityThenNewest() {
+        LocalDateTime now = LocalDateTime.now();
+        active.add(1, announcement(Priority.LOW, now.minusDays(1), null));
+        active.add(2, announcement(Priority.URGENT, now.minusDays(3), null));
+        active.add(3, announcement(Priority.LOW, now, now.plusDays(1)));
+        active.add(4, announcement(Priority.URGENT, now.minusDays(2), null));
+        active.add(5, announcement(null, now, null));
+
+        assertEquals(List.of(4, 2, 3, 1, 5), active.get());
+    }
+
+    @Test
+    void skipsDeletedAndExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        Announcement deleted = announcement(Priority.HIGH, now, null);
+        deleted.setDeleted(true);
+        active.add(1, deleted);
+        active.add(2, announcement(Priority.HIGH, now, now.minusMinutes(1)));
+        active.add(3, announcement(Priority.HIGH, now, null));
+        active.remove(3);
+
+        assertEquals(List.of(), active.get());
+        assertEquals(0, active.size());
+    }
+
+    @Test
+    void evictsOnceExpired() throws InterruptedException {
+        LocalDateTime now = LocalDateTime.now();
+        active.add(1, announcement(Priority.HIGH, now, now.plusNanos(200_000_000)));
+        active.add(2, announcement(Priority.LOW, now, null));
+        active.add(3, announcement(Priority.MEDIUM, now, now.plusDays(1)));
+        assertEquals(List.of(1, 3, 2), active.get());
+
+        awaitSize(2);
+        assertEquals(List.of(3, 2), active.get());
+    }
+
+    @Test
+    void keepsAnnouncementWhoseExpiryWasLifted() throws InterruptedException {
+        LocalDateTime now = LocalDateTime.now();
+        active.add(1, announcement(Priority.HIGH, now, now.plusNanos(200_000_000)));
+        active.add(2, announcement(Priority.LOW, now, now.plusNanos(300_000_000)));
+        // Updated as the repository does: taken out and filed again, now without an expiry
+        active.remove(1);
+        active.add(1, announcement(Priority.HIGH, now, null));
+
+        awaitSize(1);
+        assertEquals(List.of(1), active.get());
+    }
+
+    @Test
+    void evictionWaitsForTheRepositoryLock() throws InterruptedException {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (lock) {
+            active.add(1, announcement(Priority.HIGH, now, now.plusNanos(100_000_000)));
+            Thread.sleep(400);
+            // Past its expiry, so no longer listed, but not evicted while the lock is held
+            assertEquals(List.of(), active.get());
+            assertEquals(1, active.size());
+        }
+        awaitSize(0);
+    }
+
+    private void awaitSize(int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (active.size() != size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(size, active.size());
+    }
+
+    private static Announcement announcement(Priority priority, LocalDateTime published, LocalDateTime expires) {
+        Announcement announcement = new Announcement();
+        announcement.setPriority(priority);
+        announcement.setPublishedDate(published);
+        announcement.setExpiryDate(expires);
+        return announcement;
+    }
+}
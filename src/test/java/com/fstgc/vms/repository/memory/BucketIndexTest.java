@@ -0,0 +1,66 @@
+package com.fstgc.vms.repository.memory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fstgc.vms.model.Timesheet;
+import com.fstgc.vms.model.enums.TimesheetStatus;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class BucketIndexTest {
+    private static final LocalDateTime NOON = LocalDateTime.of(2025, 5, 1, 12, 0);
+
+    private final BucketIndex<Timesheet, TimesheetStatus, LocalDateTime> byStatus =
+            new BucketIndex<>(TimesheetStatus.class, Timesheet::getApprovalStatus, Timesheet::getCreatedDate);
+
+    @Test
+    void keepsEachBucketSortedByCreation() {
+        byStatus.add(1, timesheet(TimesheetStatus.PENDING, NOON.plusHours(2)));
+        byStatus.add(2, timesheet(TimesheetStatus.PENDING, NOON));
+        byStatus.add(3, timesheet(TimesheetStatus.APPROVED, NOON.plusHours(1)));
+        byStatus.add(4, timesheet(TimesheetStatus.PENDING, NOON));
+        byStatus.add(5, timesheet(TimesheetStatus.PENDING, null));
+
+        // A null creation time sorts first, equal times by id
+        assertEquals(List.of(5, 2, 4, 1), byStatus.get(TimesheetStatus.PENDING, false));
+        assertEquals(List.of(1, 4, 2, 5), byStatus.get(TimesheetStatus.PENDING, true));
+        assertEquals(List.of(3), byStatus.get(TimesheetStatus.APPROVED, true));
+        assertEquals(List.of(), byStatus.get(TimesheetStatus.REJECTED, true));
+    }
+
+    @Test
+    void movesToTheNewBucketOnStatusChange() {
+        Timesheet timesheet = timesheet(TimesheetStatus.PENDING, NOON);
+        byStatus.add(1, timesheet);
+        byStatus.add(2, timesheet(TimesheetStatus.APPROVED, NOON.plusHours(1)));
+        // Approved in place, as the service does, then re-filed by the repository
+        timesheet.setApprovalStatus(TimesheetStatus.APPROVED);
+        timesheet.setCreatedDate(NOON.plusHours(5));
+        byStatus.remove(1);
+        byStatus.add(1, timesheet);
+
+        assertEquals(List.of(), byStatus.get(TimesheetStatus.PENDING, false));
+        assertEquals(List.of(2, 1), byStatus.get(TimesheetStatus.APPROVED, false));
+    }
+
+    @Test
+    void removeAndNullBucketLeaveNothingBehind() {
+        byStatus.add(1, timesheet(TimesheetStatus.PENDING, NOON));
+        byStatus.add(2, timesheet(null, NOON));
+        byStatus.remove(1);
+        byStatus.remove(2);
+        byStatus.remove(42);
+
+        for (TimesheetStatus status : TimesheetStatus.values()) {
+            assertEquals(List.of(), byStatus.get(status, false));
+        }
+    }
+
+    private static Timesheet timesheet(TimesheetStatus status, LocalDateTime created) {
+        Timesheet timesheet = new Timesheet();
+        timesheet.setApprovalStatus(status);
+        timesheet.setCreatedDate(created);
+        return timesheet;
+    }
+}
@@ -0,0 +1,131 @@
+package com.fstgc.vms.repository.memory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fstgc.vms.model.Award;
+import com.fstgc.vms.repository.Change;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ChangeFeedTest {
+    @Test
+    void deliversInOrderNoMoreThanRequested() throws InterruptedException {
+        ChangeFeed feed = new ChangeFeed(16);
+        Recorder recorder = new Recorder();
+        feed.subscribe(recorder);
+        recorder.subscription.request(2);
+        for (int id = 1; id <= 5; id++) {
+            publish(feed, Change.Type.INSERT, id);
+        }
+
+        assertEquals(List.of(1L, 2L), recorder.take(2));
+        assertNull(recorder.changes.poll(100, TimeUnit.MILLISECONDS), "delivered past the demand");
+        recorder.subscription.request(10);
+        assertEquals(List.of(3L, 4L, 5L), recorder.take(3));
+        publish(feed, Change.Type.DELETE, 1);
+        Change<?> delete = recorder.changes.poll(5, TimeUnit.SECONDS);
+        assertEquals(6, delete.getSequence());
+        assertEquals(Change.Type.DELETE, delete.getType());
+        assertNull(delete.getEntity());
+    }
+
+    @Test
+    void resumesAfterAGivenSequence() throws InterruptedException {
+        ChangeFeed feed = new ChangeFeed(16);
+        for (int id = 1; id <= 4; id++) {
+            publish(feed, Change.Type.INSERT, id);
+        }
+        Recorder recorder = new Recorder();
+        feed.subscribe(recorder, 2);
+        recorder.subscription.request(Long.MAX_VALUE);
+
+        assertEquals(List.of(3L, 4L), recorder.take(2));
+        assertEquals(4, feed.lastSequence());
+    }
+
+    @Test
+    void failsSubscriberThatFellBehindTheRetainedChanges() throws InterruptedException {
+        ChangeFeed feed = new ChangeFeed(3);
+        Recorder recorder = new Recorder();
+        feed.subscribe(recorder);
+        // Publishing goes on while the subscriber requests nothing
+        for (int id = 1; id <= 5; id++) {
+            publish(feed, Change.Type.UPDATE, id);
+        }
+        recorder.subscription.request(1);
+
+        assertTrue(recorder.error.poll(5, TimeUnit.SECONDS) instanceof IllegalStateException);
+        assertTrue(recorder.changes.isEmpty());
+    }
+
+    @Test
+    void rejectsNonPositiveRequest() throws InterruptedException {
+        ChangeFeed feed = new ChangeFeed(3);
+        Recorder recorder = new Recorder();
+        feed.subscribe(recorder);
+        recorder.subscription.request(0);
+
+        assertTrue(recorder.error.poll(5, TimeUnit.SECONDS) instanceof IllegalArgumentException);
+    }
+
+    @Test
+    void cancelledSubscriberGetsNothingMore() throws InterruptedException {
+        ChangeFeed feed = new ChangeFeed(8);
+        Recorder recorder = new Recorder();
+        feed.subscribe(recorder);
+        recorder.subscription.request(Long.MAX_VALUE);
+        publish(feed, Change.Type.INSERT, 1);
+        assertEquals(List.of(1L), recorder.take(1));
+
+        recorder.subscription.cancel();
+        publish(feed, Change.Type.INSERT, 2);
+        assertNull(recorder.changes.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    private static void publish(ChangeFeed feed, Change.Type type, int id) {
+        Award award = new Award();
+        award.setAwardId(id);
+        feed.publish(type, Award.class, id, type == Change.Type.DELETE ? null : award);
+    }
+
+    private static final class Recorder implements Flow.Subscriber<Change<?>> {
+        final BlockingQueue<Change<?>> changes = new LinkedBlockingQueue<>();
+        final BlockingQueue<Throwable> error = new LinkedBlockingQueue<>();
+        Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Change<?> change) {
+            changes.add(change);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error.add(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        /** Sequence numbers of the next {@code count} changes, waiting for each. */
+        List<Long> take(int count) throws InterruptedException {
+            List<Long> sequences = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                Change<?> change = changes.poll(5, TimeUnit.SECONDS);
+                assertNotNull(change, "only " + sequences + " delivered");
+                sequences.add(change.getSequence());
+            }
+            return sequences;
+        }
+    }
+}
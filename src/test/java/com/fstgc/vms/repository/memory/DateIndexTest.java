@@ -0,0 +1,79 @@
+package com.fstgc.vms.repository.memory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fstgc.vms.model.Event;
+import com.fstgc.vms.model.enums.EventStatus;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DateIndexTest {
+    private static final LocalDate MAY_1 = LocalDate.of(2025, 5, 1);
+
+    private final DateIndex<Event, EventStatus> index = new DateIndex<>(EventStatus.class, Event::getEventDate, Event::getStatus);
+
+    @BeforeEach
+    void fill() {
+        add(event(4, MAY_1.plusDays(2), EventStatus.PUBLISHED));
+        add(event(1, MAY_1, EventStatus.PUBLISHED));
+        add(event(3, MAY_1, EventStatus.CANCELLED));
+        add(event(2, MAY_1.plusDays(1), EventStatus.DRAFT));
+        add(event(5, MAY_1.plusDays(10), EventStatus.COMPLETED));
+        add(event(6, null, EventStatus.PUBLISHED));
+    }
+
+    @Test
+    void rangeIsInclusiveAndOrderedByDateThenId() {
+        assertEquals(List.of(1, 3, 2, 4, 5), index.range(null, null, null, Integer.MAX_VALUE));
+        assertEquals(List.of(2, 4), index.range(MAY_1.plusDays(1), MAY_1.plusDays(2), null, Integer.MAX_VALUE));
+        assertEquals(List.of(1, 3), index.range(null, MAY_1, null, Integer.MAX_VALUE));
+        assertEquals(List.of(), index.range(MAY_1.plusDays(3), MAY_1.plusDays(9), null, Integer.MAX_VALUE));
+        assertEquals(List.of(), index.range(MAY_1.plusDays(2), MAY_1, null, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void rangeStopsAtTheLimit() {
+        assertEquals(List.of(1, 3), index.range(MAY_1, null, null, 2));
+        assertEquals(List.of(), index.range(MAY_1, null, null, 0));
+    }
+
+    @Test
+    void rangeReadsOnlyTheGivenBuckets() {
+        assertEquals(List.of(1, 4), index.range(MAY_1, null, EnumSet.of(EventStatus.PUBLISHED), 10));
+        assertEquals(List.of(1, 2, 4), index.range(MAY_1, null, EnumSet.of(EventStatus.DRAFT, EventStatus.PUBLISHED), 10));
+        assertEquals(List.of(1, 2), index.range(MAY_1, null, EnumSet.of(EventStatus.DRAFT, EventStatus.PUBLISHED), 2));
+    }
+
+    @Test
+    void latestReadsBackwards() {
+        assertEquals(List.of(5, 4, 2, 3, 1), index.latest(null, null, null, Integer.MAX_VALUE));
+        assertEquals(List.of(2, 3), index.latest(null, MAY_1.plusDays(1), null, 2));
+        assertEquals(List.of(4, 2, 1), index.latest(null, null, EnumSet.of(EventStatus.DRAFT, EventStatus.PUBLISHED), 10));
+    }
+
+    @Test
+    void movesWhenDateOrStatusChanges() {
+        index.remove(1);
+        add(event(1, MAY_1.plusDays(20), EventStatus.CANCELLED));
+        index.remove(2);
+
+        assertEquals(List.of(3, 4, 5, 1), index.range(null, null, null, 10));
+        assertEquals(List.of(4), index.range(null, null, EnumSet.of(EventStatus.PUBLISHED, EventStatus.DRAFT), 10));
+        assertEquals(List.of(1, 3), index.latest(null, null, EnumSet.of(EventStatus.CANCELLED), 10));
+    }
+
+    private void add(Event event) {
+        index.add(event.getEventId(), event);
+    }
+
+    private static Event event(int id, LocalDate date, EventStatus status) {
+        Event event = new Event();
+        event.setEventId(id);
+        event.setEventDate(date);
+        event.setStatus(status);
+        return event;
+    }
+}
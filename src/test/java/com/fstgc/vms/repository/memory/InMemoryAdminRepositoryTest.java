@@ -0,0 +1,93 @@
+package com.fstgc.vms.repository.memory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fstgc.vms.model.SystemAdmin;
+import com.fstgc.vms.repository.AdminRepository;
+import com.fstgc.vms.util.DataPersistence;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/** Saves go to the data files in the test working directory, so names are unique per run. */
+class InMemoryAdminRepositoryTest {
+    private static final String RUN = Long.toString(System.currentTimeMillis(), 36);
+
+    @BeforeAll
+    static void open() {
+        DataPersistence.initialize();
+    }
+
+    @Test
+    void findsByUsernameOrEmailIgnoringCase() {
+        AdminRepository admins = new InMemoryRepositoryFactory().admins();
+        SystemAdmin saved = admins.save(admin("root"));
+
+        assertSame(saved, admins.findByUsername(name("root")).orElseThrow());
+        assertSame(saved, admins.findByUsername(name("ROOT")).orElseThrow());
+        // The login field takes an email as well
+        assertSame(saved, admins.findByUsername(email("root")).orElseThrow());
+        assertSame(saved, admins.findByEmail(email("Root")).orElseThrow());
+        assertTrue(admins.findByEmail(name("root")).isEmpty());
+        assertTrue(admins.findByUsername(null).isEmpty());
+    }
+
+    @Test
+    void followsRenames() {
+        AdminRepository admins = new InMemoryRepositoryFactory().admins();
+        SystemAdmin saved = admins.save(admin("old"));
+        SystemAdmin renamed = admin("new");
+        renamed.setId(saved.getId());
+        admins.update(renamed);
+
+        assertTrue(admins.findByUsername(name("old")).isEmpty());
+        assertTrue(admins.findByEmail(email("old")).isEmpty());
+        assertSame(renamed, admins.findByUsername(name("new")).orElseThrow());
+        assertSame(renamed, admins.findByEmail(email("new")).orElseThrow());
+        // The old name is free again
+        assertNotNull(admins.save(admin("old")));
+    }
+
+    @Test
+    void rejectsTakenUsernameOrEmail() {
+        AdminRepository admins = new InMemoryRepositoryFactory().admins();
+        admins.save(admin("taken"));
+
+        SystemAdmin sameName = admin("other");
+        sameName.setUsername(name("TAKEN"));
+        assertThrows(IllegalArgumentException.class, () -> admins.save(sameName));
+        SystemAdmin sameEmail = admin("another");
+        sameEmail.setEmail(email("taken"));
+        assertThrows(IllegalArgumentException.class, () -> admins.save(sameEmail));
+        assertTrue(admins.findByUsername(name("other")).isEmpty());
+        assertTrue(admins.findByUsername(name("another")).isEmpty());
+    }
+
+    @Test
+    void validatesCredentialsOfTheAdminFound() {
+        AdminRepository admins = new InMemoryRepositoryFactory().admins();
+        SystemAdmin saved = admins.save(admin("login"));
+        admins.updatePassword(saved.getId(), "hash-2");
+
+        assertTrue(admins.validateCredentials(email("login"), "hash-2"));
+        assertFalse(admins.validateCredentials(name("login"), "hash-1"));
+        assertFalse(admins.validateCredentials(name("nobody"), "hash-2"));
+    }
+
+    private static String name(String name) {
+        return name + "-" + RUN;
+    }
+
+    private static String email(String name) {
+        return name + "-" + RUN + "@example.com";
+    }
+
+    private static SystemAdmin admin(String name) {
+        SystemAdmin admin = new SystemAdmin();
+        admin.setUsername(name(name));
+        admin.setEmail(email(name));
+        admin.setFirstName("Test");
+        admin.setLastName("Admin");
+        admin.setPasswordHash("hash-1");
+        return admin;
+    }
+}
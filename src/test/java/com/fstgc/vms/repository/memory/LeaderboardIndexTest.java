@@ -0,0 +1,93 @@
+package com.fstgc.vms.repository.memory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fstgc.vms.model.Award;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class LeaderboardIndexTest {
+    private final LeaderboardIndex leaderboard = new LeaderboardIndex();
+    private int nextAward = 1;
+
+    @Test
+    void ranksByCountWithTiesSharingARank() {
+        award(10, 3);
+        award(20, 1);
+        award(30, 3);
+        award(40, 2);
+
+        assertEquals(List.of(10, 30, 40, 20), leaderboard.top(10));
+        assertEquals(List.of(10, 30), leaderboard.top(2));
+        assertEquals(1, leaderboard.rank(10));
+        assertEquals(1, leaderboard.rank(30));
+        assertEquals(3, leaderboard.rank(40));
+        assertEquals(4, leaderboard.rank(20));
+        // Without awards, behind everyone who has one
+        assertEquals(5, leaderboard.rank(99));
+        assertEquals(0, leaderboard.count(99));
+    }
+
+    @Test
+    void followsPointUpdates() {
+        award(10, 2);
+        award(20, 2);
+        award(30, 1);
+
+        int last = award(30, 2);
+        assertEquals(List.of(30, 10, 20), leaderboard.top(3));
+        assertEquals(3, leaderboard.count(30));
+        assertEquals(2, leaderboard.rank(10));
+
+        leaderboard.remove(last);
+        leaderboard.remove(last - 1);
+        assertEquals(List.of(10, 20, 30), leaderboard.top(3));
+        assertEquals(1, leaderboard.rank(20));
+        assertEquals(3, leaderboard.rank(30));
+
+        // Removing unknown awards changes nothing
+        leaderboard.remove(12345);
+        assertEquals(1, leaderboard.count(30));
+    }
+
+    @Test
+    void dropsVolunteerWhoseLastAwardIsRemoved() {
+        int only = award(10, 1);
+        award(20, 1);
+
+        leaderboard.remove(only);
+        assertEquals(List.of(20), leaderboard.top(10));
+        assertEquals(1, leaderboard.rank(20));
+        assertEquals(2, leaderboard.rank(10));
+    }
+
+    @Test
+    void growsPastTheInitialCountRange() {
+        award(10, 200);
+        award(20, 64);
+        award(30, 63);
+
+        assertEquals(List.of(10, 20, 30), leaderboard.top(3));
+        assertEquals(3, leaderboard.rank(30));
+        assertEquals(2, leaderboard.rank(20));
+        for (int i = 0; i < 150; i++) {
+            leaderboard.remove(i + 1);
+        }
+        // Volunteer 10 is down to 50 awards
+        assertEquals(List.of(20, 30, 10), leaderboard.top(3));
+        assertEquals(3, leaderboard.rank(10));
+    }
+
+    /** Files {@code times} awards for the volunteer; returns the id of the last one. */
+    private int award(int volunteerId, int times) {
+        int id = 0;
+        for (int i = 0; i < times; i++) {
+            Award award = new Award();
+            id = nextAward++;
+            award.setAwardId(id);
+            award.setVolunteerId(volunteerId);
+            leaderboard.add(id, award);
+        }
+        return id;
+    }
+}
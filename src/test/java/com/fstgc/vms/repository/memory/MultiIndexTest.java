@@ -0,0 +1,57 @@
+package com.fstgc.vms.repository.memory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fstgc.vms.model.Attendance;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class MultiIndexTest {
+    private final MultiIndex<Attendance, Integer> byVolunteer = new MultiIndex<>(Attendance::getVolunteerId);
+
+    @Test
+    void filesEveryIdUnderItsKey() {
+        byVolunteer.add(1, attendance(7));
+        byVolunteer.add(2, attendance(7));
+        byVolunteer.add(3, attendance(8));
+
+        assertEquals(Set.of(1, 2), byVolunteer.get(7));
+        assertEquals(Set.of(3), byVolunteer.get(8));
+        assertEquals(Set.of(), byVolunteer.get(9));
+        assertEquals(Set.of(), byVolunteer.get(null));
+        assertThrows(UnsupportedOperationException.class, () -> byVolunteer.get(7).add(4));
+    }
+
+    @Test
+    void movesWhenTheKeyChangesInPlace() {
+        Attendance attendance = attendance(7);
+        byVolunteer.add(1, attendance);
+        // The repository updates entities in place, so the index has to remember the old key itself
+        attendance.setVolunteerId(8);
+        byVolunteer.remove(1);
+        byVolunteer.add(1, attendance);
+
+        assertEquals(Set.of(), byVolunteer.get(7));
+        assertEquals(Set.of(1), byVolunteer.get(8));
+    }
+
+    @Test
+    void removeForgetsTheId() {
+        byVolunteer.add(1, attendance(7));
+        byVolunteer.add(2, attendance(7));
+        Set<Integer> view = byVolunteer.get(7);
+        byVolunteer.remove(1);
+        byVolunteer.remove(42);
+
+        assertEquals(Set.of(2), byVolunteer.get(7));
+        assertEquals(Set.of(2), view);
+        byVolunteer.remove(2);
+        assertEquals(Set.of(), byVolunteer.get(7));
+    }
+
+    private static Attendance attendance(int volunteerId) {
+        Attendance attendance = new Attendance();
+        attendance.setVolunteerId(volunteerId);
+        return attendance;
+    }
+}
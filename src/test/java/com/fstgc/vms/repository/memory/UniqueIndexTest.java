@@ -0,0 +1,90 @@
+package com.fstgc.vms.repository.memory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fstgc.vms.model.Volunteer;
+import org.junit.jupiter.api.Test;
+
+class UniqueIndexTest {
+    private final UniqueIndex<Volunteer> byEmail = new UniqueIndex<>("Email", Volunteer::getEmail);
+
+    @Test
+    void findsValueIgnoringCase() {
+        put(1, "Ada@Example.com");
+
+        assertEquals(1, byEmail.get("ada@example.COM"));
+        assertNull(byEmail.get("grace@example.com"));
+        assertNull(byEmail.get(null));
+    }
+
+    @Test
+    void rejectsSecondEntityWithTheSameValue() {
+        put(1, "ada@example.com");
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> byEmail.check(2, volunteer(2, "ADA@example.com")));
+        assertEquals("Email already exists", error.getMessage());
+        // The holder itself may keep its value, and entities without one are not indexed
+        byEmail.check(1, volunteer(1, "Ada@Example.com"));
+        byEmail.check(3, volunteer(3, null));
+        put(3, null);
+        assertNull(byEmail.get(null));
+    }
+
+    @Test
+    void rekeysOnUpdate() {
+        put(1, "ada@example.com");
+        update(1, "ada.lovelace@example.com");
+
+        assertNull(byEmail.get("ada@example.com"));
+        assertEquals(1, byEmail.get("ada.lovelace@example.com"));
+        // The old value is free again
+        byEmail.check(2, volunteer(2, "ada@example.com"));
+        put(2, "ada@example.com");
+        assertEquals(2, byEmail.get("ada@example.com"));
+    }
+
+    @Test
+    void removeFreesTheValue() {
+        put(1, "ada@example.com");
+        byEmail.remove(1);
+        byEmail.remove(42);
+
+        assertNull(byEmail.get("ada@example.com"));
+        byEmail.check(2, volunteer(2, "ada@example.com"));
+    }
+
+    @Test
+    void duplicateFromSavedDataKeepsItsValue() {
+        put(1, "ada@example.com");
+        // As when loading data saved before the index existed: add() without check()
+        byEmail.add(2, volunteer(2, "ada@example.com"));
+
+        assertEquals(1, byEmail.get("ada@example.com"));
+        byEmail.check(2, volunteer(2, "ada@example.com"));
+        // Removing the duplicate leaves the first holder indexed
+        byEmail.remove(2);
+        assertEquals(1, byEmail.get("ada@example.com"));
+    }
+
+    private void put(int id, String email) {
+        Volunteer volunteer = volunteer(id, email);
+        byEmail.check(id, volunteer);
+        byEmail.add(id, volunteer);
+    }
+
+    /** What the repository does on a put: check, then forget the old value and file the new one. */
+    private void update(int id, String email) {
+        Volunteer volunteer = volunteer(id, email);
+        byEmail.check(id, volunteer);
+        byEmail.remove(id);
+        byEmail.add(id, volunteer);
+    }
+
+    private static Volunteer volunteer(int id, String email) {
+        Volunteer volunteer = new Volunteer();
+        volunteer.setId(id);
+        volunteer.setEmail(email);
+        return volunteer;
+    }
+}
@@ -0,0 +1,109 @@
+package com.fstgc.vms.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fstgc.vms.model.Volunteer;
+import com.fstgc.vms.repository.VolunteerRepository;
+import com.fstgc.vms.repository.memory.InMemoryRepositoryFactory;
+import com.fstgc.vms.util.DataPersistence;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs against the files DataPersistence keeps in the working directory the build gives the tests,
+ * which outlive a run; the emails are made unique per run so the saves do not collide with them.
+ */
+class UnitOfWorkTest {
+    private static final String RUN = Long.toString(System.currentTimeMillis(), 36);
+
+    @BeforeAll
+    static void open() {
+        DataPersistence.initialize();
+    }
+
+    @Test
+    void rollbackRestoresEntitiesAndIndexes() {
+        VolunteerRepository volunteers = new InMemoryRepositoryFactory().volunteers();
+        Volunteer kept = volunteers.save(volunteer("Ada", email("ada")));
+        Volunteer doomed = volunteers.save(volunteer("Grace", email("grace")));
+
+        int[] added = new int[1];
+        assertThrows(IllegalStateException.class, () -> UnitOfWork.run(() -> {
+            Volunteer renamed = volunteer("Adele", email("adele"));
+            renamed.setId(kept.getId());
+            volunteers.update(renamed);
+            volunteers.delete(doomed.getId());
+            added[0] = volunteers.save(volunteer("Linus", email("linus"))).getId();
+            throw new IllegalStateException("fail the unit");
+        }));
+
+        assertSame(kept, volunteers.findById(kept.getId()).orElseThrow());
+        assertEquals(kept.getId(), volunteers.findByEmail(email("ada")).orElseThrow().getId());
+        assertTrue(volunteers.findByEmail(email("adele")).isEmpty());
+        assertSame(doomed, volunteers.findByEmail(email("grace")).orElseThrow());
+        assertTrue(volunteers.findById(added[0]).isEmpty());
+        assertTrue(volunteers.findByEmail(email("linus")).isEmpty());
+
+        // The emails taken inside the unit are free again, the ones restored are taken
+        assertNotNull(volunteers.save(volunteer("Linus", email("linus"))));
+        assertThrows(IllegalArgumentException.class, () -> volunteers.save(volunteer("Grace", email("grace"))));
+    }
+
+    @Test
+    void commitKeepsEveryWrite() {
+        VolunteerRepository volunteers = new InMemoryRepositoryFactory().volunteers();
+        Volunteer first = UnitOfWork.run(() -> {
+            Volunteer saved = volunteers.save(volunteer("Barbara", email("barbara")));
+            volunteers.save(volunteer("Edsger", email("edsger")));
+            return saved;
+        });
+
+        assertSame(first, volunteers.findByEmail(email("barbara")).orElseThrow());
+        assertTrue(volunteers.findByEmail(email("edsger")).isPresent());
+        assertTrue(DataPersistence.loadVolunteers().containsKey(first.getId()));
+    }
+
+    @Test
+    void commitFailureIsNotMaskedByRollback() {
+        VolunteerRepository volunteers = new InMemoryRepositoryFactory().volunteers();
+        // Runs once the unit has committed, after the transaction is closed
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> UnitOfWork.run(() -> {
+            volunteers.save(volunteer("Alan", email("alan")));
+            DataPersistence.onCommit(() -> {
+                throw new IllegalStateException("listener failed");
+            });
+            return null;
+        }));
+
+        assertEquals("listener failed", error.getMessage());
+        assertEquals(0, error.getSuppressed().length);
+        assertFalse(DataPersistence.inTransaction());
+        assertTrue(volunteers.findByEmail(email("alan")).isPresent());
+    }
+
+    @Test
+    void rollbackFailureIsSuppressedUnderTheCause() {
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> UnitOfWork.run(() -> {
+            UnitOfWork.onRollback(() -> {
+                throw new IllegalArgumentException("undo failed");
+            });
+            throw new IllegalStateException("fail the unit");
+        }));
+
+        assertEquals("fail the unit", error.getMessage());
+        assertEquals("undo failed", error.getSuppressed()[0].getMessage());
+        assertFalse(DataPersistence.inTransaction());
+    }
+
+    private static String email(String name) {
+        return name + "-" + RUN + "@example.com";
+    }
+
+    private static Volunteer volunteer(String firstName, String email) {
+        Volunteer volunteer = new Volunteer();
+        volunteer.setFirstName(firstName);
+        volunteer.setLastName("Tester");
+        volunteer.setEmail(email);
+        return volunteer;
+    }
+}
@@ -0,0 +1,108 @@
+package com.fstgc.vms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BinarySnapshotFormatTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void encodesEveryFieldOfEveryModel() throws IOException {
+        for (Aggregate aggregate : Aggregate.values()) {
+            for (Object entity : new Object[] {ModelFixtures.filled(aggregate, 7), ModelFixtures.empty(aggregate, 8)}) {
+                byte[] encoded = BinarySnapshotFormat.encode(aggregate, entity);
+                ByteBuffer buffer = ByteBuffer.wrap(encoded);
+                ModelFixtures.assertSameFields(entity, BinarySnapshotFormat.decode(aggregate, buffer));
+                assertFalse(buffer.hasRemaining(), aggregate.key() + " left bytes unread");
+            }
+        }
+    }
+
+    @Test
+    void readsBackWhatWasWritten() throws IOException {
+        Path file = dir.resolve("all.vmsb");
+        Map<Aggregate, SortedMap<Integer, Object>> written = everything();
+        new BinarySnapshotFormat().writeAll(file, written);
+
+        Map<Aggregate, Map<Integer, Object>> read = new EnumMap<>(Aggregate.class);
+        int count = new BinarySnapshotFormat().readAll(file,
+                (aggregate, id, entity) -> read.computeIfAbsent(aggregate, a -> new HashMap<>()).put(id, entity));
+
+        assertEquals(written.values().stream().mapToInt(Map::size).sum(), count);
+        for (Map.Entry<Aggregate, SortedMap<Integer, Object>> table : written.entrySet()) {
+            for (Map.Entry<Integer, Object> entity : table.getValue().entrySet()) {
+                Object back = read.get(table.getKey()).get(entity.getKey());
+                if (entity.getValue() == null) {
+                    assertTrue(read.get(table.getKey()).containsKey(entity.getKey()));
+                    assertNull(back);
+                } else {
+                    ModelFixtures.assertSameFields(entity.getValue(), back);
+                }
+            }
+        }
+    }
+
+    @Test
+    void spreadsLargeShardOverBlocks() throws IOException {
+        Path file = dir.resolve("volunteers.vmsb");
+        SortedMap<Integer, Object> volunteers = new TreeMap<>();
+        for (int id = 1; id <= 2000; id++) {
+            volunteers.put(id, ModelFixtures.filled(Aggregate.VOLUNTEERS, id));
+        }
+        new BinarySnapshotFormat().write(file, Aggregate.VOLUNTEERS, 0, volunteers);
+
+        Map<Integer, Object> read = new TreeMap<>();
+        new BinarySnapshotFormat().read(file, Aggregate.VOLUNTEERS, read::put);
+        assertEquals(volunteers.keySet(), read.keySet());
+        ModelFixtures.assertSameFields(volunteers.get(2000), read.get(2000));
+    }
+
+    @Test
+    void rejectsBlockFailingItsChecksum() throws IOException {
+        Path file = dir.resolve("all.vmsb");
+        new BinarySnapshotFormat().writeAll(file, everything());
+        byte[] bytes = Files.readAllBytes(file);
+        // Past the 7-byte file header and the 9-byte block header, inside the first payload
+        bytes[7 + 9 + 20] ^= 0x40;
+        Files.write(file, bytes);
+
+        IOException error = assertThrows(IOException.class, () -> new BinarySnapshotFormat().readAll(file, (a, id, e) -> { }));
+        assertTrue(error.getMessage().contains("corrupt"), error.getMessage());
+    }
+
+    @Test
+    void rejectsFileThatIsNotASnapshot() throws IOException {
+        Path file = dir.resolve("volunteers.vmsb");
+        Files.writeString(file, "{\"volunteers\": {}}");
+
+        assertThrows(IOException.class, () -> new BinarySnapshotFormat().read(file, Aggregate.VOLUNTEERS, (id, e) -> { }));
+    }
+
+    /** Two full entities, one with nulls and one deletion for every aggregate. */
+    static Map<Aggregate, SortedMap<Integer, Object>> everything() {
+        Map<Aggregate, SortedMap<Integer, Object>> tables = new EnumMap<>(Aggregate.class);
+        for (Aggregate aggregate : Aggregate.values()) {
+            SortedMap<Integer, Object> table = new TreeMap<>();
+            Object first = ModelFixtures.filled(aggregate, 1);
+            Object second = ModelFixtures.filled(aggregate, 100);
+            table.put(ModelFixtures.idOf(first), first);
+            table.put(ModelFixtures.idOf(second), second);
+            table.put(500, ModelFixtures.empty(aggregate, 500));
+            table.put(501, null);
+            tables.put(aggregate, table);
+        }
+        return tables;
+    }
+}
@@ -0,0 +1,129 @@
+package com.fstgc.vms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CompressionTest {
+    private static final byte[] TEXT = "{\"firstName\": \"Ada\", \"lastName\": \"Lovelace\"}\n".repeat(500).getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void acceptsDefaultAndLevelsZeroToNine() {
+        for (int level = -1; level <= 9; level++) {
+            assertEquals(Compression.Codec.DEFLATE, Compression.named("deflate", level).codec());
+        }
+        assertSame(Compression.NONE, Compression.named("NONE", 6));
+    }
+
+    @Test
+    void rejectsOtherLevelsAndCodecs() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> Compression.named("deflate", 10));
+        assertTrue(error.getMessage().contains("-1"), error.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> Compression.named("deflate", -2));
+        assertThrows(IllegalArgumentException.class, () -> Compression.named("zstd", 6));
+    }
+
+    @Test
+    void unwrapsWhatWasWrapped() throws IOException {
+        for (int level : new int[] {-1, 0, 1, 9}) {
+            byte[] stored = wrap(Compression.named("deflate", level), TEXT);
+            assertArrayEquals(new byte[] {'V', 'M', 'S', 'C', 1}, Arrays.copyOf(stored, 5));
+            if (level != 0) {
+                assertTrue(stored.length < TEXT.length / 4, "level " + level + " stored " + stored.length + " bytes");
+            }
+            assertArrayEquals(TEXT, unwrap(stored));
+        }
+    }
+
+    @Test
+    void passesPlainStreamsThrough() throws IOException {
+        assertArrayEquals(TEXT, wrap(Compression.NONE, TEXT));
+        assertArrayEquals(TEXT, unwrap(TEXT));
+        assertArrayEquals(new byte[] {'V', 'M'}, unwrap(new byte[] {'V', 'M'}));
+    }
+
+    @Test
+    void rejectsUnknownCodec() {
+        byte[] stored = {'V', 'M', 'S', 'C', 9, 1, 2, 3};
+        assertThrows(IOException.class, () -> unwrap(stored));
+    }
+
+    @Test
+    void readsCompressedJsonShard() throws IOException {
+        Path file = dir.resolve("volunteers.json");
+        SortedMap<Integer, Object> volunteers = BinarySnapshotFormatTest.everything().get(Aggregate.VOLUNTEERS);
+        // JSON leaves nulls out and a missing field reads back as the constructor default
+        volunteers.values().removeIf(v -> v == null);
+        volunteers.remove(500);
+        new JsonSnapshotFormat(DataPersistence.gson(), Compression.named("deflate", 6)).write(file, Aggregate.VOLUNTEERS, 0, volunteers);
+        assertArrayEquals(new byte[] {'V', 'M', 'S', 'C', 1}, Arrays.copyOf(Files.readAllBytes(file), 5));
+
+        Map<Integer, Object> read = new HashMap<>();
+        new JsonSnapshotFormat(DataPersistence.gson()).read(file, Aggregate.VOLUNTEERS, read::put);
+        assertEquals(volunteers.keySet(), read.keySet());
+        for (Map.Entry<Integer, Object> volunteer : volunteers.entrySet()) {
+            ModelFixtures.assertSameFields(volunteer.getValue(), read.get(volunteer.getKey()));
+        }
+    }
+
+    @Test
+    void readsCompressedBinarySnapshot() throws IOException {
+        Path file = dir.resolve("all.vmsb");
+        Map<Aggregate, SortedMap<Integer, Object>> written = BinarySnapshotFormatTest.everything();
+        new BinarySnapshotFormat(Compression.named("deflate", 9)).writeAll(file, written);
+
+        Map<Aggregate, Map<Integer, Object>> read = new EnumMap<>(Aggregate.class);
+        new BinarySnapshotFormat().readAll(file, (aggregate, id, entity) -> read.computeIfAbsent(aggregate, a -> new HashMap<>()).put(id, entity));
+        for (Map.Entry<Aggregate, SortedMap<Integer, Object>> table : written.entrySet()) {
+            assertEquals(table.getValue().keySet(), read.get(table.getKey()).keySet());
+            for (Map.Entry<Integer, Object> entity : table.getValue().entrySet()) {
+                if (entity.getValue() != null) {
+                    ModelFixtures.assertSameFields(entity.getValue(), read.get(table.getKey()).get(entity.getKey()));
+                }
+            }
+        }
+    }
+
+    @Test
+    void rejectsCorruptCompressedBlock() throws IOException {
+        Path file = dir.resolve("all.vmsb");
+        new BinarySnapshotFormat(Compression.named("deflate", 6)).writeAll(file, BinarySnapshotFormatTest.everything());
+        byte[] bytes = Files.readAllBytes(file);
+        // Past the 7-byte file header and the 13-byte header of a compressed block
+        bytes[7 + 13 + 10] ^= 0x40;
+        Files.write(file, bytes);
+
+        assertThrows(IOException.class, () -> new BinarySnapshotFormat().readAll(file, (a, id, e) -> { }));
+    }
+
+    private static byte[] wrap(Compression compression, byte[] data) throws IOException {
+        ByteArrayOutputStream stored = new ByteArrayOutputStream();
+        try (OutputStream out = compression.wrap(stored)) {
+            out.write(data);
+        }
+        return stored.toByteArray();
+    }
+
+    private static byte[] unwrap(byte[] stored) throws IOException {
+        try (InputStream in = Compression.unwrap(new ByteArrayInputStream(stored))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.fstgc.vms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fstgc.vms.model.Volunteer;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DifferentialBackupTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void restoresFullAndDifferential() throws IOException {
+        Map<Aggregate, Map<Integer, byte[]>> database = empty();
+        put(database, volunteer(1, "Ada"));
+        put(database, volunteer(2, "Grace"));
+        Path full = DifferentialBackup.write(dir.resolve("full"), null, database);
+
+        put(database, volunteer(1, "Adele"));
+        database.get(Aggregate.VOLUNTEERS).remove(2);
+        put(database, volunteer(3, "Linus"));
+        Path diff = DifferentialBackup.write(dir.resolve("diff"), full, database);
+
+        DifferentialBackup.Archive archive = DifferentialBackup.read(diff);
+        assertEquals(2, archive.manifest.get("changed").getAsInt());
+        assertEquals(1, archive.manifest.get("deleted").getAsInt());
+
+        Map<Aggregate, NavigableMap<Integer, Object>> restored = DifferentialBackup.restore(List.of(full, diff));
+        NavigableMap<Integer, Object> volunteers = restored.get(Aggregate.VOLUNTEERS);
+        assertEquals(List.of(1, 3), List.copyOf(volunteers.keySet()));
+        assertEquals("Adele", ((Volunteer) volunteers.get(1)).getFirstName());
+        assertEquals("Linus", ((Volunteer) volunteers.get(3)).getFirstName());
+        assertEquals(archive.contentHash(), DifferentialBackup.contentHash(fingerprints(restored)));
+    }
+
+    @Test
+    void refusesChainNotStartingWithItsBase() throws IOException {
+        Map<Aggregate, Map<Integer, byte[]>> database = empty();
+        put(database, volunteer(1, "Ada"));
+        Path full = DifferentialBackup.write(dir.resolve("full"), null, database);
+        put(database, volunteer(1, "Adele"));
+        Path diff = DifferentialBackup.write(dir.resolve("diff"), full, database);
+        put(database, volunteer(2, "Grace"));
+        Path other = DifferentialBackup.write(dir.resolve("other"), null, database);
+
+        assertThrows(IOException.class, () -> DifferentialBackup.restore(List.of(diff)));
+        assertThrows(IOException.class, () -> DifferentialBackup.restore(List.of(other, diff)));
+    }
+
+    private static Map<Aggregate, Map<Integer, byte[]>> empty() {
+        Map<Aggregate, Map<Integer, byte[]>> database = new EnumMap<>(Aggregate.class);
+        for (Aggregate aggregate : Aggregate.values()) {
+            database.put(aggregate, new TreeMap<>());
+        }
+        return database;
+    }
+
+    private static void put(Map<Aggregate, Map<Integer, byte[]>> database, Volunteer volunteer) throws IOException {
+        database.get(Aggregate.VOLUNTEERS).put(volunteer.getId(), BinarySnapshotFormat.encode(Aggregate.VOLUNTEERS, volunteer));
+    }
+
+    private static Volunteer volunteer(int id, String firstName) {
+        Volunteer volunteer = new Volunteer();
+        volunteer.setId(id);
+        volunteer.setFirstName(firstName);
+        volunteer.setLastName("Tester");
+        volunteer.setEmail(firstName.toLowerCase() + "@example.com");
+        return volunteer;
+    }
+
+    private static Map<Aggregate, Map<Integer, Long>> fingerprints(Map<Aggregate, NavigableMap<Integer, Object>> tables) throws IOException {
+        Map<Aggregate, Map<Integer, Long>> fingerprints = new EnumMap<>(Aggregate.class);
+        for (Map.Entry<Aggregate, NavigableMap<Integer, Object>> table : tables.entrySet()) {
+            Map<Integer, Long> aggregate = new TreeMap<>();
+            for (Map.Entry<Integer, Object> entity : table.getValue().entrySet()) {
+                aggregate.put(entity.getKey(), DifferentialBackup.fingerprint(table.getKey(), entity.getValue()));
+            }
+            fingerprints.put(table.getKey(), aggregate);
+        }
+        return fingerprints;
+    }
+}
@@ -0,0 +1,153 @@
+package com.fstgc.vms.util;
+
+import com.google.gson.*;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * Compares the hand-written {@link ModelTypeAdapters} with the reflective adapters and
+ * {@code JsonSerializer}/{@code JsonDeserializer} date adapters used before them: time and
+ * allocation per entity for serializing and parsing, and whether both produce the same JSON.
+ * Usage: {@code java com.fstgc.vms.util.GsonAdapterBenchmark [volunteers] [attendance]}.
+ */
+public final class GsonAdapterBenchmark {
+    private static final int ROUNDS = 8;
+
+    private GsonAdapterBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int volunteers = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int attendance = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        Map<Aggregate, NavigableMap<Integer, Object>> tables = PersistenceBenchmark.generate(volunteers, attendance);
+        Gson reflective = new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+                .registerTypeAdapter(LocalTime.class, new LocalTimeAdapter())
+                .create();
+        Gson streaming = ModelTypeAdapters.register(new GsonBuilder()).create();
+
+        for (Map.Entry<Aggregate, NavigableMap<Integer, Object>> table : tables.entrySet()) {
+            Aggregate aggregate = table.getKey();
+            Collection<Object> entities = table.getValue().values();
+            String expected = run("reflective", reflective, aggregate, entities);
+            String actual = run("streaming", streaming, aggregate, entities);
+            System.out.println(aggregate.key() + ": output identical = " + expected.equals(actual));
+        }
+    }
+
+    private static String run(String label, Gson gson, Aggregate aggregate, Collection<Object> entities) throws IOException {
+        TypeAdapter<?> adapter = gson.getAdapter(aggregate.entityType());
+        String json = null;
+        long bestWrite = Long.MAX_VALUE;
+        long bestRead = Long.MAX_VALUE;
+        long writeBytes = 0;
+        long readBytes = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            StringWriter out = new StringWriter();
+            try (JsonWriter writer = gson.newJsonWriter(out)) {
+                writer.beginArray();
+                for (Object entity : entities) {
+                    gson.toJson(entity, aggregate.entityType(), writer);
+                }
+                writer.endArray();
+            }
+            long wrote = System.nanoTime() - start;
+            long wroteBytes = allocatedBytes() - allocated;
+            json = out.toString();
+
+            allocated = allocatedBytes();
+            start = System.nanoTime();
+            int count = 0;
+            try (JsonReader reader = new JsonReader(new StringReader(json))) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    adapter.read(reader);
+                    count++;
+                }
+                reader.endArray();
+            }
+            long read = System.nanoTime() - start;
+            long readAllocated = allocatedBytes() - allocated;
+            // First half of the rounds warms up the JIT
+            if (round >= ROUNDS / 2 && count > 0) {
+                if (wrote < bestWrite) {
+                    bestWrite = wrote;
+                    writeBytes = wroteBytes;
+                }
+                if (read < bestRead) {
+                    bestRead = read;
+                    readBytes = readAllocated;
+                }
+            }
+        }
+        int n = Math.max(1, entities.size());
+        System.out.printf("%-12s %-10s write %6d ns/entity %6d B/entity   read %6d ns/entity %6d B/entity%n",
+                aggregate.key(), label, bestWrite / n, writeBytes / n, bestRead / n, readBytes / n);
+        return json;
+    }
+
+    /** Bytes allocated by this thread so far, or 0 where the JVM does not report it. */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    // The date adapters DataPersistence used before ModelTypeAdapters, kept as the baseline
+    private static class LocalDateTimeAdapter implements JsonSerializer<LocalDateTime>, JsonDeserializer<LocalDateTime> {
+        private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+        @Override
+        public JsonElement serialize(LocalDateTime dateTime, Type type, JsonSerializationContext context) {
+            return new JsonPrimitive(dateTime.format(formatter));
+        }
+
+        @Override
+        public LocalDateTime deserialize(JsonElement json, Type type, JsonDeserializationContext context) {
+            return LocalDateTime.parse(json.getAsString(), formatter);
+        }
+    }
+
+    private static class LocalDateAdapter implements JsonSerializer<LocalDate>, JsonDeserializer<LocalDate> {
+        private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE;
+
+        @Override
+        public JsonElement serialize(LocalDate date, Type type, JsonSerializationContext context) {
+            return new JsonPrimitive(date.format(formatter));
+        }
+
+        @Override
+        public LocalDate deserialize(JsonElement json, Type type, JsonDeserializationContext context) {
+            return LocalDate.parse(json.getAsString(), formatter);
+        }
+    }
+
+    private static class LocalTimeAdapter implements JsonSerializer<LocalTime>, JsonDeserializer<LocalTime> {
+        private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_TIME;
+
+        @Override
+        public JsonElement serialize(LocalTime time, Type type, JsonSerializationContext context) {
+            return new JsonPrimitive(time.format(formatter));
+        }
+
+        @Override
+        public LocalTime deserialize(JsonElement json, Type type, JsonDeserializationContext context) {
+            return LocalTime.parse(json.getAsString(), formatter);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.fstgc.vms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entities of every aggregate with each field set, or with each nullable field null, built by
+ * reflection so that a field added to a model is covered without touching the tests.
+ */
+final class ModelFixtures {
+    private ModelFixtures() {
+    }
+
+    /** An entity whose every field holds a value other than its default, derived from {@code seed}. */
+    static Object filled(Aggregate aggregate, int seed) {
+        Object entity = newEntity(aggregate);
+        int n = seed;
+        for (Field field : fields(aggregate.entityType())) {
+            n++;
+            set(field, entity, valueOf(field, n));
+        }
+        return entity;
+    }
+
+    /** An entity whose reference fields are all null, and whose id is {@code id}. */
+    static Object empty(Aggregate aggregate, int id) {
+        Object entity = newEntity(aggregate);
+        for (Field field : fields(aggregate.entityType())) {
+            if (!field.getType().isPrimitive()) {
+                set(field, entity, null);
+            }
+        }
+        set(fields(aggregate.entityType()).get(0), entity, id);
+        return entity;
+    }
+
+    /** The entity's id, its first field. */
+    static int idOf(Object entity) {
+        try {
+            return (int) fields(entity.getClass()).get(0).get(entity);
+        } catch (IllegalAccessException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /** Asserts that the two entities are of the same class and hold equal values in every field. */
+    static void assertSameFields(Object expected, Object actual) {
+        assertNotNull(actual);
+        assertEquals(expected.getClass(), actual.getClass());
+        for (Field field : fields(expected.getClass())) {
+            try {
+                assertEquals(field.get(expected), field.get(actual), expected.getClass().getSimpleName() + "." + field.getName());
+            } catch (IllegalAccessException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    /** Instance fields from the root class down, so an entity's id comes first. */
+    private static List<Field> fields(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+            List<Field> own = new ArrayList<>();
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())) {
+                    field.setAccessible(true);
+                    own.add(field);
+                }
+            }
+            fields.addAll(0, own);
+        }
+        return fields;
+    }
+
+    private static Object valueOf(Field field, int n) {
+        Class<?> type = field.getType();
+        if (type == int.class || type == Integer.class) {
+            return n;
+        } else if (type == double.class || type == Double.class) {
+            return n + 0.25;
+        } else if (type == boolean.class) {
+            return true;
+        } else if (type == String.class) {
+            return field.getName() + " " + n + " \u00e9\u2713";
+        } else if (type == LocalDateTime.class) {
+            return LocalDateTime.of(2024, 1 + n % 12, 1 + n % 28, n % 24, n % 60, n % 60, 123_456_789);
+        } else if (type == LocalDate.class) {
+            return LocalDate.of(2024, 1 + n % 12, 1 + n % 28);
+        } else if (type == LocalTime.class) {
+            return LocalTime.of(n % 24, n % 60, 0, 5_000);
+        } else if (type.isEnum()) {
+            Object[] constants = type.getEnumConstants();
+            return constants[constants.length - 1];
+        }
+        throw new IllegalArgumentException("No fixture value for " + field);
+    }
+
+    private static Object newEntity(Aggregate aggregate) {
+        try {
+            return aggregate.entityType().getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void set(Field field, Object entity, Object value) {
+        try {
+            field.set(entity, value);
+        } catch (IllegalAccessException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.fstgc.vms.util;
+
+import com.fstgc.vms.model.Attendance;
+import com.fstgc.vms.model.Volunteer;
+import com.fstgc.vms.model.enums.AttendanceStatus;
+import com.fstgc.vms.model.enums.VolunteerStatus;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Compares write time, file size and load time of the JSON and binary snapshot formats, plain
+ * and deflated, on synthetic data. Usage: {@code java com.fstgc.vms.util.PersistenceBenchmark [volunteers] [attendance]}.
+ */
+public final class PersistenceBenchmark {
+    private static final int ROUNDS = 5;
+
+    private PersistenceBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int volunteers = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int attendance = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        Map<Aggregate, NavigableMap<Integer, Object>> tables = generate(volunteers, attendance);
+        Path dir = Files.createTempDirectory("vms-benchmark");
+        try {
+            Compression deflate = Compression.named("deflate", 6);
+            run("json", new JsonSnapshotFormat(DataPersistence.gson()), tables, dir);
+            run("json+deflate", new JsonSnapshotFormat(DataPersistence.gson(), deflate), tables, dir);
+            run("binary", new BinarySnapshotFormat(), tables, dir);
+            run("binary+deflate", new BinarySnapshotFormat(deflate), tables, dir);
+        } finally {
+            try (var files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static void run(String label, SnapshotFormat format, Map<Aggregate, NavigableMap<Integer, Object>> tables, Path dir) throws IOException {
+        long writeNanos = 0;
+        long bytes = 0;
+        for (Map.Entry<Aggregate, NavigableMap<Integer, Object>> table : tables.entrySet()) {
+            Path file = dir.resolve(label + "-" + table.getKey().key());
+            long start = System.nanoTime();
+            format.write(file, table.getKey(), 0, table.getValue());
+            writeNanos += System.nanoTime() - start;
+            bytes += Files.size(file);
+        }
+        // First rounds warm up the JIT; report the best of the remaining ones
+        long bestLoad = Long.MAX_VALUE;
+        int count = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            count = 0;
+            for (Aggregate aggregate : tables.keySet()) {
+                Path file = dir.resolve(label + "-" + aggregate.key());
+                count += format.read(file, aggregate, (id, entity) -> { });
+            }
+            if (round > 1) {
+                bestLoad = Math.min(bestLoad, System.nanoTime() - start);
+            }
+        }
+        System.out.printf("%-14s %,9d entities  %,12d bytes  write %6d ms  load %6d ms%n",
+                label, count, bytes, writeNanos / 1_000_000, bestLoad / 1_000_000);
+    }
+
+    static Map<Aggregate, NavigableMap<Integer, Object>> generate(int volunteers, int attendance) {
+        Random random = new Random(42);
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 8, 0);
+        NavigableMap<Integer, Object> people = new ConcurrentSkipListMap<>();
+        for (int id = 1; id <= volunteers; id++) {
+            Volunteer v = new Volunteer();
+            v.setId(id);
+            v.setFirstName("First" + id);
+            v.setLastName("Last" + id);
+            v.setEmail("volunteer" + id + "@example.org");
+            v.setPhone(String.format("09%09d", id));
+            v.setStatus(VolunteerStatus.ACTIVE);
+            v.setRegistrationDate(base.plusMinutes(id));
+            v.setLastModifiedBy("System");
+            v.setLastModifiedDate(base.plusMinutes(id));
+            people.put(id, v);
+        }
+        NavigableMap<Integer, Object> records = new ConcurrentSkipListMap<>();
+        for (int id = 1; id <= attendance; id++) {
+            Attendance a = new Attendance();
+            a.setAttendanceId(id);
+            a.setVolunteerId(1 + random.nextInt(Math.max(1, volunteers)));
+            a.setEventId(1 + random.nextInt(500));
+            a.setCheckInTime(base.plusHours(id));
+            a.setCheckOutTime(base.plusHours(id).plusMinutes(30 + random.nextInt(240)));
+            a.setStatus(AttendanceStatus.PRESENT);
+            a.setHoursWorked(random.nextInt(16) / 2.0);
+            a.setLastModifiedBy("System");
+            a.setLastModifiedDate(base.plusHours(id));
+            records.put(id, a);
+        }
+        Map<Aggregate, NavigableMap<Integer, Object>> tables = new EnumMap<>(Aggregate.class);
+        tables.put(Aggregate.VOLUNTEERS, people);
+        tables.put(Aggregate.ATTENDANCE, records);
+        return tables;
+    }
+}
@@ -0,0 +1,81 @@
+package com.fstgc.vms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class PersistenceWriterTest {
+    private final List<Integer> written = new ArrayList<>();
+    private final List<Boolean> checkpoints = new ArrayList<>();
+
+    private final PersistenceWriter writer = new PersistenceWriter(5, (batch, checkpoint) -> {
+        batch.forEach(mutation -> written.add(mutation.id));
+        checkpoints.add(checkpoint);
+    });
+
+    @Test
+    void closeWritesWhatWasSubmittedBefore() {
+        CompletableFuture<Void> first = writer.submit(Mutation.delete(Aggregate.AWARDS, 1));
+        CompletableFuture<Void> second = writer.submit(List.of(Mutation.delete(Aggregate.AWARDS, 2), Mutation.delete(Aggregate.AWARDS, 3)));
+        writer.close();
+
+        assertTrue(first.isDone() && !first.isCompletedExceptionally());
+        assertTrue(second.isDone() && !second.isCompletedExceptionally());
+        assertEquals(List.of(1, 2, 3), written);
+        assertTrue(checkpoints.get(checkpoints.size() - 1), "closes with a checkpoint");
+    }
+
+    @Test
+    void failsEverythingSubmittedAfterClose() {
+        writer.close();
+        List<CompletableFuture<Void>> late = List.of(
+                writer.submit(Mutation.delete(Aggregate.AWARDS, 1)),
+                writer.submit(List.of(Mutation.delete(Aggregate.AWARDS, 2))),
+                writer.flush(),
+                writer.checkpoint(),
+                writer.run(() -> fail("ran after close")));
+
+        for (CompletableFuture<Void> request : late) {
+            // Already failed, not left waiting for a thread that is gone
+            assertTrue(request.isDone());
+            CompletionException error = assertThrows(CompletionException.class, request::join);
+            assertInstanceOf(IllegalStateException.class, error.getCause());
+        }
+        assertEquals(List.of(), written);
+        writer.close();
+    }
+
+    @Test
+    void submissionsRacingCloseEitherCompleteOrFail() throws Exception {
+        List<CompletableFuture<Void>> requests = new ArrayList<>();
+        Thread submitter = new Thread(() -> {
+            for (int id = 0; id < 10_000; id++) {
+                CompletableFuture<Void> request = writer.submit(Mutation.delete(Aggregate.AWARDS, id));
+                synchronized (requests) {
+                    requests.add(request);
+                }
+            }
+        });
+        submitter.start();
+        Thread.sleep(2);
+        writer.close();
+        submitter.join();
+
+        synchronized (requests) {
+            for (CompletableFuture<Void> request : requests) {
+                // Times out if a request was queued behind the final checkpoint
+                try {
+                    request.get(5, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    assertInstanceOf(IllegalStateException.class, e.getCause());
+                }
+            }
+        }
+    }
+}
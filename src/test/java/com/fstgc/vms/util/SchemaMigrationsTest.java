@@ -0,0 +1,154 @@
+package com.fstgc.vms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fstgc.vms.model.Attendance;
+import com.fstgc.vms.model.SystemAdmin;
+import com.fstgc.vms.model.Timesheet;
+import com.fstgc.vms.model.Volunteer;
+import com.fstgc.vms.model.enums.BadgeTier;
+import com.fstgc.vms.model.enums.TimesheetStatus;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SchemaMigrationsTest {
+    private static final LocalDateTime MAY_1 = LocalDateTime.of(2025, 5, 1, 9, 0);
+
+    @TempDir
+    Path dir;
+
+    private final Gson gson = DataPersistence.gson();
+
+    @Test
+    void leavesWhatVersionOneOmittedUnknown() {
+        Volunteer volunteer = migrate(Aggregate.VOLUNTEERS, "{\"lastModifiedDate\":\"2024-01-02T03:04:05\",\"id\":1}", Volunteer.class);
+        assertNull(volunteer.getRegistrationDate());
+        assertNull(volunteer.getCurrentTier());
+
+        Timesheet timesheet = migrate(Aggregate.TIMESHEETS,
+                "{\"timesheetId\":1,\"periodStartDate\":\"2024-01-02\",\"totalHours\":4.5,\"approvalStatus\":\"APPROVED\"}", Timesheet.class);
+        assertNull(timesheet.getCreatedDate());
+        assertNull(timesheet.getApprovedHours());
+        assertNull(timesheet.getAttendanceId());
+        assertEquals(4.5, timesheet.getTotalHours());
+
+        SystemAdmin admin = migrate(Aggregate.ADMINS, "{\"username\":\"root\",\"lastLogin\":\"2024-01-02T03:04:05\",\"id\":1}", SystemAdmin.class);
+        assertNull(admin.getCreatedDate());
+        assertNotNull(admin.getLastLogin());
+    }
+
+    @Test
+    void keepsDatesThatWereWritten() {
+        Volunteer volunteer = migrate(Aggregate.VOLUNTEERS, "{\"registrationDate\":\"2024-01-02T03:04:05\",\"id\":1}", Volunteer.class);
+        assertEquals(LocalDateTime.of(2024, 1, 2, 3, 4, 5), volunteer.getRegistrationDate());
+    }
+
+    @Test
+    void unknownCreationDateSurvivesJson() throws IOException {
+        Volunteer volunteer = new Volunteer();
+        volunteer.setId(1);
+        volunteer.setRegistrationDate(null);
+        Timesheet timesheet = new Timesheet();
+        timesheet.setTimesheetId(2);
+        timesheet.setCreatedDate(null);
+
+        // A shard file, and a journal record as it is appended and replayed
+        Path file = dir.resolve("volunteers.json");
+        new JsonSnapshotFormat(gson).write(file, Aggregate.VOLUNTEERS, 0, new TreeMap<>(Map.of(1, volunteer)));
+        Map<Integer, Object> read = new HashMap<>();
+        new JsonSnapshotFormat(gson).read(file, Aggregate.VOLUNTEERS, read::put);
+        assertNull(((Volunteer) read.get(1)).getRegistrationDate());
+        assertFalse(Files.readString(file).contains("currentTier"));
+
+        JsonElement record = JsonParser.parseString(gson.toJsonTree(timesheet).toString());
+        assertNull(gson.fromJson(record, Timesheet.class).getCreatedDate());
+    }
+
+    @Test
+    void linksTimesheetsToTheirOnlyCompletedAttendance() {
+        Map<Integer, Attendance> attendance = Map.of(
+                1, attendance(1, 10, 100, 3),
+                2, attendance(2, 10, 200, 2),
+                3, attendance(3, 10, 200, 2),
+                4, attendance(4, 20, 100, 0));
+        Map<Integer, Timesheet> timesheets = new TreeMap<>();
+        timesheets.put(1, timesheet(10, 100, null));
+        timesheets.put(2, timesheet(10, 200, null));
+        timesheets.put(3, timesheet(20, 100, null));
+        timesheets.put(4, timesheet(10, 100, 7));
+        timesheets.put(5, timesheet(30, 100, null));
+
+        assertEquals(List.of(timesheets.get(1)), SchemaMigrations.linkAttendance(timesheets, attendance));
+        assertEquals(1, timesheets.get(1).getAttendanceId());
+        // Two records to choose from, an attendance still checked in, one already linked, none at all
+        assertNull(timesheets.get(2).getAttendanceId());
+        assertNull(timesheets.get(3).getAttendanceId());
+        assertEquals(7, timesheets.get(4).getAttendanceId());
+        assertNull(timesheets.get(5).getAttendanceId());
+    }
+
+    @Test
+    void assignsTiersFromCompletedHours() {
+        Map<Integer, Attendance> attendance = Map.of(
+                1, attendance(1, 10, 100, 40),
+                2, attendance(2, 10, 200, 15),
+                3, attendance(3, 20, 100, 9),
+                4, attendance(4, 20, 200, 0),
+                5, attendance(5, 30, 100, 250));
+        Map<Integer, Volunteer> volunteers = new TreeMap<>();
+        for (int id : new int[] {10, 20, 30, 40}) {
+            volunteers.put(id, volunteer(id));
+        }
+        volunteers.get(30).setCurrentTier(BadgeTier.GOLD);
+
+        assertEquals(List.of(volunteers.get(10)), SchemaMigrations.assignTiers(volunteers, attendance));
+        assertEquals(BadgeTier.SILVER, volunteers.get(10).getCurrentTier());
+        assertNull(volunteers.get(20).getCurrentTier());
+        assertEquals(BadgeTier.GOLD, volunteers.get(30).getCurrentTier());
+        assertNull(volunteers.get(40).getCurrentTier());
+    }
+
+    private <T> T migrate(Aggregate aggregate, String json, Class<T> type) {
+        return gson.fromJson(SchemaMigrations.migrate(aggregate, JsonParser.parseString(json), 1), type);
+    }
+
+    /** A completed attendance, or one still checked in if {@code hours} is 0. */
+    private static Attendance attendance(int id, int volunteerId, int eventId, double hours) {
+        Attendance attendance = new Attendance();
+        attendance.setAttendanceId(id);
+        attendance.setVolunteerId(volunteerId);
+        attendance.setEventId(eventId);
+        attendance.setCheckInTime(MAY_1);
+        if (hours > 0) {
+            attendance.setCheckOutTime(MAY_1.plusMinutes((long) (hours * 60)));
+            attendance.setHoursWorked(hours);
+        }
+        return attendance;
+    }
+
+    private static Timesheet timesheet(int volunteerId, int eventId, Integer attendanceId) {
+        Timesheet timesheet = new Timesheet();
+        timesheet.setVolunteerId(volunteerId);
+        timesheet.setEventId(eventId);
+        timesheet.setAttendanceId(attendanceId);
+        timesheet.setApprovalStatus(TimesheetStatus.PENDING);
+        return timesheet;
+    }
+
+    private static Volunteer volunteer(int id) {
+        Volunteer volunteer = new Volunteer();
+        volunteer.setId(id);
+        return volunteer;
+    }
+}
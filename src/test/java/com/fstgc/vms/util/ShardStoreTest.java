@@ -0,0 +1,98 @@
+package com.fstgc.vms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.gson.JsonObject;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ShardStoreTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void syncsSegmentBeforeJournalIsEmptied() throws IOException {
+        Path data = Files.createDirectory(dir.resolve("database"));
+        try (WriteAheadLog log = new WriteAheadLog(dir.resolve("journal.log"), false)) {
+            log.replay(m -> { });
+            JsonObject award = new JsonObject();
+            award.addProperty("awardId", 1);
+            log.append(List.of(Mutation.put(Aggregate.AWARDS, 1, award)));
+
+            long journaled = log.size();
+            assertTrue(journaled > 0);
+
+            // Each sync as "<name> <journal size at the time>", so the order shows against the truncation
+            List<String> syncs = new ArrayList<>();
+            ShardStore store = new ShardStore(data, path -> {
+                assertTrue(Files.exists(path), path + " synced before it exists");
+                syncs.add(path.getFileName() + " " + log.size());
+            }, new JsonSnapshotFormat(DataPersistence.gson()));
+
+            DataPersistence.commitSegment(store, 1, awards(), log);
+
+            assertEquals(List.of("delta-000001-awards-of1.json.tmp " + journaled, "database " + journaled), syncs);
+            assertTrue(Files.exists(data.resolve("delta-000001-awards-of1.json")));
+            assertEquals(0, log.size());
+        }
+    }
+
+    @Test
+    void keepsJournalWhenSegmentCannotBeSynced() throws IOException {
+        Path data = Files.createDirectory(dir.resolve("database"));
+        try (WriteAheadLog log = new WriteAheadLog(dir.resolve("journal.log"), false)) {
+            log.replay(m -> { });
+            log.append(List.of(Mutation.delete(Aggregate.AWARDS, 1)));
+            long journaled = log.size();
+            ShardStore store = new ShardStore(data, path -> {
+                throw new IOException("disk full");
+            }, new JsonSnapshotFormat(DataPersistence.gson()));
+
+            assertThrows(IOException.class, () -> DataPersistence.commitSegment(store, 1, awards(), log));
+            assertEquals(journaled, log.size());
+            assertFalse(Files.exists(data.resolve("delta-000001-awards-of1.json")));
+        }
+    }
+
+    @Test
+    void readsOnlyCompleteSegmentFilesOfTheAggregate() throws IOException {
+        JsonSnapshotFormat format = new JsonSnapshotFormat(DataPersistence.gson());
+        ShardStore store = new ShardStore(dir, path -> { }, format);
+        Map<Aggregate, SortedMap<Integer, Object>> first = awards();
+        first.put(Aggregate.VOLUNTEERS, new TreeMap<>(Map.of(3, ModelFixtures.filled(Aggregate.VOLUNTEERS, 3))));
+        store.writeSegment(store.nextSegment(), first);
+        Map<Aggregate, SortedMap<Integer, Object>> torn = awards();
+        torn.get(Aggregate.AWARDS).put(2, ModelFixtures.filled(Aggregate.AWARDS, 2));
+        torn.put(Aggregate.VOLUNTEERS, new TreeMap<>(Map.of(4, ModelFixtures.filled(Aggregate.VOLUNTEERS, 4))));
+        store.writeSegment(store.nextSegment(), torn);
+        Files.delete(dir.resolve("delta-000002-volunteers-of2.json"));
+        // A segment holding every aggregate in one file, as earlier versions wrote them
+        SortedMap<Integer, Object> deleted = new TreeMap<>();
+        deleted.put(1, null);
+        format.writeAll(dir.resolve("delta-000003.json"), Map.of(Aggregate.AWARDS, deleted));
+
+        List<String> read = new ArrayList<>();
+        assertEquals(2, store.loadSegments(Aggregate.AWARDS, (id, entity) -> read.add(id + (entity == null ? " deleted" : ""))));
+        assertEquals(List.of("1", "1 deleted"), read);
+        assertEquals(3, store.segmentCount());
+        assertEquals(3, store.deleteSegments(3));
+        assertEquals(0, store.segmentCount());
+    }
+
+    private static Map<Aggregate, SortedMap<Integer, Object>> awards() {
+        SortedMap<Integer, Object> awards = new TreeMap<>();
+        awards.put(1, ModelFixtures.filled(Aggregate.AWARDS, 1));
+        Map<Aggregate, SortedMap<Integer, Object>> delta = new EnumMap<>(Aggregate.class);
+        delta.put(Aggregate.AWARDS, awards);
+        return delta;
+    }
+}
@@ -0,0 +1,136 @@
+package com.fstgc.vms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.gson.JsonObject;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WriteAheadLogTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysWhatWasAppended() throws IOException {
+        Path file = dir.resolve("journal.log");
+        try (WriteAheadLog log = new WriteAheadLog(file, false)) {
+            assertEquals(0, log.replay(m -> fail("empty journal replayed " + m.id)));
+            log.append(List.of(award(1), Mutation.delete(Aggregate.AWARDS, 7)));
+        }
+        List<Mutation> replayed = replay(file);
+        assertEquals(2, replayed.size());
+        assertEquals(Mutation.Op.PUT, replayed.get(0).op);
+        assertEquals(1, replayed.get(0).entity.getAsJsonObject().get("awardId").getAsInt());
+        assertEquals(Mutation.Op.DELETE, replayed.get(1).op);
+        assertEquals(7, replayed.get(1).id);
+    }
+
+    @Test
+    void cutsOffTornTail() throws IOException {
+        Path file = dir.resolve("journal.log");
+        try (WriteAheadLog log = new WriteAheadLog(file, false)) {
+            log.replay(m -> { });
+            log.append(List.of(award(1), award(2)));
+        }
+        long intact = Files.size(file);
+        String torn = line(award(3)).substring(0, 30);
+        Files.writeString(file, torn, StandardOpenOption.APPEND);
+
+        assertEquals(2, replay(file).size());
+        assertEquals(intact, Files.size(file));
+    }
+
+    @Test
+    void cutsOffRecordWithBadChecksum() throws IOException {
+        Path file = dir.resolve("journal.log");
+        String good = line(award(1));
+        String bad = "00000000" + line(award(2)).substring(8);
+        Files.writeString(file, good + bad + line(award(3)));
+
+        List<Mutation> replayed = replay(file);
+        assertEquals(1, replayed.size());
+        assertEquals(good.getBytes(StandardCharsets.UTF_8).length, Files.size(file));
+    }
+
+    @Test
+    void dropsUnitWhoseLastRecordIsMissing() throws IOException {
+        Path file = dir.resolve("journal.log");
+        try (WriteAheadLog log = new WriteAheadLog(file, false)) {
+            log.replay(m -> { });
+            log.append(List.of(award(1)));
+            log.append(List.of(award(2).withMore(), award(3).withMore()));
+        }
+
+        List<Mutation> replayed = replay(file);
+        assertEquals(1, replayed.size());
+        assertEquals(1, replayed.get(0).id);
+    }
+
+    @Test
+    void refusesNewerSchemaAndLeavesJournalAlone() throws IOException {
+        Path file = dir.resolve("journal.log");
+        String newer = "{\"op\":\"PUT\",\"aggregate\":\"awards\",\"id\":1,\"schema\":" + (SchemaMigrations.CURRENT + 1)
+                + ",\"entity\":{\"awardId\":1}}";
+        String body = record(newer) + line(award(2));
+        Files.writeString(file, body);
+
+        List<Mutation> replayed = new ArrayList<>();
+        try (WriteAheadLog log = new WriteAheadLog(file, false)) {
+            assertThrows(IOException.class, () -> log.replay(replayed::add));
+        }
+        assertTrue(replayed.isEmpty());
+        assertEquals(body, Files.readString(file));
+    }
+
+    @Test
+    void refusesIntactRecordThatCannotBeRead() throws IOException {
+        Path file = dir.resolve("journal.log");
+        String body = line(award(1)) + record("{\"op\":\"PUT\",\"aggregate\":\"nonsense\",\"id\":2}");
+        Files.writeString(file, body);
+
+        try (WriteAheadLog log = new WriteAheadLog(file, false)) {
+            assertThrows(IOException.class, () -> log.replay(m -> { }));
+        }
+        assertEquals(body, Files.readString(file));
+    }
+
+    private static List<Mutation> replay(Path file) throws IOException {
+        List<Mutation> replayed = new ArrayList<>();
+        try (WriteAheadLog log = new WriteAheadLog(file, false)) {
+            log.replay(replayed::add);
+        }
+        return replayed;
+    }
+
+    private static Mutation award(int id) {
+        JsonObject entity = new JsonObject();
+        entity.addProperty("awardId", id);
+        entity.addProperty("volunteerId", 1);
+        return Mutation.put(Aggregate.AWARDS, id, entity);
+    }
+
+    /** The journal line {@link WriteAheadLog#append} writes for a single mutation. */
+    private String line(Mutation mutation) throws IOException {
+        Path scratch = Files.createTempFile(dir, "line", ".log");
+        Files.delete(scratch);
+        try (WriteAheadLog log = new WriteAheadLog(scratch, false)) {
+            log.replay(m -> { });
+            log.append(List.of(mutation));
+        }
+        return Files.readString(scratch);
+    }
+
+    private static String record(String payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload.getBytes(StandardCharsets.UTF_8));
+        return String.format("%08x", crc.getValue()) + " " + payload + "\n";
+    }
+}